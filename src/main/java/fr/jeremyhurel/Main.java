@@ -15,15 +15,23 @@ import com.googlecode.lanterna.gui2.dialogs.MessageDialogBuilder;
 import com.googlecode.lanterna.screen.Screen;
 import com.googlecode.lanterna.terminal.DefaultTerminalFactory;
 
+import fr.jeremyhurel.cli.BatchAnalyzer;
+import fr.jeremyhurel.constants.AppConstants;
+import fr.jeremyhurel.processors.AnalysisSession;
 import fr.jeremyhurel.ui.CalleeGraphDialog;
 import fr.jeremyhurel.ui.ClassDiagramDialog;
 import fr.jeremyhurel.ui.CouplingGraphDialog;
 import fr.jeremyhurel.ui.ModuleExtractionDialog;
 import fr.jeremyhurel.ui.StatsDialog;
+import fr.jeremyhurel.ui.WatchDialog;
 
 public class Main {
 
     public static void main(String[] args) {
+        if (args.length > 0) {
+            System.exit(BatchAnalyzer.run(args));
+        }
+
         try {
             new Main().start();
         } catch (IOException e) {
@@ -57,8 +65,10 @@ public class Main {
         menu.addItem("[3] Coupling Graph        - Study class coupling", () -> showCouplingGraph(gui));
         menu.addItem("[4] Module Extraction     - Extract cohesive modules", () -> showModuleExtraction(gui));
         menu.addItem("[5] Statistics            - View code metrics", () -> showStats(gui));
-        menu.addItem("[6] Help                  - Show documentation", () -> showHelp(gui));
-        menu.addItem("[7] Exit                  - Quit application", window::close);
+        menu.addItem("[6] Reload Sources        - Drop cached project models", () -> reloadSources(gui));
+        menu.addItem("[7] Watch Project         - Update analyses on file changes", () -> showWatch(gui));
+        menu.addItem("[8] Help                  - Show documentation", () -> showHelp(gui));
+        menu.addItem("[9] Exit                  - Quit application", window::close);
 
         panel.addComponent(menu);
         panel.addComponent(new EmptySpace());
@@ -96,6 +106,29 @@ public class Main {
         dialog.show();
     }
 
+    private void showWatch(MultiWindowTextGUI gui) {
+        WatchDialog dialog = new WatchDialog(gui);
+        dialog.show();
+    }
+
+    private void reloadSources(MultiWindowTextGUI gui) {
+        StringBuilder summary = new StringBuilder();
+        for (AnalysisSession session : AnalysisSession.getOpenSessions()) {
+            summary.append(session.getProjectPath()).append("\n  ")
+                    .append(session.getFactCacheSummary()).append("\n");
+        }
+        int sessionCount = AnalysisSession.getOpenSessions().size();
+        AnalysisSession.invalidateAll();
+
+        new MessageDialogBuilder()
+                .setTitle("Reload Sources")
+                .setText(summary + "\nDropped " + sessionCount + " cached project model(s).\n\n" +
+                        "Sources will be read again on the next analysis;\n" +
+                        "unchanged files are loaded from " + AppConstants.CACHE_DIRECTORY + "/.")
+                .build()
+                .showDialog(gui);
+    }
+
     private void showHelp(MultiWindowTextGUI gui) {
         new MessageDialogBuilder()
                 .setTitle("Help & Documentation")
@@ -125,10 +158,11 @@ public class Main {
                         [4] MODULE EXTRACTION
                            * Automatically identifies cohesive modules
                            * 4 extraction strategies available:
-                             - AUTO: Elbow method detection
+                             - AUTO: Highest modularity cut
                              - FIXED: Specify exact module count
                              - THRESHOLD: Minimum coupling threshold
                              - COMBINED: Fixed count + threshold
+                           * Live explorer: tune the cut with the arrow keys
                            * Exports module diagrams to PlantUML
                         
                         [5] STATISTICS
@@ -137,6 +171,18 @@ public class Main {
                            * Coupling statistics
                            * Module cohesion metrics
                         
+                        [6] RELOAD SOURCES
+                           * Projects are parsed once per session
+                           * All analyses share the same source model
+                           * Use after editing sources to re-parse
+                           * Facts of unchanged files are kept in .jrt-cache/
+                        
+                        [7] WATCH PROJECT
+                           * Watches the project directory for changes
+                           * Re-parses only the files that changed
+                           * Patches coupling, call graph, class diagram
+                             and statistics in place
+                        
                         --------------------------------------------------
                         For more information, visit:
                         https://github.com/DrHurel/java-refactoring-tool
@@ -0,0 +1,407 @@
+package fr.jeremyhurel.cli;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import fr.jeremyhurel.models.CallGraph;
+import fr.jeremyhurel.models.CalleeGraphNode;
+import fr.jeremyhurel.models.ClusterTree;
+import fr.jeremyhurel.models.CouplingGraph;
+import fr.jeremyhurel.models.Module;
+import fr.jeremyhurel.models.ModuleGraph;
+import fr.jeremyhurel.models.fact_models.FactDelta;
+import fr.jeremyhurel.models.fact_models.MethodFacts;
+import fr.jeremyhurel.models.fact_models.MethodIndex;
+import fr.jeremyhurel.models.strategies.GraphClusteringStrategy;
+import fr.jeremyhurel.models.strategies.ParameterizedClusteringStrategy;
+import fr.jeremyhurel.models.strategies.ParameterizedClusteringStrategy.Mode;
+import fr.jeremyhurel.processors.AnalysisSession;
+import fr.jeremyhurel.processors.IncrementalAnalysis;
+import fr.jeremyhurel.utils.SourceWatcher;
+import fr.jeremyhurel.utils.StatisticsExporter;
+
+public class AnalysisDaemon implements Closeable {
+
+    public static final int DEFAULT_CALL_DEPTH = 3;
+
+    private static final List<String> COMMANDS = List.of(
+            "ping",
+            "status",
+            "calls <class> <method> [depth]",
+            "callers <class> <method>",
+            "coupling [package]",
+            "modules [auto|fixed:N|threshold:T|combined:N:T|leiden[:R]|labelprop[:N]]",
+            "stats",
+            "refresh",
+            "help",
+            "shutdown");
+
+    private final IncrementalAnalysis analysis;
+    private final ServerSocket serverSocket;
+    private final ExecutorService clients;
+    private SourceWatcher watcher;
+
+    private ClusterTree clusterTree;
+    private int clusterTreeVersion = -1;
+
+    public AnalysisDaemon(IncrementalAnalysis analysis, int port) throws IOException {
+        this.analysis = analysis;
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.clients = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "analysis-daemon-client");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static int run(BatchOptions options) throws IOException {
+        AnalysisSession session = AnalysisSession.forProject(options.getProjectPath());
+        if (options.getParseThreads() != null) {
+            session.setParseThreads(options.getParseThreads());
+        }
+
+        IncrementalAnalysis analysis = new IncrementalAnalysis(session, options.getRootPackage());
+        analysis.initialize();
+        System.out.println("Sources: " + session.getFactCacheSummary());
+        System.out.println("Initial analysis in " + analysis.getLastUpdateTimeMillis() + " ms");
+
+        try (AnalysisDaemon daemon = new AnalysisDaemon(analysis, options.getPort())) {
+            daemon.watch(Paths.get(options.getProjectPath()));
+            System.out.println("Listening on " + daemon.getAddress() + " (send 'help' for commands)");
+            daemon.serve();
+        }
+        return BatchAnalyzer.EXIT_SUCCESS;
+    }
+
+    public void watch(Path projectPath) throws IOException {
+        watcher = new SourceWatcher(projectPath, changedPaths -> {
+            FactDelta delta = analysis.refresh(changedPaths);
+            if (!delta.isEmpty()) {
+                System.out.println("Updated " + delta + " in " + analysis.getLastUpdateTimeMillis() + " ms");
+            }
+        });
+        watcher.start();
+    }
+
+    public void serve() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                clients.execute(() -> handle(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("Could not accept daemon connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    public String getAddress() {
+        return serverSocket.getInetAddress().getHostAddress() + ":" + serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+        }
+        clients.shutdownNow();
+        serverSocket.close();
+    }
+
+    private void handle(Socket socket) {
+        try (socket;
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+
+            String request;
+            while ((request = in.readLine()) != null) {
+                if (request.isBlank()) {
+                    continue;
+                }
+                if (request.trim().equals("shutdown")) {
+                    out.println("OK 0 0.000");
+                    close();
+                    return;
+                }
+                respond(out, request.trim());
+            }
+        } catch (SocketException e) {
+            // Client went away or the daemon is shutting down.
+        } catch (IOException e) {
+            System.err.println("Daemon connection failed: " + e.getMessage());
+        }
+    }
+
+    // Each response is "OK <line count> <elapsed ms>" followed by that many lines, or "ERROR <message>".
+    private void respond(PrintWriter out, String request) {
+        long start = System.nanoTime();
+        try {
+            List<String> lines = answer(request);
+            double elapsedMillis = (System.nanoTime() - start) / 1_000_000.0;
+            out.println("OK " + lines.size() + " " + String.format("%.3f", elapsedMillis));
+            lines.forEach(out::println);
+        } catch (IllegalArgumentException e) {
+            out.println("ERROR " + e.getMessage());
+        } catch (RuntimeException e) {
+            out.println("ERROR " + e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+
+    List<String> answer(String request) {
+        String[] parts = request.split("\\s+");
+        String command = parts[0].toLowerCase();
+        String[] args = Arrays.copyOfRange(parts, 1, parts.length);
+
+        switch (command) {
+            case "ping":
+                return List.of("pong");
+            case "help":
+                return COMMANDS;
+            case "status":
+                return status();
+            case "calls":
+                requireArguments(args, 2, 3, "calls <class> <method> [depth]");
+                return calls(args[0], args[1], args.length > 2 ? parseDepth(args[2]) : DEFAULT_CALL_DEPTH);
+            case "callers":
+                requireArguments(args, 2, 2, "callers <class> <method>");
+                return callers(args[0], args[1]);
+            case "coupling":
+                requireArguments(args, 0, 1, "coupling [package]");
+                return coupling(args.length > 0 ? args[0] : null);
+            case "modules":
+                requireArguments(args, 0, 1, "modules [strategy]");
+                GraphClusteringStrategy communityDetection = args.length > 0
+                        ? BatchOptions.parseCommunityDetection(args[0])
+                        : null;
+                if (communityDetection != null) {
+                    return communities(communityDetection);
+                }
+                return modules(args.length > 0
+                        ? BatchOptions.parseStrategy(args[0])
+                        : new ParameterizedClusteringStrategy(Mode.AUTO));
+            case "stats":
+                synchronized (analysis) {
+                    return Arrays.asList(StatisticsExporter.formatStatisticsForDisplay(analysis.getStatistics())
+                            .split("\n"));
+                }
+            case "refresh":
+                FactDelta delta = analysis.refresh(Set.of(Paths.get(analysis.getSession().getProjectPath())));
+                return List.of(delta + " in " + analysis.getLastUpdateTimeMillis() + " ms");
+            default:
+                throw new IllegalArgumentException("Unknown command: " + command + " (send 'help' for commands)");
+        }
+    }
+
+    private List<String> status() {
+        synchronized (analysis) {
+            CouplingGraph couplingGraph = analysis.getCouplingGraph();
+            return List.of(
+                    "project: " + analysis.getSession().getProjectPath(),
+                    "root package: " + (analysis.getRootPackage() != null ? analysis.getRootPackage() : "all"),
+                    "sources: " + analysis.getSession().getFactCacheSummary(),
+                    "coupling: " + couplingGraph.getNodeCount() + " classes, "
+                            + couplingGraph.getCouplingCount() + " relationships",
+                    "call graph: " + analysis.getCallGraph().getNodeCount() + " methods",
+                    "class diagram: " + analysis.getClassDiagram().getClassCount() + " classes",
+                    "updates: " + analysis.getUpdateCount()
+                            + ", last took " + analysis.getLastUpdateTimeMillis() + " ms");
+        }
+    }
+
+    private List<String> calls(String className, String methodName, int maxDepth) {
+        synchronized (analysis) {
+            List<CalleeGraphNode> roots = findMethods(className, methodName);
+
+            List<String> edges = new ArrayList<>();
+            Map<CalleeGraphNode, Integer> depths = new HashMap<>();
+            Deque<CalleeGraphNode> queue = new ArrayDeque<>();
+            for (CalleeGraphNode root : roots) {
+                depths.put(root, 0);
+                queue.add(root);
+            }
+
+            while (!queue.isEmpty()) {
+                CalleeGraphNode node = queue.poll();
+                int depth = depths.get(node);
+                if (depth >= maxDepth) {
+                    continue;
+                }
+                for (CalleeGraphNode callee : node.getCallees()) {
+                    edges.add(describe(node) + " -> " + describe(callee));
+                    if (!depths.containsKey(callee)) {
+                        depths.put(callee, depth + 1);
+                        queue.add(callee);
+                    }
+                }
+            }
+            return edges;
+        }
+    }
+
+    private List<String> callers(String className, String methodName) {
+        synchronized (analysis) {
+            MethodIndex index = analysis.getSession().getMethodIndex();
+            List<MethodFacts> targets = index.getMethods(className, methodName);
+            if (targets.isEmpty()) {
+                return externalCallers(className, methodName);
+            }
+
+            List<String> callers = new ArrayList<>();
+            for (MethodFacts target : targets) {
+                for (MethodFacts caller : index.getCallers(target)) {
+                    callers.add(describe(caller) + " -> " + describe(target));
+                }
+            }
+            callers.sort(null);
+            return callers;
+        }
+    }
+
+    // Library methods are not declared in the sources, so only the call graph knows their callers.
+    private List<String> externalCallers(String className, String methodName) {
+        List<String> callers = new ArrayList<>();
+        for (CalleeGraphNode node : analysis.getCallGraph().getNodes().values()) {
+            for (CalleeGraphNode callee : node.getCallees()) {
+                if (callee.getClassName().equals(className) && callee.getMethodName().equals(methodName)) {
+                    callers.add(describe(node) + " -> " + describe(callee));
+                }
+            }
+        }
+        if (callers.isEmpty()) {
+            throw new IllegalArgumentException("Unknown method: " + className + "." + methodName);
+        }
+        callers.sort(null);
+        return callers;
+    }
+
+    private List<CalleeGraphNode> findMethods(String className, String methodName) {
+        CallGraph callGraph = analysis.getCallGraph();
+        List<CalleeGraphNode> methods = new ArrayList<>();
+        for (MethodFacts method : analysis.getSession().getMethodIndex().getMethods(className, methodName)) {
+            CalleeGraphNode node = callGraph.getNode(className, methodName, method.getSignature());
+            if (node != null) {
+                methods.add(node);
+            }
+        }
+        if (methods.isEmpty()) {
+            throw new IllegalArgumentException("Unknown method: " + className + "." + methodName);
+        }
+        return methods;
+    }
+
+    private String describe(MethodFacts method) {
+        return method.getDeclaringType() + "." + method.getSignature();
+    }
+
+    private String describe(CalleeGraphNode node) {
+        return node.getClassName() + "." + node.getSignature();
+    }
+
+    private List<String> coupling(String packageName) {
+        synchronized (analysis) {
+            CouplingGraph couplingGraph = analysis.getCouplingGraph();
+
+            List<Map.Entry<String, Double>> pairs = new ArrayList<>();
+            for (Map.Entry<String, Map<String, Double>> row : couplingGraph.getCouplingMatrix().entrySet()) {
+                for (Map.Entry<String, Double> entry : row.getValue().entrySet()) {
+                    String from = row.getKey();
+                    String to = entry.getKey();
+                    if (packageName == null || isInPackage(from, packageName) || isInPackage(to, packageName)) {
+                        pairs.add(Map.entry(from + " -> " + to + " " + couplingGraph.getCallCount(from, to),
+                                entry.getValue()));
+                    }
+                }
+            }
+
+            pairs.sort((a, b) -> {
+                int byWeight = Double.compare(b.getValue(), a.getValue());
+                return byWeight != 0 ? byWeight : a.getKey().compareTo(b.getKey());
+            });
+
+            List<String> lines = new ArrayList<>();
+            for (Map.Entry<String, Double> pair : pairs) {
+                lines.add(pair.getKey() + " " + String.format("%.6f", pair.getValue()));
+            }
+            return lines;
+        }
+    }
+
+    private boolean isInPackage(String className, String packageName) {
+        return className.equals(packageName) || className.startsWith(packageName + ".");
+    }
+
+    private List<String> modules(ParameterizedClusteringStrategy strategy) {
+        synchronized (analysis) {
+            CouplingGraph couplingGraph = analysis.getCouplingGraph();
+            if (clusterTree == null || clusterTreeVersion != analysis.getUpdateCount()) {
+                clusterTree = new ClusterTree();
+                if (!couplingGraph.isEmpty()) {
+                    clusterTree.buildFromCouplingGraph(couplingGraph);
+                }
+                clusterTreeVersion = analysis.getUpdateCount();
+            }
+
+            return describeModules(clusterTree.extractModules(strategy, couplingGraph));
+        }
+    }
+
+    private List<String> communities(GraphClusteringStrategy communityDetection) {
+        synchronized (analysis) {
+            CouplingGraph couplingGraph = analysis.getCouplingGraph();
+            if (couplingGraph.isEmpty()) {
+                return new ArrayList<>();
+            }
+            return describeModules(communityDetection.extractModules(couplingGraph));
+        }
+    }
+
+    private List<String> describeModules(ModuleGraph moduleGraph) {
+        List<String> lines = new ArrayList<>();
+        for (Module module : moduleGraph.getModules()) {
+            lines.add(module.getName() + " (" + module.getClasses().size() + " classes, cohesion "
+                    + String.format("%.4f", module.getCohesion()) + "): "
+                    + String.join(" ", module.getClasses()));
+        }
+        return lines;
+    }
+
+    private void requireArguments(String[] args, int min, int max, String usage) {
+        if (args.length < min || args.length > max) {
+            throw new IllegalArgumentException("Usage: " + usage);
+        }
+    }
+
+    private int parseDepth(String value) {
+        try {
+            int depth = Integer.parseInt(value);
+            if (depth < 1) {
+                throw new IllegalArgumentException("Depth must be at least 1");
+            }
+            return depth;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid depth: " + value);
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package fr.jeremyhurel.cli;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import fr.jeremyhurel.constants.AppConstants;
+import fr.jeremyhurel.models.CallGraph;
+import fr.jeremyhurel.models.ClusterTree;
+import fr.jeremyhurel.models.CouplingGraph;
+import fr.jeremyhurel.models.ModuleGraph;
+import fr.jeremyhurel.models.ProjectStatistics;
+import fr.jeremyhurel.models.class_models.ClassDiagram;
+import fr.jeremyhurel.models.fact_models.TypeFacts;
+import fr.jeremyhurel.models.strategies.GraphClusteringStrategy;
+import fr.jeremyhurel.processors.AnalysisSession;
+import fr.jeremyhurel.processors.StatisticsProcessor;
+import fr.jeremyhurel.scanners.ClassDiagramScanner;
+import fr.jeremyhurel.scanners.CompositeTypeScanner;
+import fr.jeremyhurel.scanners.CouplingGraphScanner;
+import fr.jeremyhurel.scanners.MethodCallScanner;
+import fr.jeremyhurel.scanners.StatisticsScanner;
+import fr.jeremyhurel.utils.CallGraphExporter;
+import fr.jeremyhurel.utils.ClassDiagramExporter;
+import fr.jeremyhurel.utils.ClusterTreeExporter;
+import fr.jeremyhurel.utils.CouplingGraphExporter;
+import fr.jeremyhurel.utils.StatisticsExporter;
+import fr.jeremyhurel.utils.strategies.ClassDiagramWithModulesPlantUMLExportStrategy;
+import fr.jeremyhurel.utils.strategies.ModuleGraphSnapshotExportStrategy;
+
+public class BatchAnalyzer {
+
+    public static final int EXIT_SUCCESS = 0;
+    public static final int EXIT_ERROR = 1;
+    public static final int EXIT_GATE_FAILED = 2;
+
+    private static final int MAX_REPORTED_VIOLATIONS = 10;
+
+    private final BatchOptions options;
+    private final PrintStream out;
+
+    private CouplingGraph couplingGraph;
+    private CallGraph callGraph;
+    private ClassDiagram classDiagram;
+    private StatisticsScanner statisticsScanner;
+
+    public BatchAnalyzer(BatchOptions options) {
+        this(options, System.out);
+    }
+
+    public BatchAnalyzer(BatchOptions options, PrintStream out) {
+        this.options = options;
+        this.out = out;
+    }
+
+    public static int run(String[] args) {
+        BatchOptions options;
+        try {
+            options = BatchOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println();
+            System.err.print(BatchOptions.usage());
+            return EXIT_ERROR;
+        }
+
+        if (options.isHelp()) {
+            System.out.print(BatchOptions.usage());
+            return EXIT_SUCCESS;
+        }
+
+        try {
+            if (options.isDaemon()) {
+                return AnalysisDaemon.run(options);
+            }
+            return new BatchAnalyzer(options).execute();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Batch analysis failed: " + e.getMessage());
+            return EXIT_ERROR;
+        }
+    }
+
+    public int execute() throws IOException {
+        long start = System.currentTimeMillis();
+
+        if (!Files.isDirectory(Paths.get(options.getProjectPath()))) {
+            throw new IOException("Project path is not a directory: " + options.getProjectPath());
+        }
+        Files.createDirectories(Paths.get(options.getOutputDirectory()));
+
+        AnalysisSession session = AnalysisSession.forProject(options.getProjectPath());
+        if (options.getParseThreads() != null) {
+            session.setParseThreads(options.getParseThreads());
+        }
+
+        long phase = System.currentTimeMillis();
+        List<TypeFacts> types = session.getTypeFacts();
+        out.println("Sources: " + session.getFactCacheSummary());
+        out.println("Loaded " + types.size() + " types in " + (System.currentTimeMillis() - phase) + " ms");
+
+        phase = System.currentTimeMillis();
+        CompositeTypeScanner scanner = createScanner();
+        types.forEach(scanner::process);
+        if (couplingGraph != null) {
+            couplingGraph.removeOrphanedNodes();
+            couplingGraph.calculateNormalizedCoupling();
+        }
+        out.println("Analyzed " + options.getAnalyses() + " in " + (System.currentTimeMillis() - phase) + " ms");
+
+        if (options.isAnalysisSelected("coupling")) {
+            exportCouplingGraph();
+        }
+        if (options.isAnalysisSelected("callgraph")) {
+            exportCallGraph();
+        }
+        if (options.isAnalysisSelected("classdiagram")) {
+            exportClassDiagram();
+        }
+        if (options.isAnalysisSelected("stats")) {
+            exportStatistics();
+        }
+        if (options.isAnalysisSelected("modules")) {
+            exportModules();
+        }
+
+        int exitCode = checkCouplingGate();
+        out.println("Total time: " + (System.currentTimeMillis() - start) + " ms");
+        return exitCode;
+    }
+
+    private CompositeTypeScanner createScanner() {
+        CompositeTypeScanner scanner = new CompositeTypeScanner();
+        String rootPackage = options.getRootPackage();
+
+        if (options.isAnalysisSelected("coupling") || options.isAnalysisSelected("modules")
+                || options.getMaxCoupling() != null) {
+            couplingGraph = new CouplingGraph();
+            scanner.addSink(rootPackage != null
+                    ? new CouplingGraphScanner(couplingGraph, rootPackage)
+                    : new CouplingGraphScanner(couplingGraph));
+        }
+
+        if (options.isAnalysisSelected("classdiagram")
+                || (options.isAnalysisSelected("modules") && options.isFormatSelected("puml"))) {
+            classDiagram = new ClassDiagram();
+            if (rootPackage != null) {
+                classDiagram.setRootPackage(rootPackage);
+                scanner.addSink(new ClassDiagramScanner(classDiagram, rootPackage));
+            } else {
+                scanner.addSink(new ClassDiagramScanner(classDiagram));
+            }
+        }
+
+        if (options.isAnalysisSelected("callgraph")) {
+            callGraph = new CallGraph();
+            scanner.addSink(new MethodCallScanner(callGraph));
+        }
+
+        if (options.isAnalysisSelected("stats")) {
+            statisticsScanner = new StatisticsScanner();
+            scanner.addSink(statisticsScanner);
+        }
+
+        return scanner;
+    }
+
+    private void exportCouplingGraph() throws IOException {
+        out.println("Coupling graph: " + couplingGraph.getNodeCount() + " classes, "
+                + couplingGraph.getCouplingCount() + " relationships, "
+                + couplingGraph.getTotalMethodCalls() + " method calls");
+        if (options.isFormatSelected("json")) {
+            CouplingGraphExporter.exportToJson(couplingGraph, written("couplinggraph" + AppConstants.JSON_EXTENSION),
+                    !options.isCompactJson());
+        }
+        if (options.isFormatSelected("dot")) {
+            CouplingGraphExporter.exportToDot(couplingGraph, written("couplinggraph" + AppConstants.DOT_EXTENSION));
+        }
+        if (options.isFormatSelected("snap")) {
+            CouplingGraphExporter.exportToSnapshot(couplingGraph,
+                    written("couplinggraph" + AppConstants.SNAPSHOT_EXTENSION));
+        }
+    }
+
+    private void exportCallGraph() throws IOException {
+        out.println("Call graph: " + callGraph.getNodeCount() + " methods");
+        if (options.isFormatSelected("json")) {
+            CallGraphExporter.exportToJson(callGraph, written("callgraph" + AppConstants.JSON_EXTENSION),
+                    !options.isCompactJson());
+        }
+        if (options.isFormatSelected("dot")) {
+            CallGraphExporter.exportToDot(callGraph, written("callgraph" + AppConstants.DOT_EXTENSION),
+                    options.getDotMaxNodes(), options.getDotMaxEdges());
+        }
+        if (options.isFormatSelected("snap")) {
+            CallGraphExporter.exportToSnapshot(callGraph, written("callgraph" + AppConstants.SNAPSHOT_EXTENSION));
+        }
+    }
+
+    private void exportClassDiagram() throws IOException {
+        out.println("Class diagram: " + classDiagram.getClassCount() + " classes, "
+                + classDiagram.getRelationshipCount() + " relationships");
+        if (options.isFormatSelected("json")) {
+            ClassDiagramExporter.exportToJson(classDiagram, written("classdiagram" + AppConstants.JSON_EXTENSION),
+                    !options.isCompactJson());
+        }
+        if (options.isFormatSelected("puml")) {
+            ClassDiagramExporter.exportToPlantUML(classDiagram, written("classdiagram" + AppConstants.PUML_EXTENSION));
+        }
+    }
+
+    private void exportStatistics() throws IOException {
+        ProjectStatistics statistics = StatisticsProcessor.calculateStatistics(
+                statisticsScanner, AppConstants.DEFAULT_METHOD_THRESHOLD);
+        out.println("Statistics: " + statistics.getTotalClasses() + " classes, "
+                + statistics.getTotalMethods() + " methods, "
+                + statistics.getTotalLinesOfCode() + " LOC");
+        if (options.isFormatSelected("txt")) {
+            StatisticsExporter.exportToText(statistics, written("project-statistics" + AppConstants.TXT_EXTENSION));
+        }
+    }
+
+    private void exportModules() throws IOException {
+        if (couplingGraph.isEmpty()) {
+            out.println("Modules: skipped, no coupling found");
+            return;
+        }
+
+        long phase = System.currentTimeMillis();
+        ModuleGraph moduleGraph;
+        ClusterTree clusterTree = null;
+        String strategyName;
+        GraphClusteringStrategy communityDetection = options.getCommunityDetection();
+        if (communityDetection != null) {
+            moduleGraph = communityDetection.extractModules(couplingGraph);
+            strategyName = communityDetection.getStrategyName();
+        } else {
+            clusterTree = new ClusterTree(options.getClusteringEngine(), options.getLinkage());
+            clusterTree.buildFromCouplingGraph(couplingGraph);
+            moduleGraph = clusterTree.extractModules(options.getStrategy(), couplingGraph);
+            strategyName = options.getStrategy().getStrategyName();
+        }
+        out.println("Modules: " + moduleGraph.getModuleCount() + " modules (" + strategyName + "), average cohesion "
+                + String.format("%.4f", moduleGraph.getAverageCohesion()) + " in "
+                + (System.currentTimeMillis() - phase) + " ms");
+
+        if (options.isFormatSelected("txt")) {
+            moduleGraph.exportToFile(written("modules" + AppConstants.TXT_EXTENSION));
+        }
+        if (options.isFormatSelected("puml")) {
+            new ClassDiagramWithModulesPlantUMLExportStrategy(classDiagram, moduleGraph)
+                    .export(written("classdiagram-with-modules" + AppConstants.PUML_EXTENSION));
+        }
+        if (options.isFormatSelected("snap")) {
+            new ModuleGraphSnapshotExportStrategy().export(moduleGraph, written("modules" + AppConstants.SNAPSHOT_EXTENSION));
+            if (clusterTree != null) {
+                ClusterTreeExporter.exportToSnapshot(clusterTree, written("clustertree" + AppConstants.SNAPSHOT_EXTENSION));
+            }
+        }
+    }
+
+    // Coupling of a pair counts the calls in both directions, as in Couplage(A,B).
+    private int checkCouplingGate() {
+        Double maxCoupling = options.getMaxCoupling();
+        if (maxCoupling == null) {
+            return EXIT_SUCCESS;
+        }
+
+        List<String> violations = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Double>> row : couplingGraph.getCouplingMatrix().entrySet()) {
+            String from = row.getKey();
+            for (Map.Entry<String, Double> entry : row.getValue().entrySet()) {
+                String to = entry.getKey();
+                if (from.equals(to) || (from.compareTo(to) > 0 && couplingGraph.getCouplingWeight(to, from) > 0)) {
+                    continue;
+                }
+                double coupling = entry.getValue() + couplingGraph.getCouplingWeight(to, from);
+                if (coupling > maxCoupling) {
+                    violations.add(String.format("%s <-> %s: %.6f", from, to, coupling));
+                }
+            }
+        }
+
+        if (violations.isEmpty()) {
+            out.println("Coupling gate passed: no class pair above " + maxCoupling);
+            return EXIT_SUCCESS;
+        }
+
+        violations.sort(null);
+        System.err.println("Coupling gate failed: " + violations.size() + " class pair(s) above " + maxCoupling);
+        violations.stream().limit(MAX_REPORTED_VIOLATIONS).forEach(v -> System.err.println("  " + v));
+        if (violations.size() > MAX_REPORTED_VIOLATIONS) {
+            System.err.println("  ... and " + (violations.size() - MAX_REPORTED_VIOLATIONS) + " more");
+        }
+        return EXIT_GATE_FAILED;
+    }
+
+    private String written(String fileName) {
+        Path path = Paths.get(options.getOutputDirectory(), fileName);
+        out.println("  -> " + path);
+        return path.toString();
+    }
+}
@@ -0,0 +1,357 @@
+package fr.jeremyhurel.cli;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import fr.jeremyhurel.constants.AppConstants;
+import fr.jeremyhurel.models.ClusterTree;
+import fr.jeremyhurel.models.LabelPropagationClustering;
+import fr.jeremyhurel.models.LeidenClustering;
+import fr.jeremyhurel.models.strategies.GraphClusteringStrategy;
+import fr.jeremyhurel.models.strategies.ParameterizedClusteringStrategy;
+import fr.jeremyhurel.models.strategies.ParameterizedClusteringStrategy.Mode;
+
+public class BatchOptions {
+
+    public static final List<String> ANALYSES = List.of("coupling", "callgraph", "classdiagram", "stats", "modules");
+    public static final List<String> FORMATS = List.of("json", "dot", "puml", "txt", "snap");
+
+    private String projectPath = "./src/main/java";
+    private String rootPackage;
+    private String outputDirectory = ".";
+    private Set<String> analyses = new LinkedHashSet<>(ANALYSES);
+    private Set<String> formats = new LinkedHashSet<>(FORMATS);
+    private ParameterizedClusteringStrategy strategy = new ParameterizedClusteringStrategy(Mode.AUTO);
+    private GraphClusteringStrategy communityDetection;
+    private ClusterTree.Engine clusteringEngine = ClusterTree.Engine.NEAREST_NEIGHBOR_CHAIN;
+    private ClusterTree.Linkage linkage = ClusterTree.Linkage.WEIGHTED;
+    private Double maxCoupling;
+    private Integer parseThreads;
+    private int dotMaxNodes = AppConstants.DEFAULT_DOT_MAX_NODES;
+    private int dotMaxEdges = AppConstants.DEFAULT_DOT_MAX_EDGES;
+    private boolean compactJson;
+    private boolean daemon;
+    private int port = AppConstants.DEFAULT_DAEMON_PORT;
+    private boolean help;
+
+    public static BatchOptions parse(String[] args) {
+        BatchOptions options = new BatchOptions();
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            String value = null;
+            int equals = arg.indexOf('=');
+            if (arg.startsWith("--") && equals > 0) {
+                value = arg.substring(equals + 1);
+                arg = arg.substring(0, equals);
+            }
+
+            if (arg.equals("--help") || arg.equals("-h")) {
+                options.help = true;
+                continue;
+            }
+            if (arg.equals("--daemon")) {
+                options.daemon = true;
+                continue;
+            }
+            if (arg.equals("--compact-json")) {
+                options.compactJson = true;
+                continue;
+            }
+
+            if (value == null) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + arg);
+                }
+                value = args[++i];
+            }
+
+            switch (arg) {
+                case "--project":
+                case "-p":
+                    options.projectPath = value;
+                    break;
+                case "--root-package":
+                    options.rootPackage = value;
+                    break;
+                case "--out":
+                case "-o":
+                    options.outputDirectory = value;
+                    break;
+                case "--analyze":
+                case "-a":
+                    options.analyses = parseList(value, ANALYSES, "analysis");
+                    break;
+                case "--format":
+                case "-f":
+                    options.formats = parseList(value, FORMATS, "format");
+                    break;
+                case "--strategy":
+                    options.communityDetection = parseCommunityDetection(value);
+                    if (options.communityDetection == null) {
+                        options.strategy = parseStrategy(value);
+                    }
+                    break;
+                case "--clustering":
+                    options.clusteringEngine = parseEngine(value);
+                    break;
+                case "--linkage":
+                    options.linkage = parseLinkage(value);
+                    break;
+                case "--max-coupling":
+                    options.maxCoupling = parseDouble(value, arg);
+                    break;
+                case "--dot-limit":
+                    parseDotLimit(options, value);
+                    break;
+                case "--threads":
+                    options.parseThreads = parseInt(value, arg);
+                    break;
+                case "--port":
+                    options.port = parseInt(value, arg);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        return options;
+    }
+
+    private static Set<String> parseList(String value, List<String> allowed, String kind) {
+        Set<String> values = new LinkedHashSet<>();
+        for (String item : value.split(",")) {
+            String name = item.trim().toLowerCase();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (name.equals("all")) {
+                values.addAll(allowed);
+            } else if (allowed.contains(name)) {
+                values.add(name);
+            } else {
+                throw new IllegalArgumentException("Unknown " + kind + ": " + name + " (expected one of " + allowed + ")");
+            }
+        }
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("No " + kind + " selected");
+        }
+        return values;
+    }
+
+    // leiden | leiden:RESOLUTION | labelprop | labelprop:MAX_ITERATIONS, or null for the tree cut strategies
+    static GraphClusteringStrategy parseCommunityDetection(String value) {
+        List<String> parts = Arrays.asList(value.trim().toLowerCase().split(":"));
+        String mode = parts.get(0);
+
+        if (mode.equals("leiden") && parts.size() == 1) {
+            return new LeidenClustering();
+        }
+        if (mode.equals("leiden") && parts.size() == 2) {
+            double resolution = parseDouble(parts.get(1), "--strategy");
+            if (resolution <= 0) {
+                throw new IllegalArgumentException("Leiden resolution must be positive: " + value);
+            }
+            return new LeidenClustering(resolution);
+        }
+        if (mode.equals("labelprop") && parts.size() == 1) {
+            return new LabelPropagationClustering();
+        }
+        if (mode.equals("labelprop") && parts.size() == 2) {
+            int maxIterations = parseInt(parts.get(1), "--strategy");
+            if (maxIterations < 1) {
+                throw new IllegalArgumentException("Label propagation needs at least one iteration: " + value);
+            }
+            return new LabelPropagationClustering(maxIterations);
+        }
+        if (mode.equals("leiden") || mode.equals("labelprop")) {
+            throw new IllegalArgumentException(
+                    "Invalid strategy: " + value + " (expected leiden[:RESOLUTION] or labelprop[:MAX_ITERATIONS])");
+        }
+        return null;
+    }
+
+    // auto | fixed:N | threshold:T | combined:N:T
+    static ParameterizedClusteringStrategy parseStrategy(String value) {
+        List<String> parts = Arrays.asList(value.trim().toLowerCase().split(":"));
+        String mode = parts.get(0);
+
+        if (mode.equals("auto") && parts.size() == 1) {
+            return new ParameterizedClusteringStrategy(Mode.AUTO);
+        }
+        if (mode.equals("fixed") && parts.size() == 2) {
+            return new ParameterizedClusteringStrategy(Mode.FIXED_COUNT, parseInt(parts.get(1), "--strategy"));
+        }
+        if (mode.equals("threshold") && parts.size() == 2) {
+            return new ParameterizedClusteringStrategy(Mode.THRESHOLD, parseDouble(parts.get(1), "--strategy"));
+        }
+        if (mode.equals("combined") && parts.size() == 3) {
+            return new ParameterizedClusteringStrategy(
+                    parseInt(parts.get(1), "--strategy"), parseDouble(parts.get(2), "--strategy"));
+        }
+        throw new IllegalArgumentException(
+                "Invalid strategy: " + value + " (expected auto, fixed:N, threshold:T, combined:N:T, leiden[:R] or labelprop[:N])");
+    }
+
+    static ClusterTree.Engine parseEngine(String value) {
+        switch (value.trim().toLowerCase()) {
+            case "nn-chain":
+                return ClusterTree.Engine.NEAREST_NEIGHBOR_CHAIN;
+            case "legacy":
+                return ClusterTree.Engine.LEGACY;
+            default:
+                throw new IllegalArgumentException("Invalid clustering engine: " + value + " (expected nn-chain or legacy)");
+        }
+    }
+
+    static ClusterTree.Linkage parseLinkage(String value) {
+        for (ClusterTree.Linkage linkage : ClusterTree.Linkage.values()) {
+            if (linkage.name().equalsIgnoreCase(value.trim())) {
+                return linkage;
+            }
+        }
+        throw new IllegalArgumentException(
+                "Invalid linkage: " + value + " (expected single, complete, average, weighted or ward)");
+    }
+
+    // NODES or NODES:EDGES
+    private static void parseDotLimit(BatchOptions options, String value) {
+        String[] parts = value.trim().split(":");
+        if (parts.length > 2) {
+            throw new IllegalArgumentException("Invalid DOT limit: " + value + " (expected NODES or NODES:EDGES)");
+        }
+        options.dotMaxNodes = parseInt(parts[0], "--dot-limit");
+        if (parts.length == 2) {
+            options.dotMaxEdges = parseInt(parts[1], "--dot-limit");
+        }
+        if (options.dotMaxNodes < 1 || options.dotMaxEdges < 0) {
+            throw new IllegalArgumentException("DOT limit must allow at least one node: " + value);
+        }
+    }
+
+    private static int parseInt(String value, String option) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + option + ": " + value);
+        }
+    }
+
+    private static double parseDouble(String value, String option) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + option + ": " + value);
+        }
+    }
+
+    public static String usage() {
+        return """
+                Usage: java -jar java-refactoring-tool.jar [options]
+
+                Runs the selected analyses without the terminal UI and writes their exports.
+                Without options the interactive UI is started.
+
+                Options:
+                  -p, --project <path>       Java source directory (default: ./src/main/java)
+                      --root-package <name>  Restrict coupling and class diagram to a package
+                  -a, --analyze <list>       coupling,callgraph,classdiagram,stats,modules or all (default: all)
+                  -o, --out <dir>            Output directory (default: .)
+                  -f, --format <list>        json,dot,puml,txt,snap or all (default: all)
+                      --strategy <spec>      Module extraction: auto, fixed:N, threshold:T, combined:N:T,
+                                             leiden[:R] for community detection at resolution R,
+                                             or labelprop[:N] for label propagation with at most N sweeps
+                      --clustering <engine>  Hierarchical clustering: nn-chain or legacy (default: nn-chain)
+                      --linkage <criterion>  single, complete, average, weighted or ward (default: weighted)
+                      --max-coupling <value> Fail with exit code 2 if a class pair exceeds this coupling
+                      --threads <n>          Parse the sources on n threads
+                      --dot-limit <n[:e]>    Largest call graph DOT export in methods[:calls]
+                                             (default: %d:%d, the rest is marked as truncated)
+                      --compact-json         Write the JSON exports without indentation
+                      --daemon               Keep the analyses in memory and answer queries on a local port
+                      --port <n>             Daemon port on the loopback interface (default: %d)
+                  -h, --help                 Show this help
+
+                Exit codes: 0 success, 1 error, 2 coupling gate failed
+                """.formatted(AppConstants.DEFAULT_DOT_MAX_NODES, AppConstants.DEFAULT_DOT_MAX_EDGES,
+                        AppConstants.DEFAULT_DAEMON_PORT);
+    }
+
+    public boolean isAnalysisSelected(String analysis) {
+        return analyses.contains(analysis);
+    }
+
+    public boolean isFormatSelected(String format) {
+        return formats.contains(format);
+    }
+
+    public String getProjectPath() {
+        return projectPath;
+    }
+
+    public String getRootPackage() {
+        return rootPackage;
+    }
+
+    public String getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    public Set<String> getAnalyses() {
+        return analyses;
+    }
+
+    public Set<String> getFormats() {
+        return formats;
+    }
+
+    public ParameterizedClusteringStrategy getStrategy() {
+        return strategy;
+    }
+
+    public GraphClusteringStrategy getCommunityDetection() {
+        return communityDetection;
+    }
+
+    public ClusterTree.Engine getClusteringEngine() {
+        return clusteringEngine;
+    }
+
+    public ClusterTree.Linkage getLinkage() {
+        return linkage;
+    }
+
+    public Double getMaxCoupling() {
+        return maxCoupling;
+    }
+
+    public Integer getParseThreads() {
+        return parseThreads;
+    }
+
+    public int getDotMaxNodes() {
+        return dotMaxNodes;
+    }
+
+    public int getDotMaxEdges() {
+        return dotMaxEdges;
+    }
+
+    public boolean isCompactJson() {
+        return compactJson;
+    }
+
+    public boolean isDaemon() {
+        return daemon;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public boolean isHelp() {
+        return help;
+    }
+}
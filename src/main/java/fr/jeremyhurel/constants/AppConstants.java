@@ -19,6 +19,18 @@ public final class AppConstants {
     public static final String TXT_EXTENSION = ".txt";
     public static final String PUML_EXTENSION = ".puml";
     public static final String NWK_EXTENSION = ".nwk";
+    public static final String SNAPSHOT_EXTENSION = ".snap";
+    public static final String JAVA_EXTENSION = ".java";
+
+    public static final String CACHE_DIRECTORY = ".jrt-cache";
+
+    public static final String PARSE_THREADS_PROPERTY = "jrt.parse.threads";
+    public static final int DEFAULT_PARSE_THREADS = 1;
+
+    public static final int DEFAULT_DAEMON_PORT = 7391;
+
+    public static final int DEFAULT_DOT_MAX_NODES = 10000;
+    public static final int DEFAULT_DOT_MAX_EDGES = 50000;
 
     public static final class DotConfig {
         public static final String RANKDIR_LR = "LR";
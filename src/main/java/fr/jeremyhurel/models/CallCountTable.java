@@ -0,0 +1,138 @@
+package fr.jeremyhurel.models;
+
+import java.util.Arrays;
+
+// Open-addressing map from a packed (from, to) class id pair to its call count.
+class CallCountTable {
+
+    private static final long EMPTY = -1L;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] keys;
+    private int[] counts;
+    private int size;
+
+    CallCountTable() {
+        this(0);
+    }
+
+    // Sized so that the expected number of pairs fits without a resize.
+    CallCountTable(int expectedSize) {
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < expectedSize * 2L + 2 && capacity < 1 << 30) {
+            capacity <<= 1;
+        }
+        keys = new long[capacity];
+        counts = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    static long key(int from, int to) {
+        return ((long) from << 32) | (to & 0xFFFFFFFFL);
+    }
+
+    static int from(long key) {
+        return (int) (key >>> 32);
+    }
+
+    static int to(long key) {
+        return (int) key;
+    }
+
+    int get(long key) {
+        int slot = find(key);
+        return keys[slot] == EMPTY ? 0 : counts[slot];
+    }
+
+    // Returns the count after adding a positive amount.
+    int add(long key, int amount) {
+        int slot = find(key);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            counts[slot] = amount;
+            if (++size * 2 > keys.length) {
+                resize();
+            }
+            return amount;
+        }
+        counts[slot] += amount;
+        return counts[slot];
+    }
+
+    // Returns the count after the decrement, or -1 if the pair was absent.
+    int decrement(long key) {
+        int slot = find(key);
+        if (keys[slot] == EMPTY) {
+            return -1;
+        }
+        if (--counts[slot] > 0) {
+            return counts[slot];
+        }
+        delete(slot);
+        return 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long[] sortedKeys() {
+        long[] result = new long[size];
+        int next = 0;
+        for (long key : keys) {
+            if (key != EMPTY) {
+                result[next++] = key;
+            }
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Backward-shift deletion keeps probe chains intact without tombstones.
+    private void delete(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                counts[hole] = counts[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = EMPTY;
+        counts[hole] = 0;
+        size--;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new int[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -33,6 +33,14 @@ public class CallGraph {
         return node;
     }
 
+    public void removeNode(CalleeGraphNode node) {
+        String key = node.getClassName() + "." + node.getMethodName() + node.getSignature();
+        nodes.remove(key);
+        if (node.equals(rootNode)) {
+            rootNode = null;
+        }
+    }
+
     public void setRootNode(CalleeGraphNode rootNode) {
         this.rootNode = rootNode;
     }
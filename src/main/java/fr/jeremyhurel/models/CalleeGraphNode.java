@@ -10,6 +10,7 @@ public class CalleeGraphNode extends Node {
     private String signature;
     private List<CalleeGraphNode> callees;
     private int lineNumber;
+    private int callerCount;
 
     public CalleeGraphNode(String className, String methodName, String signature, int lineNumber) {
         this.className = className;
@@ -22,9 +23,21 @@ public class CalleeGraphNode extends Node {
     public void addCallee(CalleeGraphNode callee) {
         if (!callees.contains(callee)) {
             callees.add(callee);
+            callee.callerCount++;
         }
     }
 
+    public void clearCallees() {
+        for (CalleeGraphNode callee : callees) {
+            callee.callerCount--;
+        }
+        callees.clear();
+    }
+
+    public int getCallerCount() {
+        return callerCount;
+    }
+
     public String getClassName() {
         return className;
     }
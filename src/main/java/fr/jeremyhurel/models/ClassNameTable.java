@@ -0,0 +1,44 @@
+package fr.jeremyhurel.models;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ClassNameTable {
+
+    private final Map<String, Integer> ids;
+    private final List<String> names;
+
+    public ClassNameTable() {
+        this(0);
+    }
+
+    public ClassNameTable(int expectedSize) {
+        this.ids = new HashMap<>(Math.max(16, (int) (expectedSize / 0.75f) + 1));
+        this.names = new ArrayList<>(expectedSize);
+    }
+
+    public int intern(String name) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = names.size();
+            ids.put(name, id);
+            names.add(name);
+        }
+        return id;
+    }
+
+    public int indexOf(String name) {
+        Integer id = ids.get(name);
+        return id != null ? id : -1;
+    }
+
+    public String nameOf(int id) {
+        return names.get(id);
+    }
+
+    public int size() {
+        return names.size();
+    }
+}
@@ -0,0 +1,519 @@
+package fr.jeremyhurel.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import fr.jeremyhurel.models.ClusterTree.ClusterNode;
+
+public class ClusterCutIndex {
+
+    public static final double SIGNIFICANT_COUPLING = 0.00001;
+
+    private final ClusterNode root;
+    private final CouplingGraph couplingGraph;
+    private final ClusterNode[] nodes;
+    private final int[] positionById;
+    private final double[] coupling;
+    private final int[] left;
+    private final int[] right;
+    private final int[] leafStart;
+    private final int[] leafEnd;
+    private final ClusterNode[] leaves;
+    private final String[] leafNames;
+    private final double[] pathMax;
+
+    private final int internalCount;
+    private int[] splitOrder;
+    private double[] splitPrefixMax;
+    private int[] splitRank;
+    private int[] frontier;
+
+    private double[] significantCouplings;
+    private double[] thresholdLevels;
+    private double[] modularityByCount;
+    private double[] qualityByCount;
+    private int bestModularityCount;
+
+    // Nodes are laid out in pre-order, so every subtree is a contiguous range
+    // of positions and its leaves a contiguous range of the leaf order.
+    public ClusterCutIndex(ClusterNode root) {
+        this(root, null);
+    }
+
+    public ClusterCutIndex(ClusterNode root, CouplingGraph couplingGraph) {
+        this.root = root;
+        this.couplingGraph = couplingGraph;
+
+        List<ClusterNode> preOrder = new ArrayList<>();
+        List<ClusterNode> stack = new ArrayList<>();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            ClusterNode node = stack.remove(stack.size() - 1);
+            preOrder.add(node);
+            if (!node.isLeaf()) {
+                stack.add(node.getRight());
+                stack.add(node.getLeft());
+            }
+        }
+
+        int size = preOrder.size();
+        nodes = preOrder.toArray(new ClusterNode[0]);
+        coupling = new double[size];
+        left = new int[size];
+        right = new int[size];
+        leafStart = new int[size];
+        leafEnd = new int[size];
+        pathMax = new double[size];
+        List<ClusterNode> leafList = new ArrayList<>();
+        int internal = 0;
+        int maxId = -1;
+
+        for (int p = 0; p < size; p++) {
+            ClusterNode node = nodes[p];
+            maxId = Math.max(maxId, node.getId());
+            leafStart[p] = leafList.size();
+            left[p] = -1;
+            right[p] = -1;
+            if (node.isLeaf()) {
+                leafList.add(node);
+                pathMax[p] = Double.POSITIVE_INFINITY;
+            } else {
+                internal++;
+                coupling[p] = node.getCouplingValue();
+                pathMax[p] = coupling[p];
+            }
+        }
+        for (int p = size - 1; p >= 0; p--) {
+            if (nodes[p].isLeaf()) {
+                leafEnd[p] = leafStart[p] + 1;
+            } else {
+                left[p] = p + 1;
+                right[p] = p + 1 + subtreeSize(p + 1);
+                leafEnd[p] = leafEnd[right[p]];
+            }
+        }
+        for (int p = 0; p < size; p++) {
+            if (left[p] >= 0) {
+                pathMax[left[p]] = Math.max(pathMax[left[p]], pathMax[p]);
+                pathMax[right[p]] = Math.max(pathMax[right[p]], pathMax[p]);
+            }
+        }
+
+        positionById = new int[maxId + 1];
+        Arrays.fill(positionById, -1);
+        for (int p = 0; p < size; p++) {
+            if (nodes[p].getId() >= 0) {
+                positionById[nodes[p].getId()] = p;
+            }
+        }
+
+        leaves = leafList.toArray(new ClusterNode[0]);
+        leafNames = new String[leaves.length];
+        for (int i = 0; i < leaves.length; i++) {
+            leafNames[i] = leaves[i].getName();
+        }
+
+        internalCount = internal;
+    }
+
+    private int subtreeSize(int p) {
+        return 2 * (leafEnd[p] - leafStart[p]) - 1;
+    }
+
+    // Replays the fixed-count cut once: the weakest cluster of the current
+    // frontier is split next, and among equal couplings the one that joined the
+    // frontier first, which is the cluster a linear scan of the list would pick.
+    private void buildSplitOrder() {
+        splitOrder = new int[internalCount];
+        splitPrefixMax = new double[internalCount];
+        splitRank = new int[nodes.length];
+        frontier = new int[nodes.length];
+        int[] sequence = new int[nodes.length];
+        int[] heap = new int[splitOrder.length];
+        int heapSize = 0;
+
+        Arrays.fill(splitRank, Integer.MAX_VALUE);
+        int sequenceCounter = 0;
+        frontier[sequenceCounter++] = 0;
+        if (left[0] >= 0) {
+            heap[heapSize++] = 0;
+        }
+
+        int rank = 0;
+        double runningMax = Double.NEGATIVE_INFINITY;
+        while (heapSize > 0) {
+            int p = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize, sequence);
+
+            splitRank[p] = rank;
+            splitOrder[rank] = p;
+            runningMax = Math.max(runningMax, coupling[p]);
+            splitPrefixMax[rank++] = runningMax;
+
+            for (int side = 0; side < 2; side++) {
+                int child = side == 0 ? left[p] : right[p];
+                sequence[child] = sequenceCounter;
+                frontier[sequenceCounter++] = child;
+                if (left[child] >= 0) {
+                    heap[heapSize++] = child;
+                    siftUp(heap, heapSize - 1, sequence);
+                }
+            }
+        }
+    }
+
+    private boolean splitsBefore(int a, int b, int[] sequence) {
+        return coupling[a] < coupling[b] || (coupling[a] == coupling[b] && sequence[a] < sequence[b]);
+    }
+
+    private void siftUp(int[] heap, int index, int[] sequence) {
+        int p = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!splitsBefore(p, heap[parent], sequence)) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = p;
+    }
+
+    private void siftDown(int[] heap, int size, int[] sequence) {
+        if (size == 0) {
+            return;
+        }
+        int p = heap[0];
+        int index = 0;
+        while (2 * index + 1 < size) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && splitsBefore(heap[child + 1], heap[child], sequence)) {
+                child++;
+            }
+            if (!splitsBefore(heap[child], p, sequence)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = p;
+    }
+
+    public List<ClusterNode> cutByCount(int targetCount) {
+        if (splitOrder == null) {
+            buildSplitOrder();
+        }
+        return frontierAfter(Math.min(Math.max(targetCount - 1, 0), splitOrder.length));
+    }
+
+    public List<ClusterNode> cutByCountAndThreshold(int targetCount, double threshold) {
+        if (splitOrder == null) {
+            buildSplitOrder();
+        }
+        int belowThreshold = lowerBound(splitPrefixMax, splitPrefixMax.length, threshold);
+        return frontierAfter(Math.min(Math.max(targetCount - 1, 0), belowThreshold));
+    }
+
+    // A cluster is split when its coupling and all its ancestors' are below the
+    // threshold; the first kept cluster in pre-order covers the next positions.
+    public List<ClusterNode> cutByThreshold(double threshold) {
+        List<ClusterNode> clusters = new ArrayList<>();
+        int p = 0;
+        while (p < nodes.length) {
+            if (pathMax[p] < threshold) {
+                p++;
+            } else {
+                clusters.add(nodes[p]);
+                p += subtreeSize(p);
+            }
+        }
+        return clusters;
+    }
+
+    private List<ClusterNode> frontierAfter(int splits) {
+        List<ClusterNode> clusters = new ArrayList<>(splits + 1);
+        for (int s = 0; s < 2 * splits + 1; s++) {
+            int p = frontier[s];
+            if (splitRank[p] >= splits) {
+                clusters.add(nodes[p]);
+            }
+        }
+        return clusters;
+    }
+
+    private static int lowerBound(double[] sorted, int length, double value) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    public List<String> getLeafNames(ClusterNode cluster) {
+        int p = positionOf(cluster);
+        if (p >= 0) {
+            return Arrays.asList(leafNames).subList(leafStart[p], leafEnd[p]);
+        }
+
+        List<String> names = new ArrayList<>();
+        List<ClusterNode> stack = new ArrayList<>();
+        stack.add(cluster);
+        while (!stack.isEmpty()) {
+            ClusterNode node = stack.remove(stack.size() - 1);
+            if (node.isLeaf()) {
+                names.add(node.getName());
+            } else {
+                stack.add(node.getRight());
+                stack.add(node.getLeft());
+            }
+        }
+        return names;
+    }
+
+    private int positionOf(ClusterNode cluster) {
+        int id = cluster.getId();
+        if (id < 0 || id >= positionById.length) {
+            return -1;
+        }
+        int p = positionById[id];
+        return p >= 0 && nodes[p] == cluster ? p : -1;
+    }
+
+    public int getLeafStart(ClusterNode cluster) {
+        int p = positionOf(cluster);
+        return p >= 0 ? leafStart[p] : -1;
+    }
+
+    public int getLeafEnd(ClusterNode cluster) {
+        int p = positionOf(cluster);
+        return p >= 0 ? leafEnd[p] : -1;
+    }
+
+    public String getLeafName(int leafPosition) {
+        return leafNames[leafPosition];
+    }
+
+    public List<ClusterNode> getLeaves() {
+        return new ArrayList<>(Arrays.asList(leaves));
+    }
+
+    public ClusterNode getRoot() {
+        return root;
+    }
+
+    public int getLeafCount() {
+        return leaves.length;
+    }
+
+    public int getInternalCount() {
+        return internalCount;
+    }
+
+    public int getSignificantCouplingCount() {
+        return significantCouplings().length;
+    }
+
+    // Couplings above SIGNIFICANT_COUPLING in decreasing order.
+    public double getSignificantCoupling(int rank) {
+        return significantCouplings()[rank];
+    }
+
+    private double[] significantCouplings() {
+        if (significantCouplings == null) {
+            double[] couplings = new double[internalCount];
+            int significant = 0;
+            for (int p = 0; p < nodes.length; p++) {
+                if (left[p] >= 0 && coupling[p] > SIGNIFICANT_COUPLING) {
+                    couplings[significant++] = coupling[p];
+                }
+            }
+            Arrays.sort(couplings, 0, significant);
+            significantCouplings = new double[significant];
+            for (int i = 0; i < significant; i++) {
+                significantCouplings[i] = couplings[significant - 1 - i];
+            }
+        }
+        return significantCouplings;
+    }
+
+    public int getThresholdLevelCount() {
+        return thresholdLevels().length;
+    }
+
+    // Thresholds at which cutByThreshold changes, in increasing order: the
+    // first keeps the whole tree, the last splits every cluster.
+    public double getThresholdLevel(int level) {
+        return thresholdLevels()[level];
+    }
+
+    private double[] thresholdLevels() {
+        if (thresholdLevels == null) {
+            double[] values = new double[internalCount + 1];
+            int count = 0;
+            for (int p = 0; p < nodes.length; p++) {
+                if (left[p] >= 0) {
+                    values[count++] = pathMax[p];
+                }
+            }
+            Arrays.sort(values, 0, count);
+
+            int distinct = 0;
+            for (int i = 0; i < count; i++) {
+                if (distinct == 0 || values[i] != values[distinct - 1]) {
+                    values[distinct++] = values[i];
+                }
+            }
+            if (distinct == 0) {
+                values[distinct++] = 0.0;
+            } else {
+                values[distinct] = Math.nextUp(values[distinct - 1]);
+                distinct++;
+            }
+            thresholdLevels = Arrays.copyOf(values, distinct);
+        }
+        return thresholdLevels;
+    }
+
+    public boolean hasCutScores() {
+        return couplingGraph != null;
+    }
+
+    // Modularity of the count cut with the given number of modules, on the
+    // undirected coupling graph the community detection strategies use.
+    public double getModularity(int moduleCount) {
+        scoreCuts();
+        return modularityByCount[clampModuleCount(moduleCount)];
+    }
+
+    // Modularization quality (MQ) of the same cut: the sum over modules of
+    // 2 * intra / (2 * intra + inter), with edge weights instead of edge counts.
+    public double getModularizationQuality(int moduleCount) {
+        scoreCuts();
+        return qualityByCount[clampModuleCount(moduleCount)];
+    }
+
+    // Smallest module count reaching the highest modularity.
+    public int getBestModularityCount() {
+        scoreCuts();
+        return bestModularityCount;
+    }
+
+    private int clampModuleCount(int moduleCount) {
+        return Math.max(1, Math.min(moduleCount, Math.max(1, internalCount + 1)));
+    }
+
+    // Every count cut is a prefix of the split order, and every threshold cut
+    // is one of them. Undoing the splits from the last one merges two clusters
+    // at a time, and only the edges between them change the scores, so all
+    // cuts are scored by visiting the smaller side of each merge.
+    private void scoreCuts() {
+        if (modularityByCount != null) {
+            return;
+        }
+        if (couplingGraph == null) {
+            throw new IllegalStateException("Cut scores need the coupling graph the tree was built from");
+        }
+        if (splitOrder == null) {
+            buildSplitOrder();
+        }
+
+        List<String> classNames = new ArrayList<>();
+        CommunityGraph graph = CommunityGraph.fromCouplingGraph(couplingGraph, classNames);
+        Map<String, Integer> nodeOfClass = new HashMap<>();
+        for (int node = 0; node < classNames.size(); node++) {
+            nodeOfClass.put(classNames.get(node), node);
+        }
+        int[] nodeOfLeaf = new int[leaves.length];
+        int[] leafOfNode = new int[graph.size];
+        Arrays.fill(leafOfNode, -1);
+        for (int leaf = 0; leaf < leaves.length; leaf++) {
+            Integer node = nodeOfClass.get(leafNames[leaf]);
+            nodeOfLeaf[leaf] = node != null ? node : -1;
+            if (node != null) {
+                leafOfNode[node] = leaf;
+            }
+        }
+
+        double totalWeight = graph.totalWeight;
+        double[] internal = new double[nodes.length];
+        double[] total = new double[nodes.length];
+        double modularity = 0.0;
+        double quality = 0.0;
+        for (int p = 0; p < nodes.length; p++) {
+            int node = left[p] < 0 ? nodeOfLeaf[leafStart[p]] : -1;
+            if (node >= 0) {
+                internal[p] = graph.selfWeight[node];
+                total[p] = graph.strength[node];
+                modularity += modularityTerm(internal[p], total[p], totalWeight);
+                quality += clusterFactor(internal[p], total[p]);
+            }
+        }
+
+        int cutCount = internalCount + 1;
+        modularityByCount = new double[cutCount + 1];
+        qualityByCount = new double[cutCount + 1];
+        modularityByCount[cutCount] = modularity;
+        qualityByCount[cutCount] = quality;
+
+        for (int rank = internalCount - 1; rank >= 0; rank--) {
+            int p = splitOrder[rank];
+            int small = subtreeSize(left[p]) <= subtreeSize(right[p]) ? left[p] : right[p];
+            int other = small == left[p] ? right[p] : left[p];
+
+            double cross = 0.0;
+            for (int leaf = leafStart[small]; leaf < leafEnd[small]; leaf++) {
+                int node = nodeOfLeaf[leaf];
+                if (node < 0) {
+                    continue;
+                }
+                for (int edge = graph.rowPtr[node]; edge < graph.rowPtr[node + 1]; edge++) {
+                    int neighbor = leafOfNode[graph.adj[edge]];
+                    if (neighbor >= leafStart[other] && neighbor < leafEnd[other]) {
+                        cross += graph.weight[edge];
+                    }
+                }
+            }
+
+            internal[p] = internal[left[p]] + internal[right[p]] + 2 * cross;
+            total[p] = total[left[p]] + total[right[p]];
+            modularity += modularityTerm(internal[p], total[p], totalWeight)
+                    - modularityTerm(internal[left[p]], total[left[p]], totalWeight)
+                    - modularityTerm(internal[right[p]], total[right[p]], totalWeight);
+            quality += clusterFactor(internal[p], total[p])
+                    - clusterFactor(internal[left[p]], total[left[p]])
+                    - clusterFactor(internal[right[p]], total[right[p]]);
+
+            modularityByCount[rank + 1] = modularity;
+            qualityByCount[rank + 1] = quality;
+        }
+
+        bestModularityCount = 1;
+        for (int count = 2; count <= cutCount; count++) {
+            if (modularityByCount[count] > modularityByCount[bestModularityCount]) {
+                bestModularityCount = count;
+            }
+        }
+    }
+
+    private static double modularityTerm(double internal, double total, double totalWeight) {
+        if (totalWeight <= 0) {
+            return 0.0;
+        }
+        double share = total / totalWeight;
+        return internal / totalWeight - share * share;
+    }
+
+    private static double clusterFactor(double internal, double total) {
+        return internal > 0 && total > 0 ? internal / total : 0.0;
+    }
+}
@@ -1,9 +1,11 @@
 package fr.jeremyhurel.models;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import fr.jeremyhurel.models.strategies.ClusteringStrategy;
 import fr.jeremyhurel.models.strategies.ParameterizedClusteringStrategy;
@@ -11,15 +13,172 @@ import fr.jeremyhurel.models.strategies.ParameterizedClusteringStrategy.Mode;
 
 public class ClusterTree {
 
-    private ClusterNode root;
-    private List<ClusterNode> mergeHistory;
-    private int nodeIdCounter = 0;
+    public enum Engine {
+        NEAREST_NEIGHBOR_CHAIN,
+        LEGACY
+    }
+
+    public enum Linkage {
+        SINGLE,
+        COMPLETE,
+        AVERAGE,
+        WEIGHTED,
+        WARD
+    }
+
+    private final Engine engine;
+    private final Linkage linkage;
+    private ClusterCutIndex cutIndex;
+    private CouplingGraph couplingGraph;
+
+    // Node ids are dense: leaves take 0..n-1 and merge i takes id n + i. Only
+    // the class names of the leaves are stored, cluster labels are derived
+    // from them on demand.
+    private String[] leafNames = new String[0];
+    private int[] mergeLeft = new int[0];
+    private int[] mergeRight = new int[0];
+    private double[] mergeCoupling = new double[0];
+    private int[] mergeLeafCount = new int[0];
+    private int[] mergeDepth = new int[0];
+    private int mergeCount;
+    private int rootId = -1;
+    private ClusterNode[] views = new ClusterNode[0];
 
     public ClusterTree() {
-        this.mergeHistory = new ArrayList<>();
+        this(Engine.NEAREST_NEIGHBOR_CHAIN, Linkage.WEIGHTED);
+    }
+
+    public ClusterTree(Engine engine) {
+        this(engine, Linkage.WEIGHTED);
+    }
+
+    public ClusterTree(Linkage linkage) {
+        this(Engine.NEAREST_NEIGHBOR_CHAIN, linkage);
+    }
+
+    // The legacy engine always averages the two merged rows and ignores the linkage.
+    public ClusterTree(Engine engine, Linkage linkage) {
+        this.engine = engine;
+        this.linkage = linkage;
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    public Linkage getLinkage() {
+        return linkage;
     }
 
     public void buildFromCouplingGraph(CouplingGraph couplingGraph) {
+        this.couplingGraph = couplingGraph;
+        cutIndex = null;
+        reset(0);
+        if (engine == Engine.LEGACY) {
+            buildWithGreedySearch(couplingGraph);
+        } else {
+            buildWithNearestNeighborChain(couplingGraph);
+        }
+    }
+
+    // Rebuilds a tree from its merge arrays, with the node ids described
+    // below, such as a saved snapshot holds. The coupling graph may be null,
+    // in which case cuts are not scored.
+    public static ClusterTree fromMerges(Engine engine, Linkage linkage, String[] leafNames, int[] left,
+                                         int[] right, double[] coupling, int rootId, CouplingGraph couplingGraph) {
+        int leafCount = leafNames.length;
+        if (left.length != right.length || left.length != coupling.length || left.length > Math.max(0, leafCount - 1)) {
+            throw new IllegalArgumentException("Inconsistent merge arrays for " + leafCount + " leaves");
+        }
+        if (rootId < -1 || rootId >= leafCount + left.length || (rootId < 0 && leafCount > 0)) {
+            throw new IllegalArgumentException("Invalid root " + rootId + " for " + leafCount + " leaves");
+        }
+
+        ClusterTree tree = new ClusterTree(engine, linkage);
+        tree.couplingGraph = couplingGraph;
+        tree.reset(leafCount);
+        System.arraycopy(leafNames, 0, tree.leafNames, 0, leafCount);
+
+        boolean[] merged = new boolean[leafCount + left.length];
+        for (int i = 0; i < left.length; i++) {
+            int next = leafCount + i;
+            if (left[i] < 0 || left[i] >= next || right[i] < 0 || right[i] >= next || left[i] == right[i]
+                    || merged[left[i]] || merged[right[i]]) {
+                throw new IllegalArgumentException("Invalid merge " + i + ": " + left[i] + " and " + right[i]);
+            }
+            merged[left[i]] = true;
+            merged[right[i]] = true;
+            tree.mergeClusters(left[i], right[i], coupling[i]);
+        }
+        if (rootId >= 0 && merged[rootId]) {
+            throw new IllegalArgumentException("Root " + rootId + " is merged into another cluster");
+        }
+        tree.rootId = rootId;
+        return tree;
+    }
+
+    private void buildWithNearestNeighborChain(CouplingGraph couplingGraph) {
+        SparseCouplingMatrix matrix = couplingGraph.getSparseCouplingMatrix();
+
+        if (matrix.getEdgeCount() == 0) {
+            return;
+        }
+
+        ClassNameTable classNames = couplingGraph.getClassNames();
+        Set<String> nodeNames = couplingGraph.getAllNodeNames();
+        List<String> leaves = new ArrayList<>();
+        int[] leafOf = new int[classNames.size()];
+
+        for (int id = 0; id < classNames.size(); id++) {
+            String className = classNames.nameOf(id);
+            if (nodeNames.contains(className)) {
+                leafOf[id] = leaves.size();
+                leaves.add(className);
+            } else {
+                leafOf[id] = -1;
+            }
+        }
+
+        if (leaves.isEmpty()) {
+            return;
+        }
+
+        reset(leaves.size());
+        leaves.toArray(leafNames);
+
+        NearestNeighborChain chain = new NearestNeighborChain(matrix, leafOf, leaves.size(), linkage);
+        chain.run();
+
+        rootId = leaves.size() - 1;
+        for (int i = 0; i < chain.getMergeCount(); i++) {
+            rootId = mergeClusters(chain.getLeft(i), chain.getRight(i), chain.getSimilarity(i));
+        }
+    }
+
+    private void reset(int leafCount) {
+        leafNames = new String[leafCount];
+        int maxMerges = Math.max(0, leafCount - 1);
+        mergeLeft = new int[maxMerges];
+        mergeRight = new int[maxMerges];
+        mergeCoupling = new double[maxMerges];
+        mergeLeafCount = new int[maxMerges];
+        mergeDepth = new int[maxMerges];
+        mergeCount = 0;
+        rootId = -1;
+        views = new ClusterNode[leafCount + maxMerges];
+    }
+
+    private int mergeClusters(int left, int right, double coupling) {
+        int merge = mergeCount++;
+        mergeLeft[merge] = left;
+        mergeRight[merge] = right;
+        mergeCoupling[merge] = coupling;
+        mergeLeafCount[merge] = leafCountOf(left) + leafCountOf(right);
+        mergeDepth[merge] = 1 + Math.max(depthOf(left), depthOf(right));
+        return leafNames.length + merge;
+    }
+
+    private void buildWithGreedySearch(CouplingGraph couplingGraph) {
 
         Map<String, Map<String, Double>> couplingMatrix = couplingGraph.getCouplingMatrix();
 
@@ -27,11 +186,11 @@ public class ClusterTree {
             return;
         }
 
-        Map<String, ClusterNode> activeClusters = new HashMap<>();
+        reset(couplingGraph.getAllNodeNames().size());
+        Map<String, Integer> activeClusters = new HashMap<>();
         for (String className : couplingGraph.getAllNodeNames()) {
-            ClusterNode node = new ClusterNode(className);
-            node.setId(nodeIdCounter++);
-            activeClusters.put(className, node);
+            leafNames[activeClusters.size()] = className;
+            activeClusters.put(className, activeClusters.size());
         }
 
         Map<String, Map<String, Double>> workingMatrix = deepCopyCouplingMatrix(couplingMatrix);
@@ -50,20 +209,11 @@ public class ClusterTree {
                 }
             }
 
-            ClusterNode node1 = activeClusters.get(maxPair.class1);
-            ClusterNode node2 = activeClusters.get(maxPair.class2);
-
-            String simpleName1 = getSimpleClassName(node1.getName());
-            String simpleName2 = getSimpleClassName(node2.getName());
-            String newClusterName = simpleName1 + "+" + simpleName2;
-
-            ClusterNode newCluster = new ClusterNode(newClusterName);
-            newCluster.setId(nodeIdCounter++);
-            newCluster.setLeft(node1);
-            newCluster.setRight(node2);
-            newCluster.setCouplingValue(maxPair.coupling);
-
-            mergeHistory.add(newCluster);
+            // The legacy matrix is keyed by cluster label, so this engine still
+            // spells out the label of every merge it creates.
+            int newCluster = mergeClusters(activeClusters.get(maxPair.class1),
+                    activeClusters.get(maxPair.class2), maxPair.coupling);
+            String newClusterName = nameOf(newCluster);
 
             activeClusters.remove(maxPair.class1);
             activeClusters.remove(maxPair.class2);
@@ -74,12 +224,12 @@ public class ClusterTree {
         }
 
         if (!activeClusters.isEmpty()) {
-            root = activeClusters.values().iterator().next();
+            rootId = activeClusters.values().iterator().next();
         }
     }
 
     private MaxCouplingPair findMaxCoupling(Map<String, Map<String, Double>> matrix,
-                                           Map<String, ClusterNode> activeClusters) {
+                                           Map<String, Integer> activeClusters) {
         double maxCoupling = -1.0;
         String maxClass1 = null;
         String maxClass2 = null;
@@ -135,7 +285,7 @@ public class ClusterTree {
 
     private void updateCouplingMatrix(Map<String, Map<String, Double>> matrix,
                                      String cluster1, String cluster2, String newClusterName,
-                                     Map<String, ClusterNode> activeClusters) {
+                                     Map<String, Integer> activeClusters) {
 
         matrix.remove(cluster1);
         matrix.remove(cluster2);
@@ -199,22 +349,86 @@ public class ClusterTree {
     }
 
     public ClusterNode getRoot() {
-        return root;
+        return rootId >= 0 ? getNode(rootId) : null;
     }
 
-    public List<ClusterNode> getMergeHistory() {
-        return mergeHistory;
+    public ClusterNode getNode(int id) {
+        ClusterNode view = views[id];
+        if (view == null) {
+            view = new ClusterNode(this, id);
+            views[id] = view;
+        }
+        return view;
     }
 
-    public int getDepth() {
-        return calculateDepth(root);
+    public int getLeafCount() {
+        return leafNames.length;
+    }
+
+    private boolean isLeaf(int id) {
+        return id < leafNames.length;
+    }
+
+    private int leafCountOf(int id) {
+        return isLeaf(id) ? 1 : mergeLeafCount[id - leafNames.length];
+    }
+
+    private int depthOf(int id) {
+        return isLeaf(id) ? 0 : mergeDepth[id - leafNames.length];
     }
 
-    private int calculateDepth(ClusterNode node) {
-        if (node == null || node.isLeaf()) {
-            return 0;
+    // A merge label joins the simple names of its leaves from left to right,
+    // which is what concatenating the labels of the two children gives.
+    private String nameOf(int id) {
+        if (isLeaf(id)) {
+            return leafNames[id];
+        }
+
+        StringBuilder name = new StringBuilder();
+        int[] stack = new int[depthOf(id) + 1];
+        int size = 0;
+        stack[size++] = id;
+        while (size > 0) {
+            int node = stack[--size];
+            if (isLeaf(node)) {
+                if (name.length() > 0) {
+                    name.append('+');
+                }
+                name.append(getSimpleClassName(leafNames[node]));
+            } else {
+                stack[size++] = mergeRight[node - leafNames.length];
+                stack[size++] = mergeLeft[node - leafNames.length];
+            }
         }
-        return 1 + Math.max(calculateDepth(node.getLeft()), calculateDepth(node.getRight()));
+        return name.toString();
+    }
+
+    public ClusterCutIndex getCutIndex() {
+        if (cutIndex == null && rootId >= 0) {
+            cutIndex = new ClusterCutIndex(getRoot(), couplingGraph);
+        }
+        return cutIndex;
+    }
+
+    public List<ClusterNode> getMergeHistory() {
+        return new AbstractList<>() {
+            @Override
+            public ClusterNode get(int index) {
+                if (index < 0 || index >= mergeCount) {
+                    throw new IndexOutOfBoundsException("Merge step " + index + " out of " + mergeCount);
+                }
+                return getNode(leafNames.length + index);
+            }
+
+            @Override
+            public int size() {
+                return mergeCount;
+            }
+        };
+    }
+
+    public int getDepth() {
+        return rootId >= 0 ? depthOf(rootId) : 0;
     }
 
     private String getSimpleClassName(String fullName) {
@@ -235,7 +449,7 @@ public class ClusterTree {
 
     public ModuleGraph extractModules(Integer targetModuleCount, Double minCouplingThreshold,
                                      CouplingGraph couplingGraph) {
-        if (root == null) {
+        if (rootId < 0) {
             return new ModuleGraph();
         }
 
@@ -253,135 +467,98 @@ public class ClusterTree {
     }
 
     public ModuleGraph extractModules(ClusteringStrategy strategy, CouplingGraph couplingGraph) {
-        if (root == null) {
+        if (rootId < 0) {
             return new ModuleGraph();
         }
 
-        List<ClusterNode> clusters = strategy.cut(root);
+        List<ClusterNode> clusters = strategy.cut(getCutIndex());
 
         return createModuleGraph(clusters, couplingGraph);
     }
 
     private ModuleGraph createModuleGraph(List<ClusterNode> clusters, CouplingGraph couplingGraph) {
-        ModuleGraph moduleGraph = new ModuleGraph();
-        int moduleId = 1;
+        List<List<String>> classGroups = new ArrayList<>();
 
         for (ClusterNode cluster : clusters) {
-
-            String moduleName = "Module_" + moduleId;
-            Module module = new Module(moduleId, moduleName);
-
-            List<String> classes = new ArrayList<>();
-            collectLeafClassNames(cluster, classes);
-            module.addClasses(classes);
-
-            double cohesion = calculateModuleCohesion(classes, couplingGraph);
-            module.setCohesion(cohesion);
-
-            moduleGraph.addModule(module);
-            moduleId++;
+            classGroups.add(getCutIndex().getLeafNames(cluster));
         }
 
-        return moduleGraph;
+        return buildModuleGraph(classGroups, couplingGraph);
     }
 
-    private void collectLeafClassNames(ClusterNode node, List<String> result) {
-        if (node == null) {
-            return;
-        }
-
-        if (node.isLeaf()) {
-            result.add(node.getName());
-        } else {
-            collectLeafClassNames(node.getLeft(), result);
-            collectLeafClassNames(node.getRight(), result);
-        }
+    static ModuleGraph buildModuleGraph(List<List<String>> classGroups, CouplingGraph couplingGraph) {
+        ModuleGraph moduleGraph = buildModuleGraph(classGroups, new double[classGroups.size()]);
+        moduleGraph.calculateCohesion(couplingGraph);
+        return moduleGraph;
     }
 
-    private double calculateModuleCohesion(List<String> classes, CouplingGraph couplingGraph) {
-        if (classes.size() <= 1) {
-            return 0.0;
-        }
+    static ModuleGraph buildModuleGraph(List<List<String>> classGroups, double[] cohesions) {
+        ModuleGraph moduleGraph = new ModuleGraph();
+        int moduleId = 1;
 
-        double totalCoupling = 0.0;
-        int pairCount = 0;
+        for (List<String> classes : classGroups) {
 
-        for (int i = 0; i < classes.size(); i++) {
-            for (int j = i + 1; j < classes.size(); j++) {
-                double coupling = couplingGraph.getCouplingWeight(classes.get(i), classes.get(j));
-                coupling += couplingGraph.getCouplingWeight(classes.get(j), classes.get(i));
+            String moduleName = "Module_" + moduleId;
+            Module module = new Module(moduleId, moduleName);
+            module.addClasses(classes);
+            module.setCohesion(cohesions[moduleId - 1]);
 
-                if (coupling > 0) {
-                    totalCoupling += coupling;
-                    pairCount++;
-                }
-            }
+            moduleGraph.addModule(module);
+            moduleId++;
         }
 
-        return pairCount > 0 ? totalCoupling / pairCount : 0.0;
+        return moduleGraph;
     }
 
-    public static class ClusterNode {
-        private int id;
-        private String name;
-        private ClusterNode left;
-        private ClusterNode right;
-        private double couplingValue;
+    // A view on one node of the arrays above. Views are cached per id, so
+    // callers can keep comparing and hashing nodes by identity.
+    public static final class ClusterNode {
+        private final ClusterTree tree;
+        private final int id;
 
-        public ClusterNode(String name) {
-            this.name = name;
+        private ClusterNode(ClusterTree tree, int id) {
+            this.tree = tree;
+            this.id = id;
         }
 
         public boolean isLeaf() {
-            return left == null && right == null;
+            return tree.isLeaf(id);
         }
 
         public int getId() {
             return id;
         }
 
-        public void setId(int id) {
-            this.id = id;
-        }
-
         public String getName() {
-            return name;
-        }
-
-        public void setName(String name) {
-            this.name = name;
+            return tree.nameOf(id);
         }
 
         public ClusterNode getLeft() {
-            return left;
-        }
-
-        public void setLeft(ClusterNode left) {
-            this.left = left;
+            return isLeaf() ? null : tree.getNode(tree.mergeLeft[id - tree.leafNames.length]);
         }
 
         public ClusterNode getRight() {
-            return right;
+            return isLeaf() ? null : tree.getNode(tree.mergeRight[id - tree.leafNames.length]);
         }
 
-        public void setRight(ClusterNode right) {
-            this.right = right;
+        public int getLeafCount() {
+            return tree.leafCountOf(id);
         }
 
-        public double getCouplingValue() {
-            return couplingValue;
+        public int getHeight() {
+            return tree.depthOf(id);
         }
 
-        public void setCouplingValue(double couplingValue) {
-            this.couplingValue = couplingValue;
+        public double getCouplingValue() {
+            return isLeaf() ? 0.0 : tree.mergeCoupling[id - tree.leafNames.length];
         }
 
         @Override
         public String toString() {
             if (isLeaf()) {
-                return name;
+                return getName();
             }
-            return name + " [" + couplingValue + "]";
+            return getName() + " [" + getCouplingValue() + "]";
         }
     }
 
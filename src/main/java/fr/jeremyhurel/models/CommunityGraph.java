@@ -0,0 +1,199 @@
+package fr.jeremyhurel.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+// Undirected graph in CSR form. A pair weighs the calls in both directions;
+// selfWeight holds the internal weight of an aggregated node, counted from
+// both ends, so strength is always selfWeight plus the row sum.
+final class CommunityGraph {
+
+    final int size;
+    final int[] rowPtr;
+    final int[] adj;
+    final double[] weight;
+    final double[] selfWeight;
+    final double[] strength;
+    final double totalWeight;
+
+    CommunityGraph(int[] rowPtr, int[] adj, double[] weight, double[] selfWeight) {
+        this.size = rowPtr.length - 1;
+        this.rowPtr = rowPtr;
+        this.adj = adj;
+        this.weight = weight;
+        this.selfWeight = selfWeight;
+        this.strength = new double[size];
+
+        double sum = 0.0;
+        for (int node = 0; node < size; node++) {
+            double nodeStrength = selfWeight[node];
+            for (int edge = rowPtr[node]; edge < rowPtr[node + 1]; edge++) {
+                nodeStrength += weight[edge];
+            }
+            strength[node] = nodeStrength;
+            sum += nodeStrength;
+        }
+        this.totalWeight = sum;
+    }
+
+    static CommunityGraph fromCouplingGraph(CouplingGraph couplingGraph, List<String> classNames) {
+        ClassNameTable nameTable = couplingGraph.getClassNames();
+        Set<String> nodeNames = couplingGraph.getAllNodeNames();
+        int[] leafOf = new int[nameTable.size()];
+
+        for (int id = 0; id < nameTable.size(); id++) {
+            String className = nameTable.nameOf(id);
+            if (nodeNames.contains(className)) {
+                leafOf[id] = classNames.size();
+                classNames.add(className);
+            } else {
+                leafOf[id] = -1;
+            }
+        }
+
+        return fromCouplingMatrix(couplingGraph.getSparseCouplingMatrix(), leafOf, classNames.size());
+    }
+
+    // Each label becomes one class group, largest first, in the shape ClusterTree
+    // builds modules from.
+    static ModuleGraph toModuleGraph(int[] labels, List<String> classNames, CouplingGraph couplingGraph) {
+        List<List<String>> classGroups = new ArrayList<>();
+        for (int node = 0; node < classNames.size(); node++) {
+            while (classGroups.size() <= labels[node]) {
+                classGroups.add(new ArrayList<>());
+            }
+            classGroups.get(labels[node]).add(classNames.get(node));
+        }
+        classGroups.removeIf(List::isEmpty);
+        classGroups.sort((a, b) -> Integer.compare(b.size(), a.size()));
+
+        return ClusterTree.buildModuleGraph(classGroups, couplingGraph);
+    }
+
+    private static CommunityGraph fromCouplingMatrix(SparseCouplingMatrix matrix, int[] leafOf, int leafCount) {
+        int rows = Math.min(matrix.getRowCount(), leafOf.length);
+        int[] degree = new int[leafCount];
+        for (int row = 0; row < rows; row++) {
+            for (int edge = matrix.rowStart(row); edge < matrix.rowEnd(row); edge++) {
+                int from = leafOf[row];
+                int to = matrix.col(edge) < leafOf.length ? leafOf[matrix.col(edge)] : -1;
+                if (from >= 0 && to >= 0 && from != to && matrix.weight(edge) > 0) {
+                    degree[from]++;
+                    degree[to]++;
+                }
+            }
+        }
+
+        int[] rowPtr = new int[leafCount + 1];
+        for (int leaf = 0; leaf < leafCount; leaf++) {
+            rowPtr[leaf + 1] = rowPtr[leaf] + degree[leaf];
+        }
+        int[] adj = new int[rowPtr[leafCount]];
+        double[] weight = new double[adj.length];
+        int[] fill = Arrays.copyOf(rowPtr, leafCount);
+        for (int row = 0; row < rows; row++) {
+            for (int edge = matrix.rowStart(row); edge < matrix.rowEnd(row); edge++) {
+                int from = leafOf[row];
+                int to = matrix.col(edge) < leafOf.length ? leafOf[matrix.col(edge)] : -1;
+                if (from >= 0 && to >= 0 && from != to && matrix.weight(edge) > 0) {
+                    adj[fill[from]] = to;
+                    weight[fill[from]++] = matrix.weight(edge);
+                    adj[fill[to]] = from;
+                    weight[fill[to]++] = matrix.weight(edge);
+                }
+            }
+        }
+
+        return compact(rowPtr, adj, weight, new double[leafCount]);
+    }
+
+    CommunityGraph aggregate(int[] partition, int count) {
+        int[] start = new int[count + 1];
+        for (int node = 0; node < size; node++) {
+            start[partition[node] + 1]++;
+        }
+        for (int c = 0; c < count; c++) {
+            start[c + 1] += start[c];
+        }
+        int[] order = new int[size];
+        int[] fill = Arrays.copyOf(start, count);
+        for (int node = 0; node < size; node++) {
+            order[fill[partition[node]]++] = node;
+        }
+
+        int[] newRowPtr = new int[count + 1];
+        int[] newAdj = new int[adj.length];
+        double[] newWeight = new double[adj.length];
+        double[] newSelfWeight = new double[count];
+        double[] linkWeight = new double[count];
+        boolean[] seen = new boolean[count];
+        int[] touched = new int[count];
+        int edges = 0;
+
+        for (int c = 0; c < count; c++) {
+            int touchedCount = 0;
+            for (int i = start[c]; i < start[c + 1]; i++) {
+                int node = order[i];
+                newSelfWeight[c] += selfWeight[node];
+                for (int edge = rowPtr[node]; edge < rowPtr[node + 1]; edge++) {
+                    int target = partition[adj[edge]];
+                    if (target == c) {
+                        newSelfWeight[c] += weight[edge];
+                        continue;
+                    }
+                    if (!seen[target]) {
+                        seen[target] = true;
+                        touched[touchedCount++] = target;
+                    }
+                    linkWeight[target] += weight[edge];
+                }
+            }
+
+            Arrays.sort(touched, 0, touchedCount);
+            for (int i = 0; i < touchedCount; i++) {
+                int target = touched[i];
+                newAdj[edges] = target;
+                newWeight[edges++] = linkWeight[target];
+                linkWeight[target] = 0.0;
+                seen[target] = false;
+            }
+            newRowPtr[c + 1] = edges;
+        }
+
+        return new CommunityGraph(newRowPtr, Arrays.copyOf(newAdj, edges), Arrays.copyOf(newWeight, edges), newSelfWeight);
+    }
+
+    // Sorts each row and sums the duplicate entries left by calls in both directions.
+    private static CommunityGraph compact(int[] rowPtr, int[] adj, double[] weight, double[] selfWeight) {
+        int size = rowPtr.length - 1;
+        int[] newRowPtr = new int[size + 1];
+        int edges = 0;
+        for (int node = 0; node < size; node++) {
+            int from = rowPtr[node];
+            int to = rowPtr[node + 1];
+            long[] order = new long[to - from];
+            for (int edge = from; edge < to; edge++) {
+                order[edge - from] = ((long) adj[edge] << 32) | (edge - from);
+            }
+            Arrays.sort(order);
+
+            double[] rowWeight = Arrays.copyOfRange(weight, from, to);
+            int rowStart = edges;
+            for (long key : order) {
+                int target = (int) (key >>> 32);
+                double value = rowWeight[(int) key];
+                if (edges > rowStart && adj[edges - 1] == target) {
+                    weight[edges - 1] += value;
+                } else {
+                    adj[edges] = target;
+                    weight[edges++] = value;
+                }
+            }
+            newRowPtr[node + 1] = edges;
+        }
+
+        return new CommunityGraph(newRowPtr, Arrays.copyOf(adj, edges), Arrays.copyOf(weight, edges), selfWeight);
+    }
+}
@@ -1,6 +1,8 @@
 package fr.jeremyhurel.models;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -8,15 +10,27 @@ public class CouplingGraph {
 
     private final Map<String, CouplingNode> nodes;
 
-    private final Map<String, Map<String, Integer>> callCountMatrix;
-
-    private final Map<String, Map<String, Double>> couplingMatrix;
+    private final ClassNameTable classNames;
+    private final CallCountTable callCounts;
+    private int[] outgoingCouplings;
+    private SparseCouplingMatrix couplingMatrix;
     private int totalMethodCalls = 0;
 
+    private Map<String, Map<String, Integer>> callCountMatrixView;
+    private Map<String, Map<String, Double>> couplingMatrixView;
+
     public CouplingGraph() {
-        this.nodes = new HashMap<>();
-        this.callCountMatrix = new HashMap<>();
-        this.couplingMatrix = new HashMap<>();
+        this(0, 0);
+    }
+
+    // Pre-sizes the tables, for callers such as snapshot loading that know
+    // the size of the graph up front.
+    public CouplingGraph(int expectedClasses, int expectedCouplings) {
+        this.nodes = new HashMap<>(Math.max(16, (int) (expectedClasses / 0.75f) + 1));
+        this.classNames = new ClassNameTable(expectedClasses);
+        this.callCounts = new CallCountTable(expectedCouplings);
+        this.outgoingCouplings = new int[Math.max(16, expectedClasses)];
+        this.couplingMatrix = compact(new long[0], 0);
     }
 
     public void addNode(CouplingNode node) {
@@ -37,40 +51,100 @@ public class CouplingGraph {
     }
 
     public void addMethodCall(String from, String to) {
-        callCountMatrix.putIfAbsent(from, new HashMap<>());
-        Map<String, Integer> row = callCountMatrix.get(from);
-        row.put(to, row.getOrDefault(to, 0) + 1);
-        totalMethodCalls++;
+        addMethodCalls(from, to, 1);
+    }
+
+    public void addMethodCalls(String from, String to, int count) {
+        addMethodCalls(classNames.intern(from), classNames.intern(to), count);
+    }
+
+    // Ids are those of getClassNames(), which lets a saved graph be loaded
+    // without looking every name up again.
+    public void addMethodCalls(int fromId, int toId, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Call count must be positive: " + count);
+        }
+        if (fromId < 0 || fromId >= classNames.size() || toId < 0 || toId >= classNames.size()) {
+            throw new IllegalArgumentException("Unknown class id in call " + fromId + " -> " + toId);
+        }
+        if (callCounts.add(CallCountTable.key(fromId, toId), count) == count) {
+            if (fromId >= outgoingCouplings.length) {
+                outgoingCouplings = Arrays.copyOf(outgoingCouplings,
+                        Math.max(fromId + 1, outgoingCouplings.length * 2));
+            }
+            outgoingCouplings[fromId]++;
+        }
+        totalMethodCalls += count;
+        callCountMatrixView = null;
+    }
+
+    public void removeMethodCall(String from, String to) {
+        int fromId = classNames.indexOf(from);
+        int toId = classNames.indexOf(to);
+        if (fromId < 0 || toId < 0) {
+            return;
+        }
+
+        int remaining = callCounts.decrement(CallCountTable.key(fromId, toId));
+        if (remaining < 0) {
+            return;
+        }
+        if (remaining == 0) {
+            outgoingCouplings[fromId]--;
+        }
+        totalMethodCalls--;
+        callCountMatrixView = null;
     }
 
     public void calculateNormalizedCoupling() {
-        couplingMatrix.clear();
+        couplingMatrixView = null;
 
         if (totalMethodCalls == 0) {
+            couplingMatrix = compact(new long[0], 0);
             return;
         }
 
-        for (Map.Entry<String, Map<String, Integer>> entry : callCountMatrix.entrySet()) {
-            String fromClass = entry.getKey();
-            couplingMatrix.putIfAbsent(fromClass, new HashMap<>());
+        couplingMatrix = compact(callCounts.sortedKeys(), totalMethodCalls);
 
-            float totalOutgoingCoupling = 0.0f;
+        for (int row = 0; row < couplingMatrix.getRowCount(); row++) {
+            if (couplingMatrix.rowStart(row) == couplingMatrix.rowEnd(row)) {
+                continue;
+            }
 
-            for (Map.Entry<String, Integer> callEntry : entry.getValue().entrySet()) {
-                String toClass = callEntry.getKey();
-                int callCount = callEntry.getValue();
-                double normalizedCoupling = (double) callCount / totalMethodCalls;
-                couplingMatrix.get(fromClass).put(toClass, normalizedCoupling);
-                totalOutgoingCoupling += (float) normalizedCoupling;
+            float totalOutgoingCoupling = 0.0f;
+            for (int edge = couplingMatrix.rowStart(row); edge < couplingMatrix.rowEnd(row); edge++) {
+                totalOutgoingCoupling += (float) couplingMatrix.weight(edge);
             }
 
-            CouplingNode node = nodes.get(fromClass);
+            CouplingNode node = nodes.get(classNames.nameOf(row));
             if (node != null) {
                 node.setCouplingValue(totalOutgoingCoupling);
             }
         }
     }
 
+    // Sorted packed keys give row-major order with ascending columns.
+    private SparseCouplingMatrix compact(long[] sortedKeys, int total) {
+        int rows = classNames.size();
+        int[] rowPtr = new int[rows + 1];
+        int[] col = new int[sortedKeys.length];
+        int[] count = new int[sortedKeys.length];
+        double[] weight = new double[sortedKeys.length];
+
+        for (int edge = 0; edge < sortedKeys.length; edge++) {
+            long key = sortedKeys[edge];
+            rowPtr[CallCountTable.from(key) + 1]++;
+            col[edge] = CallCountTable.to(key);
+            count[edge] = callCounts.get(key);
+            weight[edge] = (double) count[edge] / total;
+        }
+        for (int row = 0; row < rows; row++) {
+            rowPtr[row + 1] += rowPtr[row];
+        }
+
+        return new SparseCouplingMatrix(classNames, rowPtr, col, count, weight);
+    }
+
     @Deprecated
     public void addCoupling(String from, String to, double weight) {
 
@@ -81,10 +155,15 @@ public class CouplingGraph {
     }
 
     public double getCouplingWeight(String from, String to) {
-        if (couplingMatrix.containsKey(from) && couplingMatrix.get(from).containsKey(to)) {
-            return couplingMatrix.get(from).get(to);
-        }
-        return 0.0;
+        return couplingMatrix.getWeight(classNames.indexOf(from), classNames.indexOf(to));
+    }
+
+    public SparseCouplingMatrix getSparseCouplingMatrix() {
+        return couplingMatrix;
+    }
+
+    public ClassNameTable getClassNames() {
+        return classNames;
     }
 
     public Set<String> getAllNodeNames() {
@@ -96,11 +175,32 @@ public class CouplingGraph {
     }
 
     public Map<String, Map<String, Integer>> getCallCountMatrix() {
-        return callCountMatrix;
+        if (callCountMatrixView == null) {
+            callCountMatrixView = new LinkedHashMap<>();
+            for (long key : callCounts.sortedKeys()) {
+                callCountMatrixView
+                        .computeIfAbsent(classNames.nameOf(CallCountTable.from(key)), k -> new LinkedHashMap<>())
+                        .put(classNames.nameOf(CallCountTable.to(key)), callCounts.get(key));
+            }
+        }
+        return callCountMatrixView;
     }
 
     public Map<String, Map<String, Double>> getCouplingMatrix() {
-        return couplingMatrix;
+        if (couplingMatrixView == null) {
+            couplingMatrixView = new LinkedHashMap<>();
+            for (int row = 0; row < couplingMatrix.getRowCount(); row++) {
+                if (couplingMatrix.rowStart(row) == couplingMatrix.rowEnd(row)) {
+                    continue;
+                }
+                Map<String, Double> targets = new LinkedHashMap<>();
+                for (int edge = couplingMatrix.rowStart(row); edge < couplingMatrix.rowEnd(row); edge++) {
+                    targets.put(classNames.nameOf(couplingMatrix.col(edge)), couplingMatrix.weight(edge));
+                }
+                couplingMatrixView.put(classNames.nameOf(row), targets);
+            }
+        }
+        return couplingMatrixView;
     }
 
     public int getNodeCount() {
@@ -108,11 +208,7 @@ public class CouplingGraph {
     }
 
     public int getCouplingCount() {
-        int count = 0;
-        for (Map<String, Integer> row : callCountMatrix.values()) {
-            count += row.size();
-        }
-        return count;
+        return callCounts.size();
     }
 
     public int getTotalMethodCalls() {
@@ -120,10 +216,12 @@ public class CouplingGraph {
     }
 
     public int getCallCount(String from, String to) {
-        if (callCountMatrix.containsKey(from) && callCountMatrix.get(from).containsKey(to)) {
-            return callCountMatrix.get(from).get(to);
+        int fromId = classNames.indexOf(from);
+        int toId = classNames.indexOf(to);
+        if (fromId < 0 || toId < 0) {
+            return 0;
         }
-        return 0;
+        return callCounts.get(CallCountTable.key(fromId, toId));
     }
 
     public boolean isEmpty() {
@@ -132,7 +230,11 @@ public class CouplingGraph {
 
     public void removeOrphanedNodes() {
 
-        nodes.keySet().removeIf(className -> !callCountMatrix.containsKey(className));
+        nodes.keySet().removeIf(className -> !hasOutgoingCalls(classNames.indexOf(className)));
+    }
+
+    private boolean hasOutgoingCalls(int classId) {
+        return classId >= 0 && classId < outgoingCouplings.length && outgoingCouplings[classId] > 0;
     }
 
     public CouplingNode mergeNodes(String node1, String node2) {
@@ -0,0 +1,214 @@
+package fr.jeremyhurel.models;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import fr.jeremyhurel.models.strategies.GraphClusteringStrategy;
+
+public class LabelPropagationClustering implements GraphClusteringStrategy {
+
+    public static final int DEFAULT_MAX_ITERATIONS = 20;
+
+    private static final int SEQUENTIAL_THRESHOLD = 1024;
+
+    private final int maxIterations;
+    private final int parallelism;
+    private int iterationCount;
+    private boolean converged;
+
+    public LabelPropagationClustering() {
+        this(DEFAULT_MAX_ITERATIONS, Runtime.getRuntime().availableProcessors());
+    }
+
+    public LabelPropagationClustering(int maxIterations) {
+        this(maxIterations, Runtime.getRuntime().availableProcessors());
+    }
+
+    public LabelPropagationClustering(int maxIterations, int parallelism) {
+        this.maxIterations = Math.max(1, maxIterations);
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    @Override
+    public ModuleGraph extractModules(CouplingGraph couplingGraph) {
+        List<String> classNames = new ArrayList<>();
+        CommunityGraph graph = CommunityGraph.fromCouplingGraph(couplingGraph, classNames);
+        int[] labels = propagate(graph);
+
+        return CommunityGraph.toModuleGraph(labels, classNames, couplingGraph);
+    }
+
+    // Nodes of one colour share no edge, so a colour class can be updated in
+    // parallel with the same result as a sequential sweep. Each sweep is
+    // therefore independent of the thread count, and keeping the current label
+    // on ties means the agreeing edge weight only grows, so the sweeps settle.
+    int[] propagate(CommunityGraph graph) {
+        int[] labels = new int[graph.size];
+        for (int node = 0; node < graph.size; node++) {
+            labels[node] = node;
+        }
+
+        int[][] colourClasses = colourClasses(graph);
+        iterationCount = 0;
+        converged = graph.size == 0;
+
+        ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(() -> new Scratch(graph.size));
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            while (!converged && iterationCount < maxIterations) {
+                int changed = 0;
+                for (int[] nodes : colourClasses) {
+                    changed += pool.invoke(new PropagationTask(graph, labels, scratch, nodes, 0, nodes.length));
+                }
+                iterationCount++;
+                converged = changed == 0;
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        return labels;
+    }
+
+    private int[][] colourClasses(CommunityGraph graph) {
+        int[] colour = new int[graph.size];
+        int[] usedBy = new int[graph.size + 1];
+        int[] classSizes = new int[graph.size + 1];
+        int colourCount = 0;
+
+        for (int node = 0; node < graph.size; node++) {
+            for (int edge = graph.rowPtr[node]; edge < graph.rowPtr[node + 1]; edge++) {
+                int neighbor = graph.adj[edge];
+                if (neighbor < node) {
+                    usedBy[colour[neighbor]] = node + 1;
+                }
+            }
+            int c = 0;
+            while (usedBy[c] == node + 1) {
+                c++;
+            }
+            colour[node] = c;
+            classSizes[c]++;
+            colourCount = Math.max(colourCount, c + 1);
+        }
+
+        int[][] classes = new int[colourCount][];
+        for (int c = 0; c < colourCount; c++) {
+            classes[c] = new int[classSizes[c]];
+        }
+        int[] fill = new int[colourCount];
+        for (int node = 0; node < graph.size; node++) {
+            classes[colour[node]][fill[colour[node]]++] = node;
+        }
+        return classes;
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    public int getIterationCount() {
+        return iterationCount;
+    }
+
+    public boolean isConverged() {
+        return converged;
+    }
+
+    @Override
+    public String getStrategyName() {
+        String name = "Label Propagation (max " + maxIterations + " iterations";
+        if (iterationCount > 0) {
+            name += ", " + (converged ? "converged after " : "stopped after ") + iterationCount;
+        }
+        return name + ")";
+    }
+
+    private static final class Scratch {
+
+        private final double[] weights;
+        private final int[] touched;
+
+        Scratch(int size) {
+            this.weights = new double[size];
+            this.touched = new int[size];
+        }
+    }
+
+    private static final class PropagationTask extends RecursiveTask<Integer> {
+
+        private final CommunityGraph graph;
+        private final int[] labels;
+        private final ThreadLocal<Scratch> scratch;
+        private final int[] nodes;
+        private final int from;
+        private final int to;
+
+        PropagationTask(CommunityGraph graph, int[] labels, ThreadLocal<Scratch> scratch, int[] nodes,
+                        int from, int to) {
+            this.graph = graph;
+            this.labels = labels;
+            this.scratch = scratch;
+            this.nodes = nodes;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from > SEQUENTIAL_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                PropagationTask left = new PropagationTask(graph, labels, scratch, nodes, from, middle);
+                left.fork();
+                int right = new PropagationTask(graph, labels, scratch, nodes, middle, to).compute();
+                return left.join() + right;
+            }
+
+            Scratch buffers = scratch.get();
+            int changed = 0;
+            for (int i = from; i < to; i++) {
+                int node = nodes[i];
+                int label = strongestLabel(node, buffers);
+                if (label != labels[node]) {
+                    labels[node] = label;
+                    changed++;
+                }
+            }
+            return changed;
+        }
+
+        // Rows are sorted by neighbour, so labels are summed in a fixed order;
+        // ties keep the current label, then go to the smallest one.
+        private int strongestLabel(int node, Scratch buffers) {
+            double[] weights = buffers.weights;
+            int[] touched = buffers.touched;
+            int current = labels[node];
+            int count = 0;
+
+            for (int edge = graph.rowPtr[node]; edge < graph.rowPtr[node + 1]; edge++) {
+                int label = labels[graph.adj[edge]];
+                if (weights[label] == 0.0) {
+                    touched[count++] = label;
+                }
+                weights[label] += graph.weight[edge];
+            }
+
+            int best = current;
+            double bestWeight = weights[current];
+            for (int i = 0; i < count; i++) {
+                int label = touched[i];
+                if (weights[label] > bestWeight || (weights[label] == bestWeight && best != current && label < best)) {
+                    best = label;
+                    bestWeight = weights[label];
+                }
+            }
+
+            for (int i = 0; i < count; i++) {
+                weights[touched[i]] = 0.0;
+            }
+            return best;
+        }
+    }
+}
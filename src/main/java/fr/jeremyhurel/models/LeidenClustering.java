@@ -0,0 +1,316 @@
+package fr.jeremyhurel.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import fr.jeremyhurel.models.strategies.GraphClusteringStrategy;
+
+public class LeidenClustering implements GraphClusteringStrategy {
+
+    public static final double DEFAULT_RESOLUTION = 1.0;
+
+    private static final int MAX_LEVELS = 64;
+
+    private final double resolution;
+    private double modularity;
+    private int levelCount;
+
+    public LeidenClustering() {
+        this(DEFAULT_RESOLUTION);
+    }
+
+    public LeidenClustering(double resolution) {
+        this.resolution = resolution;
+    }
+
+    @Override
+    public ModuleGraph extractModules(CouplingGraph couplingGraph) {
+        List<String> classNames = new ArrayList<>();
+        CommunityGraph graph = CommunityGraph.fromCouplingGraph(couplingGraph, classNames);
+        int[] communities = detectCommunities(graph);
+        modularity = modularity(graph, communities);
+
+        return CommunityGraph.toModuleGraph(communities, classNames, couplingGraph);
+    }
+
+    // Louvain levels with the Leiden refinement: nodes are moved between
+    // communities, each community is split into well-connected subcommunities,
+    // and the subcommunities become the nodes of the next level.
+    int[] detectCommunities(CommunityGraph original) {
+        int[] membership = identity(original.size);
+        int[] communities = identity(original.size);
+        CommunityGraph graph = original;
+        levelCount = 0;
+
+        while (levelCount < MAX_LEVELS && graph.totalWeight > 0) {
+            moveNodes(graph, communities);
+            int communityCount = renumber(communities);
+            levelCount++;
+
+            if (communityCount == graph.size) {
+                break;
+            }
+
+            int[] refined = refine(graph, communities);
+            int refinedCount = renumber(refined);
+            if (refinedCount == graph.size) {
+                refined = communities;
+                refinedCount = communityCount;
+            }
+
+            int[] nextCommunities = new int[refinedCount];
+            for (int node = 0; node < graph.size; node++) {
+                nextCommunities[refined[node]] = communities[node];
+            }
+            for (int leaf = 0; leaf < membership.length; leaf++) {
+                membership[leaf] = refined[membership[leaf]];
+            }
+
+            graph = graph.aggregate(refined, refinedCount);
+            communities = nextCommunities;
+        }
+
+        int[] result = new int[original.size];
+        for (int leaf = 0; leaf < result.length; leaf++) {
+            result[leaf] = communities[membership[leaf]];
+        }
+        renumber(result);
+        return result;
+    }
+
+    private void moveNodes(CommunityGraph graph, int[] community) {
+        int n = graph.size;
+        double[] total = new double[n];
+        int[] members = new int[n];
+        for (int node = 0; node < n; node++) {
+            total[community[node]] += graph.strength[node];
+            members[community[node]]++;
+        }
+
+        int[] empty = new int[n];
+        int emptyCount = 0;
+        for (int c = n - 1; c >= 0; c--) {
+            if (members[c] == 0) {
+                empty[emptyCount++] = c;
+            }
+        }
+
+        int[] queue = identity(n);
+        boolean[] queued = new boolean[n];
+        Arrays.fill(queued, true);
+        int head = 0;
+        int queueSize = n;
+
+        double[] linkWeight = new double[n];
+        boolean[] seen = new boolean[n];
+        int[] touched = new int[n];
+
+        while (queueSize > 0) {
+            int node = queue[head];
+            head = (head + 1) % n;
+            queueSize--;
+            queued[node] = false;
+
+            int current = community[node];
+            double strength = graph.strength[node];
+            int touchedCount = 0;
+            for (int edge = graph.rowPtr[node]; edge < graph.rowPtr[node + 1]; edge++) {
+                int c = community[graph.adj[edge]];
+                if (!seen[c]) {
+                    seen[c] = true;
+                    touched[touchedCount++] = c;
+                }
+                linkWeight[c] += graph.weight[edge];
+            }
+
+            total[current] -= strength;
+            members[current]--;
+
+            int best = current;
+            double bestGain = linkWeight[current] - resolution * total[current] * strength / graph.totalWeight;
+            for (int i = 0; i < touchedCount; i++) {
+                int c = touched[i];
+                double gain = linkWeight[c] - resolution * total[c] * strength / graph.totalWeight;
+                if (gain > bestGain) {
+                    best = c;
+                    bestGain = gain;
+                }
+            }
+            if (bestGain < 0 && members[current] > 0 && emptyCount > 0) {
+                best = empty[--emptyCount];
+            }
+
+            total[best] += strength;
+            members[best]++;
+            community[node] = best;
+
+            if (best != current) {
+                if (members[current] == 0) {
+                    empty[emptyCount++] = current;
+                }
+                for (int edge = graph.rowPtr[node]; edge < graph.rowPtr[node + 1]; edge++) {
+                    int neighbor = graph.adj[edge];
+                    if (!queued[neighbor] && community[neighbor] != best) {
+                        queued[neighbor] = true;
+                        queue[(head + queueSize) % n] = neighbor;
+                        queueSize++;
+                    }
+                }
+            }
+
+            for (int i = 0; i < touchedCount; i++) {
+                linkWeight[touched[i]] = 0.0;
+                seen[touched[i]] = false;
+            }
+        }
+    }
+
+    // Deterministic variant of the Leiden refinement: a singleton joins the
+    // well-connected subcommunity of its own community with the best positive
+    // gain, so every subcommunity stays connected.
+    private int[] refine(CommunityGraph graph, int[] community) {
+        int n = graph.size;
+        int[] refined = identity(n);
+        double[] refinedTotal = Arrays.copyOf(graph.strength, n);
+        boolean[] singleton = new boolean[n];
+        Arrays.fill(singleton, true);
+
+        double[] communityTotal = new double[n];
+        double[] nodeLinkToCommunity = new double[n];
+        for (int node = 0; node < n; node++) {
+            communityTotal[community[node]] += graph.strength[node];
+            for (int edge = graph.rowPtr[node]; edge < graph.rowPtr[node + 1]; edge++) {
+                if (community[graph.adj[edge]] == community[node]) {
+                    nodeLinkToCommunity[node] += graph.weight[edge];
+                }
+            }
+        }
+        double[] refinedLinkToCommunity = Arrays.copyOf(nodeLinkToCommunity, n);
+
+        double[] linkWeight = new double[n];
+        boolean[] seen = new boolean[n];
+        int[] touched = new int[n];
+
+        for (int node = 0; node < n; node++) {
+            if (!singleton[node]) {
+                continue;
+            }
+
+            int c = community[node];
+            double strength = graph.strength[node];
+            if (nodeLinkToCommunity[node] < resolution * strength * (communityTotal[c] - strength) / graph.totalWeight) {
+                continue;
+            }
+
+            int touchedCount = 0;
+            for (int edge = graph.rowPtr[node]; edge < graph.rowPtr[node + 1]; edge++) {
+                int neighbor = graph.adj[edge];
+                if (community[neighbor] != c) {
+                    continue;
+                }
+                int r = refined[neighbor];
+                if (!seen[r]) {
+                    seen[r] = true;
+                    touched[touchedCount++] = r;
+                }
+                linkWeight[r] += graph.weight[edge];
+            }
+
+            int best = -1;
+            double bestGain = 0.0;
+            for (int i = 0; i < touchedCount; i++) {
+                int r = touched[i];
+                boolean wellConnected = refinedLinkToCommunity[r]
+                        >= resolution * refinedTotal[r] * (communityTotal[c] - refinedTotal[r]) / graph.totalWeight;
+                double gain = linkWeight[r] - resolution * refinedTotal[r] * strength / graph.totalWeight;
+                if (wellConnected && gain > bestGain) {
+                    best = r;
+                    bestGain = gain;
+                }
+            }
+
+            if (best >= 0) {
+                refined[node] = best;
+                refinedTotal[best] += strength;
+                refinedLinkToCommunity[best] += nodeLinkToCommunity[node] - 2 * linkWeight[best];
+                singleton[node] = false;
+                singleton[best] = false;
+            }
+
+            for (int i = 0; i < touchedCount; i++) {
+                linkWeight[touched[i]] = 0.0;
+                seen[touched[i]] = false;
+            }
+        }
+
+        return refined;
+    }
+
+    private double modularity(CommunityGraph graph, int[] community) {
+        if (graph.totalWeight <= 0) {
+            return 0.0;
+        }
+
+        double[] internal = new double[graph.size];
+        double[] total = new double[graph.size];
+        for (int node = 0; node < graph.size; node++) {
+            total[community[node]] += graph.strength[node];
+            internal[community[node]] += graph.selfWeight[node];
+            for (int edge = graph.rowPtr[node]; edge < graph.rowPtr[node + 1]; edge++) {
+                if (community[graph.adj[edge]] == community[node]) {
+                    internal[community[node]] += graph.weight[edge];
+                }
+            }
+        }
+
+        double quality = 0.0;
+        for (int c = 0; c < graph.size; c++) {
+            double share = total[c] / graph.totalWeight;
+            quality += internal[c] / graph.totalWeight - resolution * share * share;
+        }
+        return quality;
+    }
+
+    private static int[] identity(int size) {
+        int[] values = new int[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = i;
+        }
+        return values;
+    }
+
+    private static int renumber(int[] labels) {
+        int[] mapping = new int[labels.length];
+        Arrays.fill(mapping, -1);
+        int count = 0;
+        for (int i = 0; i < labels.length; i++) {
+            if (mapping[labels[i]] < 0) {
+                mapping[labels[i]] = count++;
+            }
+            labels[i] = mapping[labels[i]];
+        }
+        return count;
+    }
+
+    public double getResolution() {
+        return resolution;
+    }
+
+    public double getModularity() {
+        return modularity;
+    }
+
+    public int getLevelCount() {
+        return levelCount;
+    }
+
+    @Override
+    public String getStrategyName() {
+        String name = "Leiden (resolution " + String.format("%.2f", resolution);
+        if (levelCount > 0) {
+            name += ", modularity " + String.format("%.4f", modularity);
+        }
+        return name + ")";
+    }
+}
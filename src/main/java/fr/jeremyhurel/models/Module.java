@@ -1,24 +1,28 @@
 package fr.jeremyhurel.models;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class Module {
 
     private int id;
     private String name;
     private List<String> classes;
+    private Set<String> classSet;
     private double cohesion;
 
     public Module(int id, String name) {
         this.id = id;
         this.name = name;
         this.classes = new ArrayList<>();
+        this.classSet = new HashSet<>();
         this.cohesion = 0.0;
     }
 
     public void addClass(String className) {
-        if (!classes.contains(className)) {
+        if (classSet.add(className)) {
             classes.add(className);
         }
     }
@@ -62,7 +66,7 @@ public class Module {
     }
 
     public boolean containsClass(String className) {
-        return classes.contains(className);
+        return classSet.contains(className);
     }
 
     @Override
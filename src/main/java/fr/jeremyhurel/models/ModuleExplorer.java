@@ -0,0 +1,150 @@
+package fr.jeremyhurel.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import fr.jeremyhurel.models.ClusterTree.ClusterNode;
+
+public class ModuleExplorer {
+
+    private final ClusterCutIndex index;
+    private final SparseCouplingMatrix matrix;
+    private final int[] classOfLeaf;
+    private final int[] leafOfClass;
+    private final Map<ClusterNode, Double> cohesionCache = new IdentityHashMap<>();
+
+    private List<ClusterNode> clusters = new ArrayList<>();
+    private double averageCohesion;
+    private int computedClusterCount;
+
+    public ModuleExplorer(ClusterTree clusterTree, CouplingGraph couplingGraph) {
+        this.index = clusterTree.getCutIndex();
+        this.matrix = couplingGraph.getSparseCouplingMatrix();
+
+        ClassNameTable classNames = couplingGraph.getClassNames();
+        this.classOfLeaf = new int[index.getLeafCount()];
+        this.leafOfClass = new int[classNames.size()];
+        Arrays.fill(leafOfClass, -1);
+        for (int leaf = 0; leaf < classOfLeaf.length; leaf++) {
+            classOfLeaf[leaf] = classNames.indexOf(index.getLeafName(leaf));
+            if (classOfLeaf[leaf] >= 0) {
+                leafOfClass[classOfLeaf[leaf]] = leaf;
+            }
+        }
+    }
+
+    public void cutByCount(int targetCount) {
+        update(index.cutByCount(targetCount));
+    }
+
+    public void cutByThreshold(double threshold) {
+        update(index.cutByThreshold(threshold));
+    }
+
+    // Neighbouring cuts share most of their clusters, so only the clusters
+    // that were split or merged since the previous cut are measured again.
+    private void update(List<ClusterNode> cut) {
+        computedClusterCount = 0;
+        double totalCohesion = 0.0;
+        for (ClusterNode cluster : cut) {
+            Double cohesion = cohesionCache.get(cluster);
+            if (cohesion == null) {
+                cohesion = calculateCohesion(cluster);
+                cohesionCache.put(cluster, cohesion);
+                computedClusterCount++;
+            }
+            totalCohesion += cohesion;
+        }
+
+        clusters = cut;
+        averageCohesion = cut.isEmpty() ? 0.0 : totalCohesion / cut.size();
+    }
+
+    // Same measure as ModuleGraph.calculateCohesion, restricted to the rows of
+    // one cluster so that a cached cut can be extended cluster by cluster.
+    private double calculateCohesion(ClusterNode cluster) {
+        int start = index.getLeafStart(cluster);
+        int end = index.getLeafEnd(cluster);
+        if (end - start <= 1) {
+            return 0.0;
+        }
+
+        double totalCoupling = 0.0;
+        int pairCount = 0;
+        for (int leaf = start; leaf < end; leaf++) {
+            int from = classOfLeaf[leaf];
+            if (from < 0 || from >= matrix.getRowCount()) {
+                continue;
+            }
+            for (int edge = matrix.rowStart(from); edge < matrix.rowEnd(from); edge++) {
+                int to = matrix.col(edge);
+                int target = to < leafOfClass.length ? leafOfClass[to] : -1;
+                if (to == from || target < start || target >= end || matrix.weight(edge) <= 0) {
+                    continue;
+                }
+                totalCoupling += matrix.weight(edge);
+                if (from < to || matrix.getWeight(to, from) <= 0) {
+                    pairCount++;
+                }
+            }
+        }
+
+        return pairCount > 0 ? totalCoupling / pairCount : 0.0;
+    }
+
+    public List<ClusterNode> getClusters() {
+        return new ArrayList<>(clusters);
+    }
+
+    public int getModuleCount() {
+        return clusters.size();
+    }
+
+    public int getModuleSize(ClusterNode cluster) {
+        return index.getLeafEnd(cluster) - index.getLeafStart(cluster);
+    }
+
+    public double getCohesion(ClusterNode cluster) {
+        Double cohesion = cohesionCache.get(cluster);
+        return cohesion != null ? cohesion : 0.0;
+    }
+
+    public double getAverageCohesion() {
+        return averageCohesion;
+    }
+
+    // A threshold cut is also the count cut with as many modules, so both
+    // modes read their scores from the count cuts.
+    public double getModularity() {
+        return index.hasCutScores() ? index.getModularity(clusters.size()) : 0.0;
+    }
+
+    public double getModularizationQuality() {
+        return index.hasCutScores() ? index.getModularizationQuality(clusters.size()) : 0.0;
+    }
+
+    public int getComputedClusterCount() {
+        return computedClusterCount;
+    }
+
+    public int getClassCount() {
+        return index.getLeafCount();
+    }
+
+    public ClusterCutIndex getCutIndex() {
+        return index;
+    }
+
+    public ModuleGraph toModuleGraph() {
+        List<List<String>> classGroups = new ArrayList<>();
+        double[] cohesions = new double[clusters.size()];
+        for (int i = 0; i < clusters.size(); i++) {
+            classGroups.add(index.getLeafNames(clusters.get(i)));
+            cohesions[i] = getCohesion(clusters.get(i));
+        }
+        return ClusterTree.buildModuleGraph(classGroups, cohesions);
+    }
+}
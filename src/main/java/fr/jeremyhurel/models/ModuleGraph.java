@@ -1,12 +1,14 @@
 package fr.jeremyhurel.models;
 
-import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import fr.jeremyhurel.utils.ExportWriter;
+
 public class ModuleGraph {
 
     private final List<Module> modules;
@@ -46,19 +48,33 @@ public class ModuleGraph {
         return null;
     }
 
+    // Average weight of the calls from module1 to module2, read from the
+    // sparse rows of module1's classes.
     public double getModuleCoupling(Module module1, Module module2, CouplingGraph couplingGraph) {
         if (module1 == null || module2 == null) {
             return 0.0;
         }
 
+        SparseCouplingMatrix matrix = couplingGraph.getSparseCouplingMatrix();
+        ClassNameTable classNames = couplingGraph.getClassNames();
+        boolean[] inTarget = new boolean[classNames.size()];
+        for (String className : module2.getClasses()) {
+            int id = classNames.indexOf(className);
+            if (id >= 0) {
+                inTarget[id] = true;
+            }
+        }
+
         double totalCoupling = 0.0;
         int pairCount = 0;
-
-        for (String class1 : module1.getClasses()) {
-            for (String class2 : module2.getClasses()) {
-                double coupling = couplingGraph.getCouplingWeight(class1, class2);
-                if (coupling > 0) {
-                    totalCoupling += coupling;
+        for (String className : module1.getClasses()) {
+            int from = classNames.indexOf(className);
+            if (from < 0) {
+                continue;
+            }
+            for (int edge = matrix.rowStart(from); edge < matrix.rowEnd(from); edge++) {
+                if (inTarget[matrix.col(edge)] && matrix.weight(edge) > 0) {
+                    totalCoupling += matrix.weight(edge);
                     pairCount++;
                 }
             }
@@ -67,6 +83,131 @@ public class ModuleGraph {
         return pairCount > 0 ? totalCoupling / pairCount : 0.0;
     }
 
+    // Row and column i are getModules().get(i); each entry holds the value of
+    // getModuleCoupling for that pair and, as its count, the number of coupled
+    // class pairs. Built in one pass over the coupling edges.
+    public SparseCouplingMatrix getModuleCouplingMatrix(CouplingGraph couplingGraph) {
+        SparseCouplingMatrix matrix = couplingGraph.getSparseCouplingMatrix();
+        int[] moduleOf = moduleIndexOfClasses(couplingGraph.getClassNames());
+        int moduleCount = modules.size();
+
+        int[] memberStart = new int[moduleCount + 1];
+        for (int module : moduleOf) {
+            if (module >= 0) {
+                memberStart[module + 1]++;
+            }
+        }
+        for (int module = 0; module < moduleCount; module++) {
+            memberStart[module + 1] += memberStart[module];
+        }
+        int[] members = new int[memberStart[moduleCount]];
+        int[] fill = Arrays.copyOf(memberStart, moduleCount);
+        for (int classId = 0; classId < moduleOf.length; classId++) {
+            if (moduleOf[classId] >= 0) {
+                members[fill[moduleOf[classId]]++] = classId;
+            }
+        }
+
+        ClassNameTable moduleNames = new ClassNameTable();
+        int[] rowPtr = new int[moduleCount + 1];
+        List<int[]> rowCols = new ArrayList<>();
+        List<int[]> rowCounts = new ArrayList<>();
+        List<double[]> rowWeights = new ArrayList<>();
+        double[] sums = new double[moduleCount];
+        int[] counts = new int[moduleCount];
+        int[] touched = new int[moduleCount];
+
+        for (int module = 0; module < moduleCount; module++) {
+            moduleNames.intern(modules.get(module).getName());
+            int touchedCount = 0;
+            for (int m = memberStart[module]; m < memberStart[module + 1]; m++) {
+                int from = members[m];
+                for (int edge = matrix.rowStart(from); edge < matrix.rowEnd(from); edge++) {
+                    int target = moduleOf[matrix.col(edge)];
+                    if (target < 0 || matrix.weight(edge) <= 0) {
+                        continue;
+                    }
+                    if (counts[target] == 0) {
+                        touched[touchedCount++] = target;
+                    }
+                    sums[target] += matrix.weight(edge);
+                    counts[target]++;
+                }
+            }
+
+            Arrays.sort(touched, 0, touchedCount);
+            int[] cols = Arrays.copyOf(touched, touchedCount);
+            int[] pairCounts = new int[touchedCount];
+            double[] weights = new double[touchedCount];
+            for (int i = 0; i < touchedCount; i++) {
+                pairCounts[i] = counts[cols[i]];
+                weights[i] = sums[cols[i]] / counts[cols[i]];
+                sums[cols[i]] = 0.0;
+                counts[cols[i]] = 0;
+            }
+            rowCols.add(cols);
+            rowCounts.add(pairCounts);
+            rowWeights.add(weights);
+            rowPtr[module + 1] = rowPtr[module] + touchedCount;
+        }
+
+        int[] col = new int[rowPtr[moduleCount]];
+        int[] count = new int[col.length];
+        double[] weight = new double[col.length];
+        for (int module = 0; module < moduleCount; module++) {
+            System.arraycopy(rowCols.get(module), 0, col, rowPtr[module], rowCols.get(module).length);
+            System.arraycopy(rowCounts.get(module), 0, count, rowPtr[module], rowCounts.get(module).length);
+            System.arraycopy(rowWeights.get(module), 0, weight, rowPtr[module], rowWeights.get(module).length);
+        }
+
+        return new SparseCouplingMatrix(moduleNames, rowPtr, col, count, weight);
+    }
+
+    // Cohesion is the average coupling, both directions summed, over the
+    // coupled pairs of classes of a module. Every coupling edge is visited
+    // once; a pair is counted on its first edge in row order.
+    public void calculateCohesion(CouplingGraph couplingGraph) {
+        SparseCouplingMatrix matrix = couplingGraph.getSparseCouplingMatrix();
+        int[] moduleOf = moduleIndexOfClasses(couplingGraph.getClassNames());
+        double[] totalCoupling = new double[modules.size()];
+        int[] pairCount = new int[modules.size()];
+
+        for (int from = 0; from < Math.min(matrix.getRowCount(), moduleOf.length); from++) {
+            int module = moduleOf[from];
+            if (module < 0) {
+                continue;
+            }
+            for (int edge = matrix.rowStart(from); edge < matrix.rowEnd(from); edge++) {
+                int to = matrix.col(edge);
+                if (to == from || moduleOf[to] != module || matrix.weight(edge) <= 0) {
+                    continue;
+                }
+                totalCoupling[module] += matrix.weight(edge);
+                if (from < to || matrix.getWeight(to, from) <= 0) {
+                    pairCount[module]++;
+                }
+            }
+        }
+
+        for (int module = 0; module < modules.size(); module++) {
+            modules.get(module).setCohesion(pairCount[module] > 0 ? totalCoupling[module] / pairCount[module] : 0.0);
+        }
+    }
+
+    private int[] moduleIndexOfClasses(ClassNameTable classNames) {
+        int[] moduleOf = new int[classNames.size()];
+        Arrays.fill(moduleOf, -1);
+        for (int module = 0; module < modules.size(); module++) {
+            for (String className : modules.get(module).getClasses()) {
+                int id = classNames.indexOf(className);
+                if (id >= 0) {
+                    moduleOf[id] = module;
+                }
+            }
+        }
+        return moduleOf;
+    }
+
     public double getAverageCohesion() {
         if (modules.isEmpty()) {
             return 0.0;
@@ -81,24 +222,24 @@ public class ModuleGraph {
     }
 
     public void exportToFile(String filePath) throws IOException {
-        try (FileWriter writer = new FileWriter(filePath)) {
+        try (ExportWriter writer = new ExportWriter(filePath)) {
             writer.write("========================================\n");
             writer.write("MODULE GRAPH EXPORT\n");
             writer.write("========================================\n\n");
 
-            writer.write("Total modules: " + getModuleCount() + "\n");
-            writer.write("Average cohesion: " + String.format("%.4f", getAverageCohesion()) + "\n\n");
+            writer.write("Total modules: ").writeInt(getModuleCount()).write('\n');
+            writer.write("Average cohesion: ").writeFixed(getAverageCohesion(), 4).write("\n\n");
 
             for (Module module : modules) {
-                writer.write("  " + module.getName() + ":\n");
-                writer.write("    - Size: " + module.getClasses().size() + " classes\n");
-                writer.write("    - Cohesion: " + String.format("%.4f", module.getCohesion()) + "\n");
+                writer.write("  ").write(module.getName()).write(":\n");
+                writer.write("    - Size: ").writeInt(module.getClasses().size()).write(" classes\n");
+                writer.write("    - Cohesion: ").writeFixed(module.getCohesion(), 4).write('\n');
                 writer.write("    - Classes:\n");
 
                 for (String className : module.getClasses()) {
-                    writer.write("        • " + className + "\n");
+                    writer.write("        • ").write(className).write('\n');
                 }
-                writer.write("\n");
+                writer.write('\n');
             }
 
             writer.write("========================================\n");
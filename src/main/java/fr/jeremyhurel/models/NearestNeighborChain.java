@@ -0,0 +1,344 @@
+package fr.jeremyhurel.models;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+final class NearestNeighborChain {
+
+    private final ClusterTree.Linkage linkage;
+    private final int leafCount;
+    private final int[][] rowCols;
+    private final double[][] rowSims;
+    private final int[] rowSizes;
+    private final int[] clusterSizes;
+    private final BitSet active;
+    private int activeCount;
+    private int nextId;
+
+    private int[] mergeLeft;
+    private int[] mergeRight;
+    private double[] mergeSimilarity;
+    private int mergeCount;
+
+    NearestNeighborChain(SparseCouplingMatrix matrix, int[] leafOf, int leafCount, ClusterTree.Linkage linkage) {
+        this.linkage = linkage;
+        this.leafCount = leafCount;
+        this.rowCols = new int[Math.max(1, 2 * leafCount - 1)][];
+        this.rowSims = new double[rowCols.length][];
+        this.rowSizes = new int[rowCols.length];
+        this.clusterSizes = new int[rowCols.length];
+        this.active = new BitSet(rowCols.length);
+        this.nextId = leafCount;
+
+        buildLeafRows(matrix, leafOf);
+        active.set(0, leafCount);
+        activeCount = leafCount;
+        Arrays.fill(clusterSizes, 0, leafCount, 1);
+    }
+
+    // Similarity between two classes is the heavier of the two call directions,
+    // the same value the greedy search picked when it scanned both directions.
+    private void buildLeafRows(SparseCouplingMatrix matrix, int[] leafOf) {
+        int[] degree = new int[leafCount];
+        int rows = Math.min(matrix.getRowCount(), leafOf.length);
+
+        for (int row = 0; row < rows; row++) {
+            int from = leafOf[row];
+            if (from < 0) {
+                continue;
+            }
+            for (int edge = matrix.rowStart(row); edge < matrix.rowEnd(row); edge++) {
+                int to = matrix.col(edge) < leafOf.length ? leafOf[matrix.col(edge)] : -1;
+                if (to >= 0 && to != from && matrix.weight(edge) > 0) {
+                    degree[from]++;
+                    degree[to]++;
+                }
+            }
+        }
+
+        int[][] cols = new int[leafCount][];
+        double[][] sims = new double[leafCount][];
+        for (int leaf = 0; leaf < leafCount; leaf++) {
+            cols[leaf] = new int[degree[leaf]];
+            sims[leaf] = new double[degree[leaf]];
+        }
+
+        int[] fill = new int[leafCount];
+        for (int row = 0; row < rows; row++) {
+            int from = leafOf[row];
+            if (from < 0) {
+                continue;
+            }
+            for (int edge = matrix.rowStart(row); edge < matrix.rowEnd(row); edge++) {
+                int to = matrix.col(edge) < leafOf.length ? leafOf[matrix.col(edge)] : -1;
+                double weight = matrix.weight(edge);
+                if (to >= 0 && to != from && weight > 0) {
+                    cols[from][fill[from]] = to;
+                    sims[from][fill[from]++] = weight;
+                    cols[to][fill[to]] = from;
+                    sims[to][fill[to]++] = weight;
+                }
+            }
+        }
+
+        for (int leaf = 0; leaf < leafCount; leaf++) {
+            compactRow(leaf, cols[leaf], sims[leaf]);
+        }
+    }
+
+    private void compactRow(int leaf, int[] cols, double[] sims) {
+        long[] order = new long[cols.length];
+        for (int i = 0; i < cols.length; i++) {
+            order[i] = ((long) cols[i] << 32) | i;
+        }
+        Arrays.sort(order);
+
+        int[] compactCols = new int[cols.length];
+        double[] compactSims = new double[cols.length];
+        int size = 0;
+        for (long key : order) {
+            int col = (int) (key >>> 32);
+            double sim = sims[(int) key];
+            if (size > 0 && compactCols[size - 1] == col) {
+                compactSims[size - 1] = Math.max(compactSims[size - 1], sim);
+            } else {
+                compactCols[size] = col;
+                compactSims[size++] = sim;
+            }
+        }
+
+        rowCols[leaf] = compactCols;
+        rowSims[leaf] = compactSims;
+        rowSizes[leaf] = size;
+    }
+
+    void run() {
+        mergeLeft = new int[Math.max(0, leafCount - 1)];
+        mergeRight = new int[mergeLeft.length];
+        mergeSimilarity = new double[mergeLeft.length];
+        mergeCount = 0;
+
+        int[] chain = new int[Math.max(1, leafCount)];
+        int chainSize = 0;
+
+        while (activeCount > 1) {
+            if (chainSize == 0) {
+                chain[chainSize++] = active.nextSetBit(0);
+            }
+
+            int current = chain[chainSize - 1];
+            int previous = chainSize > 1 ? chain[chainSize - 2] : -1;
+            int nearest = findNearest(current, previous);
+
+            if (nearest == previous) {
+                chainSize -= 2;
+                merge(previous, current, similarity(current, previous));
+            } else {
+                chain[chainSize++] = nearest;
+            }
+        }
+
+        sortMerges();
+    }
+
+    // Ties go to the previous chain element, then to the lowest id, so the
+    // chain can never revisit a cluster.
+    private int findNearest(int cluster, int previous) {
+        int[] cols = rowCols[cluster];
+        double[] sims = rowSims[cluster];
+        int best = -1;
+        double bestSim = 0.0;
+
+        for (int i = 0; i < rowSizes[cluster]; i++) {
+            int candidate = cols[i];
+            double sim = sims[i];
+            if (best < 0 || sim > bestSim
+                    || (sim == bestSim && (candidate == previous || (best != previous && candidate < best)))) {
+                best = candidate;
+                bestSim = sim;
+            }
+        }
+
+        if (best >= 0) {
+            return best;
+        }
+        if (previous >= 0) {
+            return previous;
+        }
+        int lowest = active.nextSetBit(0);
+        return lowest != cluster ? lowest : active.nextSetBit(cluster + 1);
+    }
+
+    private double similarity(int cluster, int other) {
+        int index = Arrays.binarySearch(rowCols[cluster], 0, rowSizes[cluster], other);
+        return index >= 0 ? rowSims[cluster][index] : 0.0;
+    }
+
+    private void merge(int first, int second, double sim) {
+        int merged = nextId++;
+        mergeLeft[mergeCount] = first;
+        mergeRight[mergeCount] = second;
+        mergeSimilarity[mergeCount++] = sim;
+
+        int[] colsA = rowCols[first];
+        double[] simsA = rowSims[first];
+        int sizeA = rowSizes[first];
+        int[] colsB = rowCols[second];
+        double[] simsB = rowSims[second];
+        int sizeB = rowSizes[second];
+
+        int[] cols = new int[sizeA + sizeB];
+        double[] sims = new double[sizeA + sizeB];
+        int size = 0;
+        int a = 0;
+        int b = 0;
+        while (a < sizeA || b < sizeB) {
+            int col;
+            double simA = 0.0;
+            double simB = 0.0;
+            if (b >= sizeB || (a < sizeA && colsA[a] < colsB[b])) {
+                col = colsA[a];
+                simA = simsA[a++];
+            } else if (a >= sizeA || colsB[b] < colsA[a]) {
+                col = colsB[b];
+                simB = simsB[b++];
+            } else {
+                col = colsA[a];
+                simA = simsA[a++];
+                simB = simsB[b++];
+            }
+
+            if (col == first || col == second) {
+                continue;
+            }
+
+            removeFromRow(col, first);
+            removeFromRow(col, second);
+
+            double linked = link(simA, simB, sim, clusterSizes[first], clusterSizes[second], clusterSizes[col]);
+            if (linked > 0) {
+                cols[size] = col;
+                sims[size++] = linked;
+                appendToRow(col, merged, linked);
+            }
+        }
+
+        rowCols[merged] = cols;
+        rowSims[merged] = sims;
+        rowSizes[merged] = size;
+        clusterSizes[merged] = clusterSizes[first] + clusterSizes[second];
+
+        rowCols[first] = null;
+        rowSims[first] = null;
+        rowCols[second] = null;
+        rowSims[second] = null;
+        active.clear(first);
+        active.clear(second);
+        active.set(merged);
+        activeCount--;
+    }
+
+    // Lance-Williams recurrences written for similarities, where an absent entry
+    // means uncoupled (0). Ward uses the usual coefficients and drops pairs that
+    // fall to 0 or below, which keeps the rows sparse. Every update stays at or
+    // below the larger input, so the merge sequence is monotone; the final bound
+    // only guards against rounding.
+    private double link(double simA, double simB, double simAB, int sizeA, int sizeB, int sizeK) {
+        double linked;
+        switch (linkage) {
+            case SINGLE:
+                linked = Math.max(simA, simB);
+                break;
+            case COMPLETE:
+                linked = Math.min(simA, simB);
+                break;
+            case AVERAGE:
+                linked = (sizeA * simA + sizeB * simB) / (sizeA + sizeB);
+                break;
+            case WARD:
+                linked = ((sizeA + sizeK) * simA + (sizeB + sizeK) * simB - sizeK * simAB)
+                        / (sizeA + sizeB + sizeK);
+                break;
+            case WEIGHTED:
+            default:
+                linked = (simA + simB) / 2.0;
+                break;
+        }
+        return Math.min(linked, Math.max(simA, simB));
+    }
+
+    private void removeFromRow(int row, int col) {
+        int index = Arrays.binarySearch(rowCols[row], 0, rowSizes[row], col);
+        if (index < 0) {
+            return;
+        }
+        int tail = rowSizes[row] - index - 1;
+        System.arraycopy(rowCols[row], index + 1, rowCols[row], index, tail);
+        System.arraycopy(rowSims[row], index + 1, rowSims[row], index, tail);
+        rowSizes[row]--;
+    }
+
+    // New cluster ids are always the highest so far, so appending keeps rows sorted.
+    private void appendToRow(int row, int col, double sim) {
+        int size = rowSizes[row];
+        if (size == rowCols[row].length) {
+            int capacity = Math.max(4, size * 2);
+            rowCols[row] = Arrays.copyOf(rowCols[row], capacity);
+            rowSims[row] = Arrays.copyOf(rowSims[row], capacity);
+        }
+        rowCols[row][size] = col;
+        rowSims[row][size] = sim;
+        rowSizes[row] = size + 1;
+    }
+
+    // The chain finds merges out of order; replaying them by decreasing
+    // similarity gives the sequence the greedy search would have produced.
+    // The sort is stable, so a cluster is always created before it is merged.
+    private void sortMerges() {
+        Integer[] order = new Integer[mergeCount];
+        for (int i = 0; i < mergeCount; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (x, y) -> Double.compare(mergeSimilarity[y], mergeSimilarity[x]));
+
+        int[] renamed = new int[leafCount + mergeCount];
+        for (int i = 0; i < leafCount; i++) {
+            renamed[i] = i;
+        }
+        for (int rank = 0; rank < mergeCount; rank++) {
+            renamed[leafCount + order[rank]] = leafCount + rank;
+        }
+
+        int[] left = new int[mergeCount];
+        int[] right = new int[mergeCount];
+        double[] sims = new double[mergeCount];
+        for (int rank = 0; rank < mergeCount; rank++) {
+            int merge = order[rank];
+            int first = renamed[mergeLeft[merge]];
+            int second = renamed[mergeRight[merge]];
+            left[rank] = Math.min(first, second);
+            right[rank] = Math.max(first, second);
+            sims[rank] = mergeSimilarity[merge];
+        }
+
+        mergeLeft = left;
+        mergeRight = right;
+        mergeSimilarity = sims;
+    }
+
+    int getMergeCount() {
+        return mergeCount;
+    }
+
+    int getLeft(int merge) {
+        return mergeLeft[merge];
+    }
+
+    int getRight(int merge) {
+        return mergeRight[merge];
+    }
+
+    double getSimilarity(int merge) {
+        return mergeSimilarity[merge];
+    }
+}
@@ -0,0 +1,74 @@
+package fr.jeremyhurel.models;
+
+public class SparseCouplingMatrix {
+
+    private final ClassNameTable classNames;
+    private final int[] rowPtr;
+    private final int[] col;
+    private final int[] count;
+    private final double[] weight;
+
+    public SparseCouplingMatrix(ClassNameTable classNames, int[] rowPtr, int[] col, int[] count, double[] weight) {
+        this.classNames = classNames;
+        this.rowPtr = rowPtr;
+        this.col = col;
+        this.count = count;
+        this.weight = weight;
+    }
+
+    public int getRowCount() {
+        return rowPtr.length - 1;
+    }
+
+    public int getEdgeCount() {
+        return col.length;
+    }
+
+    public int rowStart(int row) {
+        return row < getRowCount() ? rowPtr[row] : col.length;
+    }
+
+    public int rowEnd(int row) {
+        return row < getRowCount() ? rowPtr[row + 1] : col.length;
+    }
+
+    public int col(int edge) {
+        return col[edge];
+    }
+
+    public int count(int edge) {
+        return count[edge];
+    }
+
+    public double weight(int edge) {
+        return weight[edge];
+    }
+
+    public int findEdge(int from, int to) {
+        if (from < 0 || to < 0) {
+            return -1;
+        }
+        int low = rowStart(from);
+        int high = rowEnd(from) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (col[mid] < to) {
+                low = mid + 1;
+            } else if (col[mid] > to) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    public double getWeight(int from, int to) {
+        int edge = findEdge(from, to);
+        return edge >= 0 ? weight[edge] : 0.0;
+    }
+
+    public ClassNameTable getClassNames() {
+        return classNames;
+    }
+}
@@ -38,6 +38,11 @@ public class ClassDiagram {
         return node;
     }
 
+    public ClassDiagramNode removeClass(String fullClassName) {
+        relationships.removeIf(relationship -> relationship.getSourceClass().equals(fullClassName));
+        return classes.remove(fullClassName);
+    }
+
     public void addRelationship(ClassRelationship relationship) {
         relationships.add(relationship);
     }
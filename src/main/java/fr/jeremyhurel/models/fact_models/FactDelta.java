@@ -0,0 +1,53 @@
+package fr.jeremyhurel.models.fact_models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class FactDelta {
+
+    private final List<SourceFileFacts> removed;
+    private final List<SourceFileFacts> added;
+
+    public FactDelta() {
+        this.removed = new ArrayList<>();
+        this.added = new ArrayList<>();
+    }
+
+    public void addRemoved(SourceFileFacts file) {
+        removed.add(file);
+    }
+
+    public void addAdded(SourceFileFacts file) {
+        added.add(file);
+    }
+
+    public List<SourceFileFacts> getRemoved() {
+        return removed;
+    }
+
+    public List<SourceFileFacts> getAdded() {
+        return added;
+    }
+
+    public boolean isEmpty() {
+        return removed.isEmpty() && added.isEmpty();
+    }
+
+    public int getChangedFileCount() {
+        List<String> paths = new ArrayList<>();
+        for (SourceFileFacts file : removed) {
+            paths.add(file.getPath());
+        }
+        for (SourceFileFacts file : added) {
+            if (!paths.contains(file.getPath())) {
+                paths.add(file.getPath());
+            }
+        }
+        return paths.size();
+    }
+
+    @Override
+    public String toString() {
+        return getChangedFileCount() + " changed file(s)";
+    }
+}
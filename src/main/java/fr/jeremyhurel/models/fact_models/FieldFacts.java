@@ -0,0 +1,55 @@
+package fr.jeremyhurel.models.fact_models;
+
+public class FieldFacts {
+
+    private final String name;
+    private final String typeName;
+    private final String typeQualifiedName;
+    private final String visibility;
+    private boolean isStatic;
+    private boolean isFinal;
+
+    public FieldFacts(String name, String typeName, String typeQualifiedName, String visibility) {
+        this.name = name;
+        this.typeName = typeName;
+        this.typeQualifiedName = typeQualifiedName;
+        this.visibility = visibility;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getTypeName() {
+        return typeName;
+    }
+
+    public String getTypeQualifiedName() {
+        return typeQualifiedName;
+    }
+
+    public String getVisibility() {
+        return visibility;
+    }
+
+    public boolean isStatic() {
+        return isStatic;
+    }
+
+    public void setStatic(boolean isStatic) {
+        this.isStatic = isStatic;
+    }
+
+    public boolean isFinal() {
+        return isFinal;
+    }
+
+    public void setFinal(boolean isFinal) {
+        this.isFinal = isFinal;
+    }
+
+    @Override
+    public String toString() {
+        return visibility + " " + typeName + " " + name;
+    }
+}
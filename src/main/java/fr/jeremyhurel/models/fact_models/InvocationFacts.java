@@ -0,0 +1,41 @@
+package fr.jeremyhurel.models.fact_models;
+
+public class InvocationFacts {
+
+    private final String declaringType;
+    private final String methodName;
+    private final String signature;
+    private final int lineNumber;
+
+    public InvocationFacts(String declaringType, String methodName, String signature, int lineNumber) {
+        this.declaringType = declaringType;
+        this.methodName = methodName;
+        this.signature = signature;
+        this.lineNumber = lineNumber;
+    }
+
+    public String getDeclaringType() {
+        return declaringType;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    public boolean isResolved() {
+        return declaringType != null;
+    }
+
+    @Override
+    public String toString() {
+        return (declaringType != null ? declaringType : "?") + "." + signature;
+    }
+}
@@ -0,0 +1,127 @@
+package fr.jeremyhurel.models.fact_models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MethodFacts {
+
+    private final String declaringType;
+    private final String name;
+    private final String signature;
+    private String returnType;
+    private String visibility;
+    private boolean isStatic;
+    private boolean isAbstract;
+    private boolean isConstructor;
+    private boolean hasBody;
+    private int linesOfCode;
+    private int lineNumber;
+    private final List<String> parameters;
+    private final List<InvocationFacts> invocations;
+
+    public MethodFacts(String declaringType, String name, String signature) {
+        this.declaringType = declaringType;
+        this.name = name;
+        this.signature = signature;
+        this.returnType = "";
+        this.parameters = new ArrayList<>();
+        this.invocations = new ArrayList<>();
+    }
+
+    public String getDeclaringType() {
+        return declaringType;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    public String getReturnType() {
+        return returnType;
+    }
+
+    public void setReturnType(String returnType) {
+        this.returnType = returnType;
+    }
+
+    public String getVisibility() {
+        return visibility;
+    }
+
+    public void setVisibility(String visibility) {
+        this.visibility = visibility;
+    }
+
+    public boolean isStatic() {
+        return isStatic;
+    }
+
+    public void setStatic(boolean isStatic) {
+        this.isStatic = isStatic;
+    }
+
+    public boolean isAbstract() {
+        return isAbstract;
+    }
+
+    public void setAbstract(boolean isAbstract) {
+        this.isAbstract = isAbstract;
+    }
+
+    public boolean isConstructor() {
+        return isConstructor;
+    }
+
+    public void setConstructor(boolean isConstructor) {
+        this.isConstructor = isConstructor;
+    }
+
+    public boolean hasBody() {
+        return hasBody;
+    }
+
+    public void setHasBody(boolean hasBody) {
+        this.hasBody = hasBody;
+    }
+
+    public int getLinesOfCode() {
+        return linesOfCode;
+    }
+
+    public void setLinesOfCode(int linesOfCode) {
+        this.linesOfCode = linesOfCode;
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    public void setLineNumber(int lineNumber) {
+        this.lineNumber = lineNumber;
+    }
+
+    public List<String> getParameters() {
+        return parameters;
+    }
+
+    public void addParameter(String parameter) {
+        parameters.add(parameter);
+    }
+
+    public List<InvocationFacts> getInvocations() {
+        return invocations;
+    }
+
+    public void addInvocation(InvocationFacts invocation) {
+        invocations.add(invocation);
+    }
+
+    @Override
+    public String toString() {
+        return declaringType + "." + signature;
+    }
+}
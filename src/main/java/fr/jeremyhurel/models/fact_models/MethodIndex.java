@@ -0,0 +1,93 @@
+package fr.jeremyhurel.models.fact_models;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class MethodIndex {
+
+    private final Map<String, TypeFacts> types;
+    private final Map<String, MethodFacts> methodsBySignature;
+    private final Map<String, List<MethodFacts>> methodsByName;
+    private final Map<MethodFacts, Set<MethodFacts>> callers;
+    private int methodCount;
+
+    public MethodIndex(Collection<TypeFacts> typeFacts) {
+        this.types = new HashMap<>();
+        this.methodsBySignature = new HashMap<>();
+        this.methodsByName = new HashMap<>();
+        this.callers = new HashMap<>();
+
+        for (TypeFacts type : typeFacts) {
+            types.put(type.getQualifiedName(), type);
+            for (MethodFacts method : type.getMethods()) {
+                methodsBySignature.put(key(method.getDeclaringType(), method.getSignature()), method);
+                methodsByName.computeIfAbsent(key(method.getDeclaringType(), method.getName()),
+                        k -> new ArrayList<>()).add(method);
+                methodCount++;
+            }
+        }
+
+        for (TypeFacts type : typeFacts) {
+            for (MethodFacts method : type.getMethods()) {
+                for (InvocationFacts invocation : method.getInvocations()) {
+                    MethodFacts callee = resolve(invocation);
+                    if (callee != null) {
+                        callers.computeIfAbsent(callee, k -> new LinkedHashSet<>()).add(method);
+                    }
+                }
+            }
+        }
+    }
+
+    public TypeFacts getType(String qualifiedName) {
+        return types.get(qualifiedName);
+    }
+
+    public MethodFacts getMethod(String typeName, String signature) {
+        return methodsBySignature.get(key(typeName, signature));
+    }
+
+    public List<MethodFacts> getMethods(String typeName, String methodName) {
+        List<MethodFacts> methods = methodsByName.get(key(typeName, methodName));
+        return methods != null ? Collections.unmodifiableList(methods) : Collections.emptyList();
+    }
+
+    // Calls bound to an inherited method name the subclass, so walk up to the declaration.
+    public MethodFacts resolve(InvocationFacts invocation) {
+        String typeName = invocation.getDeclaringType();
+        Set<String> seen = new HashSet<>();
+        while (typeName != null && seen.add(typeName)) {
+            MethodFacts declaration = getMethod(typeName, invocation.getSignature());
+            if (declaration != null) {
+                return declaration;
+            }
+            TypeFacts type = types.get(typeName);
+            typeName = type != null ? type.getSuperClass() : null;
+        }
+        return null;
+    }
+
+    public List<MethodFacts> getCallers(MethodFacts method) {
+        Set<MethodFacts> methodCallers = callers.get(method);
+        return methodCallers != null ? new ArrayList<>(methodCallers) : Collections.emptyList();
+    }
+
+    public int getTypeCount() {
+        return types.size();
+    }
+
+    public int getMethodCount() {
+        return methodCount;
+    }
+
+    private static String key(String typeName, String member) {
+        return typeName + "." + member;
+    }
+}
@@ -0,0 +1,43 @@
+package fr.jeremyhurel.models.fact_models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SourceFileFacts {
+
+    private final String path;
+    private final String contentHash;
+    private final List<TypeFacts> types;
+
+    public SourceFileFacts(String path, String contentHash) {
+        this.path = path;
+        this.contentHash = contentHash;
+        this.types = new ArrayList<>();
+    }
+
+    public SourceFileFacts(String path, String contentHash, List<TypeFacts> types) {
+        this(path, contentHash);
+        this.types.addAll(types);
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public List<TypeFacts> getTypes() {
+        return types;
+    }
+
+    public void addType(TypeFacts type) {
+        types.add(type);
+    }
+
+    @Override
+    public String toString() {
+        return path + " (" + types.size() + " types)";
+    }
+}
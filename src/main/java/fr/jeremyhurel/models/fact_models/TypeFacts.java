@@ -0,0 +1,101 @@
+package fr.jeremyhurel.models.fact_models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TypeFacts {
+
+    private final String qualifiedName;
+    private final String simpleName;
+    private final String packageName;
+    private boolean isInterface;
+    private boolean isAbstract;
+    private String superClass;
+    private final List<String> interfaces;
+    private final List<FieldFacts> fields;
+    private final List<MethodFacts> methods;
+    private final List<MethodFacts> constructors;
+
+    public TypeFacts(String qualifiedName, String simpleName, String packageName) {
+        this.qualifiedName = qualifiedName;
+        this.simpleName = simpleName;
+        this.packageName = packageName;
+        this.interfaces = new ArrayList<>();
+        this.fields = new ArrayList<>();
+        this.methods = new ArrayList<>();
+        this.constructors = new ArrayList<>();
+    }
+
+    public String getQualifiedName() {
+        return qualifiedName;
+    }
+
+    public String getSimpleName() {
+        return simpleName;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public boolean isInterface() {
+        return isInterface;
+    }
+
+    public void setInterface(boolean isInterface) {
+        this.isInterface = isInterface;
+    }
+
+    public boolean isAbstract() {
+        return isAbstract;
+    }
+
+    public void setAbstract(boolean isAbstract) {
+        this.isAbstract = isAbstract;
+    }
+
+    public String getSuperClass() {
+        return superClass;
+    }
+
+    public void setSuperClass(String superClass) {
+        this.superClass = superClass;
+    }
+
+    public List<String> getInterfaces() {
+        return interfaces;
+    }
+
+    public void addInterface(String interfaceName) {
+        interfaces.add(interfaceName);
+    }
+
+    public List<FieldFacts> getFields() {
+        return fields;
+    }
+
+    public void addField(FieldFacts field) {
+        fields.add(field);
+    }
+
+    public List<MethodFacts> getMethods() {
+        return methods;
+    }
+
+    public void addMethod(MethodFacts method) {
+        methods.add(method);
+    }
+
+    public List<MethodFacts> getConstructors() {
+        return constructors;
+    }
+
+    public void addConstructor(MethodFacts constructor) {
+        constructors.add(constructor);
+    }
+
+    @Override
+    public String toString() {
+        return qualifiedName;
+    }
+}
@@ -2,11 +2,16 @@ package fr.jeremyhurel.models.strategies;
 
 import java.util.List;
 
+import fr.jeremyhurel.models.ClusterCutIndex;
 import fr.jeremyhurel.models.ClusterTree.ClusterNode;
 
 public interface ClusteringStrategy {
 
     List<ClusterNode> cut(ClusterNode root);
 
+    default List<ClusterNode> cut(ClusterCutIndex index) {
+        return cut(index.getRoot());
+    }
+
     String getStrategyName();
 }
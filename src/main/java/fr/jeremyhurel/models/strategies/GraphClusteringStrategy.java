@@ -0,0 +1,11 @@
+package fr.jeremyhurel.models.strategies;
+
+import fr.jeremyhurel.models.CouplingGraph;
+import fr.jeremyhurel.models.ModuleGraph;
+
+public interface GraphClusteringStrategy {
+
+    ModuleGraph extractModules(CouplingGraph couplingGraph);
+
+    String getStrategyName();
+}
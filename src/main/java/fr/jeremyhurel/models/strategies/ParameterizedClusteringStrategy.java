@@ -1,8 +1,8 @@
 package fr.jeremyhurel.models.strategies;
 
-import java.util.ArrayList;
 import java.util.List;
 
+import fr.jeremyhurel.models.ClusterCutIndex;
 import fr.jeremyhurel.models.ClusterTree.ClusterNode;
 
 public class ParameterizedClusteringStrategy implements ClusteringStrategy {
@@ -55,45 +55,47 @@ public class ParameterizedClusteringStrategy implements ClusteringStrategy {
 
     @Override
     public List<ClusterNode> cut(ClusterNode root) {
+        return cut(new ClusterCutIndex(root));
+    }
+
+    @Override
+    public List<ClusterNode> cut(ClusterCutIndex index) {
         switch (mode) {
             case AUTO:
-                return cutAutomatic(root);
+                return index.hasCutScores() ? cutByModularity(index) : cutAutomatic(index);
             case FIXED_COUNT:
-                return cutFixedCount(root, targetCount);
+                return index.cutByCount(targetCount);
             case THRESHOLD:
-                return cutByThreshold(root, threshold);
+                return index.cutByThreshold(threshold);
             case COMBINED:
-                return cutCombined(root, targetCount, threshold);
+                return index.cutByCountAndThreshold(targetCount, threshold);
             default:
                 throw new IllegalStateException("Unknown mode: " + mode);
         }
     }
 
-    private List<ClusterNode> cutAutomatic(ClusterNode root) {
-        List<ClusterNode> internalNodes = new ArrayList<>();
-        collectInternalNodes(root, internalNodes);
-
-        List<ClusterNode> nonZeroNodes = new ArrayList<>();
-        for (ClusterNode node : internalNodes) {
-            if (node.getCouplingValue() > 0.00001) {
-                nonZeroNodes.add(node);
-            }
+    // Falls back to the elbow method when no cut separates any coupling.
+    private List<ClusterNode> cutByModularity(ClusterCutIndex index) {
+        int bestCount = index.getBestModularityCount();
+        if (index.getModularity(bestCount) <= 0) {
+            return cutAutomatic(index);
         }
+        return index.cutByCount(bestCount);
+    }
 
-        if (nonZeroNodes.isEmpty()) {
-            List<ClusterNode> leaves = new ArrayList<>();
-            collectLeaves(root, leaves);
-            return leaves;
-        }
+    private List<ClusterNode> cutAutomatic(ClusterCutIndex index) {
+        int nonZeroCount = index.getSignificantCouplingCount();
 
-        nonZeroNodes.sort((a, b) -> Double.compare(b.getCouplingValue(), a.getCouplingValue()));
+        if (nonZeroCount == 0) {
+            return index.getLeaves();
+        }
 
         double maxRelativeDrop = 0.0;
         int elbowIndex = -1;
 
-        for (int i = 0; i < nonZeroNodes.size() - 1; i++) {
-            double current = nonZeroNodes.get(i).getCouplingValue();
-            double next = nonZeroNodes.get(i + 1).getCouplingValue();
+        for (int i = 0; i < nonZeroCount - 1; i++) {
+            double current = index.getSignificantCoupling(i);
+            double next = index.getSignificantCoupling(i + 1);
 
             double relativeDrop = (current - next) / current;
             if (relativeDrop > maxRelativeDrop) {
@@ -104,151 +106,36 @@ public class ParameterizedClusteringStrategy implements ClusteringStrategy {
 
         double elbowThreshold;
         if (elbowIndex >= 0 && maxRelativeDrop > 0.15) {
-            elbowThreshold = nonZeroNodes.get(elbowIndex + 1).getCouplingValue();
-        } else if (nonZeroNodes.size() >= 10) {
-            int percentileIndex = (int)(nonZeroNodes.size() * 0.30);
-            elbowThreshold = nonZeroNodes.get(percentileIndex).getCouplingValue();
-        } else if (nonZeroNodes.size() >= 5) {
-            elbowThreshold = nonZeroNodes.get(nonZeroNodes.size() / 2).getCouplingValue();
+            elbowThreshold = index.getSignificantCoupling(elbowIndex + 1);
+        } else if (nonZeroCount >= 10) {
+            int percentileIndex = (int)(nonZeroCount * 0.30);
+            elbowThreshold = index.getSignificantCoupling(percentileIndex);
+        } else if (nonZeroCount >= 5) {
+            elbowThreshold = index.getSignificantCoupling(nonZeroCount / 2);
         } else {
-            elbowThreshold = nonZeroNodes.get(nonZeroNodes.size() - 1).getCouplingValue();
-        }
-
-        elbowThreshold = Math.max(elbowThreshold, 0.00001);
-
-        List<ClusterNode> clusters = new ArrayList<>();
-        collectClustersByThreshold(root, elbowThreshold, clusters);
-
-        int totalLeaves = countLeaves(root);
-        if (clusters.size() < Math.max(3, totalLeaves / 15) && nonZeroNodes.size() > 3) {
-            int lowerIndex = Math.min((int)(nonZeroNodes.size() * 0.60), nonZeroNodes.size() - 1);
-            elbowThreshold = nonZeroNodes.get(lowerIndex).getCouplingValue();
-            elbowThreshold = Math.max(elbowThreshold, 0.00001);
-            clusters.clear();
-            collectClustersByThreshold(root, elbowThreshold, clusters);
-        }
-
-        return clusters;
-    }
-
-    private List<ClusterNode> cutFixedCount(ClusterNode root, int targetCount) {
-        List<ClusterNode> clusters = new ArrayList<>();
-        clusters.add(root);
-
-        while (clusters.size() < targetCount) {
-
-            ClusterNode minCluster = null;
-            double minCoupling = Double.MAX_VALUE;
-
-            for (ClusterNode cluster : clusters) {
-                if (!cluster.isLeaf() && cluster.getCouplingValue() < minCoupling) {
-                    minCoupling = cluster.getCouplingValue();
-                    minCluster = cluster;
-                }
-            }
-
-            if (minCluster == null) {
-                break;
-            }
-
-            clusters.remove(minCluster);
-            clusters.add(minCluster.getLeft());
-            clusters.add(minCluster.getRight());
+            elbowThreshold = index.getSignificantCoupling(nonZeroCount - 1);
         }
 
-        return clusters;
-    }
-
-    private List<ClusterNode> cutByThreshold(ClusterNode root, double threshold) {
-        List<ClusterNode> clusters = new ArrayList<>();
-        collectClustersByThreshold(root, threshold, clusters);
-        return clusters;
-    }
-
-    private List<ClusterNode> cutCombined(ClusterNode root, int targetCount, double threshold) {
-        List<ClusterNode> clusters = new ArrayList<>();
-        clusters.add(root);
+        elbowThreshold = Math.max(elbowThreshold, ClusterCutIndex.SIGNIFICANT_COUPLING);
 
-        while (clusters.size() < targetCount) {
-            ClusterNode minCluster = null;
-            double minCoupling = Double.MAX_VALUE;
-
-            for (ClusterNode cluster : clusters) {
-                if (!cluster.isLeaf() && cluster.getCouplingValue() < minCoupling) {
-                    minCoupling = cluster.getCouplingValue();
-                    minCluster = cluster;
-                }
-            }
+        List<ClusterNode> clusters = index.cutByThreshold(elbowThreshold);
 
-            if (minCluster == null || minCluster.getCouplingValue() >= threshold) {
-                break;
-            }
-
-            clusters.remove(minCluster);
-            clusters.add(minCluster.getLeft());
-            clusters.add(minCluster.getRight());
+        int totalLeaves = index.getLeafCount();
+        if (clusters.size() < Math.max(3, totalLeaves / 15) && nonZeroCount > 3) {
+            int lowerIndex = Math.min((int)(nonZeroCount * 0.60), nonZeroCount - 1);
+            elbowThreshold = index.getSignificantCoupling(lowerIndex);
+            elbowThreshold = Math.max(elbowThreshold, ClusterCutIndex.SIGNIFICANT_COUPLING);
+            clusters = index.cutByThreshold(elbowThreshold);
         }
 
         return clusters;
     }
 
-    private int countLeaves(ClusterNode node) {
-        if (node == null) {
-            return 0;
-        }
-        if (node.isLeaf()) {
-            return 1;
-        }
-        return countLeaves(node.getLeft()) + countLeaves(node.getRight());
-    }
-
-    private void collectInternalNodes(ClusterNode node, List<ClusterNode> result) {
-        if (node == null || node.isLeaf()) {
-            return;
-        }
-
-        result.add(node);
-        collectInternalNodes(node.getLeft(), result);
-        collectInternalNodes(node.getRight(), result);
-    }
-
-    private void collectLeaves(ClusterNode node, List<ClusterNode> result) {
-        if (node == null) {
-            return;
-        }
-
-        if (node.isLeaf()) {
-            result.add(node);
-        } else {
-            collectLeaves(node.getLeft(), result);
-            collectLeaves(node.getRight(), result);
-        }
-    }
-
-    private void collectClustersByThreshold(ClusterNode node, double threshold,
-                                            List<ClusterNode> clusters) {
-        if (node == null) {
-            return;
-        }
-
-        if (node.isLeaf()) {
-            clusters.add(node);
-            return;
-        }
-
-        if (node.getCouplingValue() < threshold) {
-            collectClustersByThreshold(node.getLeft(), threshold, clusters);
-            collectClustersByThreshold(node.getRight(), threshold, clusters);
-        } else {
-            clusters.add(node);
-        }
-    }
-
     @Override
     public String getStrategyName() {
         switch (mode) {
             case AUTO:
-                return "Automatic (Elbow Method)";
+                return "Automatic (Best Modularity)";
             case FIXED_COUNT:
                 return "Fixed Count (" + targetCount + " modules)";
             case THRESHOLD:
@@ -0,0 +1,493 @@
+package fr.jeremyhurel.processors;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import fr.jeremyhurel.constants.AppConstants;
+import fr.jeremyhurel.models.fact_models.FactDelta;
+import fr.jeremyhurel.models.fact_models.MethodIndex;
+import fr.jeremyhurel.models.fact_models.InvocationFacts;
+import fr.jeremyhurel.models.fact_models.MethodFacts;
+import fr.jeremyhurel.models.fact_models.SourceFileFacts;
+import fr.jeremyhurel.models.fact_models.TypeFacts;
+import fr.jeremyhurel.scanners.FactExtractionScanner;
+import fr.jeremyhurel.utils.FactCache;
+import spoon.Launcher;
+import spoon.reflect.CtModel;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.factory.Factory;
+
+public class AnalysisSession {
+
+    private static final Map<String, AnalysisSession> SESSIONS = new ConcurrentHashMap<>();
+    private static final int SHARDS_PER_THREAD = 2;
+
+    private final String projectPath;
+    private Launcher launcher;
+    private CtModel model;
+    private long lastBuildTimeMillis;
+    private final FactCache factCache;
+    private Map<String, SourceFileFacts> sourceFiles;
+    private MethodIndex methodIndex;
+    private long lastFactLoadTimeMillis;
+    private int parseThreads;
+
+    public AnalysisSession(String projectPath) {
+        this(projectPath, new FactCache());
+    }
+
+    public AnalysisSession(String projectPath, FactCache factCache) {
+        this.projectPath = projectPath;
+        this.factCache = factCache;
+        this.parseThreads = Math.max(1,
+                Integer.getInteger(AppConstants.PARSE_THREADS_PROPERTY, AppConstants.DEFAULT_PARSE_THREADS));
+    }
+
+    public static AnalysisSession forProject(String projectPath) {
+        return SESSIONS.computeIfAbsent(normalize(projectPath), AnalysisSession::new);
+    }
+
+    public static void invalidateAll() {
+        for (AnalysisSession session : SESSIONS.values()) {
+            session.invalidate();
+        }
+        SESSIONS.clear();
+    }
+
+    public static List<AnalysisSession> getOpenSessions() {
+        return new ArrayList<>(SESSIONS.values());
+    }
+
+    private static String normalize(String projectPath) {
+        Path path = Paths.get(projectPath).toAbsolutePath().normalize();
+        return path.toString();
+    }
+
+    public synchronized CtModel getModel() {
+        if (model == null) {
+            long start = System.currentTimeMillis();
+            launcher = createLauncher();
+            model = launcher.buildModel();
+            lastBuildTimeMillis = System.currentTimeMillis() - start;
+        }
+        return model;
+    }
+
+    public synchronized Factory getFactory() {
+        getModel();
+        return launcher.getFactory();
+    }
+
+    public synchronized List<SourceFileFacts> getSourceFileFacts() {
+        if (sourceFiles == null) {
+            long start = System.currentTimeMillis();
+            sourceFiles = new LinkedHashMap<>();
+            for (SourceFileFacts facts : loadSourceFileFacts()) {
+                sourceFiles.put(facts.getPath(), facts);
+            }
+            lastFactLoadTimeMillis = System.currentTimeMillis() - start;
+        }
+        return new ArrayList<>(sourceFiles.values());
+    }
+
+    public synchronized List<TypeFacts> getTypeFacts() {
+        List<TypeFacts> types = new ArrayList<>();
+        for (SourceFileFacts file : getSourceFileFacts()) {
+            types.addAll(file.getTypes());
+        }
+        return types;
+    }
+
+    public synchronized MethodIndex getMethodIndex() {
+        if (methodIndex == null) {
+            methodIndex = new MethodIndex(getTypeFacts());
+        }
+        return methodIndex;
+    }
+
+    private List<SourceFileFacts> loadSourceFileFacts() {
+        factCache.resetStatistics();
+        Map<String, String> hashes = hashSourceFiles();
+
+        List<SourceFileFacts> cached = new ArrayList<>();
+        for (Map.Entry<String, String> entry : hashes.entrySet()) {
+            SourceFileFacts facts = factCache.load(entry.getKey(), entry.getValue());
+            if (facts != null) {
+                cached.add(facts);
+            }
+        }
+
+        if (cached.size() == hashes.size()) {
+            return cached;
+        }
+
+        // Invocation targets are resolved against the whole source tree, so any
+        // miss re-extracts every file from a fresh model rather than mixing
+        // cached facts with ones resolved in a different context.
+        List<SourceFileFacts> extracted = parseThreads > 1
+                ? extractSourceFileFactsInShards(hashes)
+                : extractSourceFileFacts(hashes);
+        for (SourceFileFacts facts : extracted) {
+            factCache.store(facts);
+        }
+        return extracted;
+    }
+
+    private List<SourceFileFacts> extractSourceFileFacts(Map<String, String> hashes) {
+        return collectSourceFileFacts(getModel(), hashes);
+    }
+
+    // Shards are whole package directories, so same-package references still
+    // resolve inside a shard. References to other packages resolve through
+    // their imports as in any noclasspath build, but members inherited from a
+    // class in another shard are invisible to JDT: those implicit calls are
+    // bound afterwards through the superclass chain of the merged facts.
+    private List<SourceFileFacts> extractSourceFileFactsInShards(Map<String, String> hashes) {
+        List<List<String>> shards = createShards(hashes.keySet());
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(parseThreads, shards.size())));
+
+        try {
+            List<Future<List<SourceFileFacts>>> futures = new ArrayList<>();
+            for (List<String> shard : shards) {
+                futures.add(pool.submit(() -> parseSources(shard, hashes)));
+            }
+
+            Map<String, SourceFileFacts> byPath = new HashMap<>();
+            for (Future<List<SourceFileFacts>> future : futures) {
+                for (SourceFileFacts facts : future.get()) {
+                    byPath.put(facts.getPath(), facts);
+                }
+            }
+
+            List<SourceFileFacts> extracted = new ArrayList<>();
+            for (String path : hashes.keySet()) {
+                extracted.add(byPath.get(path));
+            }
+
+            Map<String, TypeFacts> typeIndex = buildTypeIndex(extracted);
+            for (SourceFileFacts facts : extracted) {
+                resolveInheritedInvocations(facts, typeIndex);
+            }
+            return extracted;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while parsing " + projectPath, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not parse " + projectPath + ": " + e.getCause().getMessage(),
+                    e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private List<List<String>> createShards(Collection<String> paths) {
+        Map<String, List<String>> byDirectory = new LinkedHashMap<>();
+        for (String path : paths) {
+            Path parent = Paths.get(path).getParent();
+            byDirectory.computeIfAbsent(String.valueOf(parent), key -> new ArrayList<>()).add(path);
+        }
+
+        List<List<String>> directories = new ArrayList<>(byDirectory.values());
+        directories.sort((a, b) -> Integer.compare(b.size(), a.size()));
+
+        int shardCount = Math.min(directories.size(), parseThreads * SHARDS_PER_THREAD);
+        List<List<String>> shards = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new ArrayList<>());
+        }
+
+        for (List<String> directory : directories) {
+            List<String> smallest = shards.get(0);
+            for (List<String> shard : shards) {
+                if (shard.size() < smallest.size()) {
+                    smallest = shard;
+                }
+            }
+            smallest.addAll(directory);
+        }
+        return shards;
+    }
+
+    private List<SourceFileFacts> parseSources(List<String> paths, Map<String, String> hashes) {
+        Launcher shardLauncher = new Launcher();
+        for (String path : paths) {
+            shardLauncher.addInputResource(path);
+        }
+        configureLauncher(shardLauncher);
+
+        Map<String, String> shardHashes = new LinkedHashMap<>();
+        for (String path : paths) {
+            shardHashes.put(path, hashes.get(path));
+        }
+        return collectSourceFileFacts(shardLauncher.buildModel(), shardHashes);
+    }
+
+    private List<SourceFileFacts> collectSourceFileFacts(CtModel sourceModel, Map<String, String> hashes) {
+        Map<String, SourceFileFacts> byPath = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : hashes.entrySet()) {
+            byPath.put(entry.getKey(), new SourceFileFacts(entry.getKey(), entry.getValue()));
+        }
+
+        for (CtType<?> type : sourceModel.getAllTypes()) {
+            File file = type.getPosition() != null ? type.getPosition().getFile() : null;
+            SourceFileFacts facts = file != null ? byPath.get(canonicalPath(file.toPath())) : null;
+            if (facts != null) {
+                facts.addType(FactExtractionScanner.extractType(type));
+            }
+        }
+
+        return new ArrayList<>(byPath.values());
+    }
+
+    private static Map<String, TypeFacts> buildTypeIndex(Collection<SourceFileFacts> files) {
+        Map<String, TypeFacts> typeIndex = new HashMap<>();
+        for (SourceFileFacts file : files) {
+            for (TypeFacts type : file.getTypes()) {
+                typeIndex.put(type.getQualifiedName(), type);
+            }
+        }
+        return typeIndex;
+    }
+
+    public synchronized FactDelta refresh(Collection<Path> changedPaths) {
+        getSourceFileFacts();
+        FactDelta delta = new FactDelta();
+
+        Set<String> candidates = new LinkedHashSet<>();
+        for (Path changed : changedPaths) {
+            String path = canonicalPath(changed);
+            if (isSourceFile(changed)) {
+                candidates.add(path);
+                continue;
+            }
+
+            if (Files.isDirectory(changed)) {
+                for (Path sourceFile : listSourceFiles(changed)) {
+                    candidates.add(canonicalPath(sourceFile));
+                }
+            }
+            String prefix = path + File.separator;
+            for (String known : sourceFiles.keySet()) {
+                if (known.startsWith(prefix)) {
+                    candidates.add(known);
+                }
+            }
+        }
+
+        List<SourceFileFacts> parsed = new ArrayList<>();
+        for (String path : candidates) {
+            refreshSourceFile(path, delta, parsed);
+        }
+
+        if (!parsed.isEmpty()) {
+            Map<String, TypeFacts> typeIndex = buildTypeIndex(sourceFiles.values());
+            for (SourceFileFacts facts : parsed) {
+                resolveInheritedInvocations(facts, typeIndex);
+                factCache.store(facts);
+            }
+        }
+
+        if (!delta.isEmpty()) {
+            launcher = null;
+            model = null;
+            methodIndex = null;
+        }
+        return delta;
+    }
+
+    private void refreshSourceFile(String path, FactDelta delta, List<SourceFileFacts> parsed) {
+        Path file = Paths.get(path);
+        SourceFileFacts previous = sourceFiles.get(path);
+
+        if (!Files.isRegularFile(file)) {
+            if (previous != null) {
+                sourceFiles.remove(path);
+                delta.addRemoved(previous);
+            }
+            return;
+        }
+
+        String hash;
+        try {
+            hash = FactCache.hash(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + path, e);
+        }
+
+        if (previous != null && previous.getContentHash().equals(hash)) {
+            return;
+        }
+
+        SourceFileFacts current = factCache.load(path, hash);
+        if (current == null) {
+            current = parseSources(List.of(path), Map.of(path, hash)).get(0);
+            parsed.add(current);
+        }
+
+        if (previous != null) {
+            delta.addRemoved(previous);
+        }
+        sourceFiles.put(path, current);
+        delta.addAdded(current);
+    }
+
+    private void resolveInheritedInvocations(SourceFileFacts facts, Map<String, TypeFacts> typeIndex) {
+        for (TypeFacts type : facts.getTypes()) {
+            List<MethodFacts> executables = new ArrayList<>(type.getMethods());
+            executables.addAll(type.getConstructors());
+
+            for (MethodFacts method : executables) {
+                List<InvocationFacts> invocations = method.getInvocations();
+                for (int i = 0; i < invocations.size(); i++) {
+                    InvocationFacts invocation = invocations.get(i);
+                    if (invocation.isResolved()) {
+                        continue;
+                    }
+
+                    String declaringType = findInheritedDeclaringType(type, invocation.getSignature(), typeIndex);
+                    if (declaringType != null) {
+                        invocations.set(i, new InvocationFacts(declaringType, invocation.getMethodName(),
+                                invocation.getSignature(), invocation.getLineNumber()));
+                    }
+                }
+            }
+        }
+    }
+
+    private String findInheritedDeclaringType(TypeFacts type, String signature, Map<String, TypeFacts> typeIndex) {
+        Set<String> visited = new HashSet<>();
+        String current = type.getSuperClass();
+
+        while (current != null && visited.add(current)) {
+            TypeFacts superType = typeIndex.get(current);
+            if (superType == null) {
+                return null;
+            }
+            for (MethodFacts method : superType.getMethods()) {
+                if (method.getSignature().equals(signature)) {
+                    return current;
+                }
+            }
+            current = superType.getSuperClass();
+        }
+        return null;
+    }
+
+    private Map<String, String> hashSourceFiles() {
+        Map<String, String> hashes = new LinkedHashMap<>();
+        try {
+            for (Path sourceFile : listSourceFiles(Paths.get(projectPath))) {
+                hashes.put(canonicalPath(sourceFile), FactCache.hash(sourceFile));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read sources under " + projectPath, e);
+        }
+        return hashes;
+    }
+
+    private static List<Path> listSourceFiles(Path root) {
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths
+                    .filter(AnalysisSession::isSourceFile)
+                    .filter(Files::isRegularFile)
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list sources under " + root, e);
+        }
+    }
+
+    private static boolean isSourceFile(Path path) {
+        return path.getFileName() != null
+                && path.getFileName().toString().endsWith(AppConstants.JAVA_EXTENSION);
+    }
+
+    private static String canonicalPath(Path path) {
+        try {
+            return path.toRealPath().toString();
+        } catch (IOException e) {
+            Path absolute = path.toAbsolutePath().normalize();
+            Path parent = absolute.getParent();
+            if (parent != null && Files.isDirectory(parent)) {
+                return canonicalPath(parent) + File.separator + absolute.getFileName();
+            }
+            return absolute.toString();
+        }
+    }
+
+    public synchronized void invalidate() {
+        launcher = null;
+        model = null;
+        sourceFiles = null;
+        methodIndex = null;
+    }
+
+    public synchronized boolean isModelBuilt() {
+        return model != null;
+    }
+
+    protected Launcher createLauncher() {
+        Launcher newLauncher = new Launcher();
+        newLauncher.addInputResource(projectPath);
+        configureLauncher(newLauncher);
+        return newLauncher;
+    }
+
+    protected void configureLauncher(Launcher newLauncher) {
+        newLauncher.getEnvironment().setAutoImports(true);
+        newLauncher.getEnvironment().setCommentEnabled(false);
+        newLauncher.getEnvironment().setNoClasspath(true);
+    }
+
+    public String getProjectPath() {
+        return projectPath;
+    }
+
+    public long getLastBuildTimeMillis() {
+        return lastBuildTimeMillis;
+    }
+
+    public FactCache getFactCache() {
+        return factCache;
+    }
+
+    public synchronized int getParseThreads() {
+        return parseThreads;
+    }
+
+    public synchronized void setParseThreads(int parseThreads) {
+        this.parseThreads = Math.max(1, parseThreads);
+    }
+
+    public long getLastFactLoadTimeMillis() {
+        return lastFactLoadTimeMillis;
+    }
+
+    public synchronized String getFactCacheSummary() {
+        if (sourceFiles == null) {
+            return "Source facts not loaded";
+        }
+        return String.format("%d source files: %d cache hits, %d misses, loaded in %d ms",
+                sourceFiles.size(), factCache.getHits(), factCache.getMisses(), lastFactLoadTimeMillis);
+    }
+}
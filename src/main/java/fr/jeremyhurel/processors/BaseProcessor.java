@@ -1,31 +1,39 @@
 package fr.jeremyhurel.processors;
 
-import spoon.Launcher;
+import java.util.List;
+
+import fr.jeremyhurel.models.fact_models.MethodIndex;
+import fr.jeremyhurel.models.fact_models.TypeFacts;
 import spoon.reflect.CtModel;
 
 public abstract class BaseProcessor {
 
     protected final String projectPath;
+    protected final AnalysisSession session;
 
     protected BaseProcessor(String projectPath) {
-        this.projectPath = projectPath;
+        this(AnalysisSession.forProject(projectPath));
+    }
+
+    protected BaseProcessor(AnalysisSession session) {
+        this.session = session;
+        this.projectPath = session.getProjectPath();
+    }
+
+    protected CtModel getModel() {
+        return session.getModel();
     }
 
-    protected Launcher createLauncher() {
-        Launcher launcher = new Launcher();
-        launcher.addInputResource(projectPath);
-        configureLauncher(launcher);
-        return launcher;
+    protected List<TypeFacts> getTypeFacts() {
+        return session.getTypeFacts();
     }
 
-    protected void configureLauncher(Launcher launcher) {
-        launcher.getEnvironment().setAutoImports(true);
-        launcher.getEnvironment().setCommentEnabled(false);
-        launcher.getEnvironment().setNoClasspath(true);
+    protected MethodIndex getMethodIndex() {
+        return session.getMethodIndex();
     }
 
-    protected CtModel buildModel(Launcher launcher) {
-        return launcher.buildModel();
+    public AnalysisSession getSession() {
+        return session;
     }
 
     public String getProjectPath() {
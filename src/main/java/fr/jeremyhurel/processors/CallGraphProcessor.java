@@ -1,14 +1,28 @@
 package fr.jeremyhurel.processors;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import fr.jeremyhurel.models.CallGraph;
+import fr.jeremyhurel.models.fact_models.InvocationFacts;
+import fr.jeremyhurel.models.fact_models.MethodFacts;
+import fr.jeremyhurel.models.fact_models.MethodIndex;
 import fr.jeremyhurel.scanners.MethodCallScanner;
-import spoon.Launcher;
-import spoon.reflect.CtModel;
 
 public class CallGraphProcessor extends BaseProcessor {
 
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
     private String rootClassName;
     private String rootMethodName;
+    private int maxDepth = UNLIMITED;
+    private int maxNodes = UNLIMITED;
+    private boolean truncated;
 
     public CallGraphProcessor(String projectPath) {
         super(projectPath);
@@ -20,27 +34,85 @@ public class CallGraphProcessor extends BaseProcessor {
         this.rootMethodName = rootMethodName;
     }
 
+    public CallGraphProcessor(AnalysisSession session) {
+        super(session);
+    }
+
+    public CallGraphProcessor(AnalysisSession session, String rootClassName, String rootMethodName) {
+        super(session);
+        this.rootClassName = rootClassName;
+        this.rootMethodName = rootMethodName;
+    }
+
     public CallGraph generateCallGraph() {
-        CallGraph callGraph = new CallGraph();
+        truncated = false;
+        if (rootClassName != null && rootMethodName != null) {
+            return generateReachableCallGraph();
+        }
 
-        Launcher launcher = createLauncher();
-        CtModel model = buildModel(launcher);
+        CallGraph callGraph = new CallGraph();
 
-        MethodCallScanner scanner = createScanner(callGraph);
+        MethodCallScanner scanner = new MethodCallScanner(callGraph);
 
-        scanner.setFactory(launcher.getFactory());
-        model.getAllTypes().forEach(type -> {
+        getTypeFacts().forEach(type -> {
             type.getMethods().forEach(scanner::process);
         });
 
         return callGraph;
     }
 
-    private MethodCallScanner createScanner(CallGraph callGraph) {
-        if (rootClassName != null && rootMethodName != null) {
-            return new MethodCallScanner(callGraph, rootClassName, rootMethodName);
+    // Breadth-first from the root overloads; only reachable methods are scanned.
+    private CallGraph generateReachableCallGraph() {
+        CallGraph callGraph = new CallGraph();
+        MethodCallScanner scanner = new MethodCallScanner(callGraph);
+        MethodIndex index = getMethodIndex();
+
+        List<MethodFacts> roots = index.getMethods(rootClassName, rootMethodName);
+        Deque<MethodFacts> worklist = new ArrayDeque<>(roots);
+        Map<MethodFacts, Integer> depths = new HashMap<>();
+        Set<MethodFacts> visited = new HashSet<>(roots);
+        roots.forEach(root -> depths.put(root, 0));
+
+        while (!worklist.isEmpty()) {
+            MethodFacts method = worklist.poll();
+            int depth = depths.get(method);
+            if (depth >= maxDepth || callGraph.getNodeCount() >= maxNodes) {
+                truncated |= !method.getInvocations().isEmpty();
+                continue;
+            }
+
+            scanner.process(method);
+
+            for (InvocationFacts invocation : method.getInvocations()) {
+                MethodFacts callee = index.resolve(invocation);
+                if (callee != null && visited.add(callee)) {
+                    depths.put(callee, depth + 1);
+                    worklist.add(callee);
+                }
+            }
         }
-        return new MethodCallScanner(callGraph);
+
+        return callGraph;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    public int getMaxNodes() {
+        return maxNodes;
+    }
+
+    public void setMaxNodes(int maxNodes) {
+        this.maxNodes = maxNodes;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
     }
 
     public String getRootClassName() {
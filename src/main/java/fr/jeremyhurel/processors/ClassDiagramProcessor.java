@@ -2,8 +2,6 @@ package fr.jeremyhurel.processors;
 
 import fr.jeremyhurel.models.class_models.ClassDiagram;
 import fr.jeremyhurel.scanners.ClassDiagramScanner;
-import spoon.Launcher;
-import spoon.reflect.CtModel;
 
 public class ClassDiagramProcessor extends BaseProcessor {
 
@@ -18,16 +16,21 @@ public class ClassDiagramProcessor extends BaseProcessor {
         this.rootPackage = rootPackage;
     }
 
+    public ClassDiagramProcessor(AnalysisSession session) {
+        super(session);
+    }
+
+    public ClassDiagramProcessor(AnalysisSession session, String rootPackage) {
+        super(session);
+        this.rootPackage = rootPackage;
+    }
+
     public ClassDiagram generateClassDiagram() {
         ClassDiagram classDiagram = new ClassDiagram();
 
-        Launcher launcher = createLauncher();
-        CtModel model = buildModel(launcher);
-
         ClassDiagramScanner scanner = createScanner(classDiagram);
 
-        scanner.setFactory(launcher.getFactory());
-        model.getAllTypes().forEach(scanner::process);
+        getTypeFacts().forEach(scanner::process);
 
         return classDiagram;
     }
@@ -3,8 +3,6 @@ package fr.jeremyhurel.processors;
 import fr.jeremyhurel.models.ClusterTree;
 import fr.jeremyhurel.models.CouplingGraph;
 import fr.jeremyhurel.scanners.CouplingGraphScanner;
-import spoon.Launcher;
-import spoon.reflect.CtModel;
 
 public class CouplingGraphProcessor extends BaseProcessor {
 
@@ -19,16 +17,21 @@ public class CouplingGraphProcessor extends BaseProcessor {
         this.rootPackage = rootPackage;
     }
 
+    public CouplingGraphProcessor(AnalysisSession session) {
+        super(session);
+    }
+
+    public CouplingGraphProcessor(AnalysisSession session, String rootPackage) {
+        super(session);
+        this.rootPackage = rootPackage;
+    }
+
     public CouplingGraph generateCouplingGraph() {
         CouplingGraph couplingGraph = new CouplingGraph();
 
-        Launcher launcher = createLauncher();
-        CtModel model = buildModel(launcher);
-
         CouplingGraphScanner scanner = createScanner(couplingGraph);
 
-        scanner.setFactory(launcher.getFactory());
-        model.getAllTypes().forEach(scanner::process);
+        getTypeFacts().forEach(scanner::process);
 
         couplingGraph.removeOrphanedNodes();
         couplingGraph.calculateNormalizedCoupling();
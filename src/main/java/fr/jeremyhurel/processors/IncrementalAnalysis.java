@@ -0,0 +1,148 @@
+package fr.jeremyhurel.processors;
+
+import java.nio.file.Path;
+import java.util.Collection;
+
+import fr.jeremyhurel.constants.AppConstants;
+import fr.jeremyhurel.models.CallGraph;
+import fr.jeremyhurel.models.CouplingGraph;
+import fr.jeremyhurel.models.ProjectStatistics;
+import fr.jeremyhurel.models.class_models.ClassDiagram;
+import fr.jeremyhurel.models.fact_models.FactDelta;
+import fr.jeremyhurel.models.fact_models.SourceFileFacts;
+import fr.jeremyhurel.models.fact_models.TypeFacts;
+import fr.jeremyhurel.scanners.ClassDiagramScanner;
+import fr.jeremyhurel.scanners.CompositeTypeScanner;
+import fr.jeremyhurel.scanners.CouplingGraphScanner;
+import fr.jeremyhurel.scanners.MethodCallScanner;
+import fr.jeremyhurel.scanners.StatisticsScanner;
+
+public class IncrementalAnalysis {
+
+    private final AnalysisSession session;
+    private final String rootPackage;
+
+    private CouplingGraph couplingGraph;
+    private CallGraph callGraph;
+    private ClassDiagram classDiagram;
+    private StatisticsScanner statisticsScanner;
+    private CompositeTypeScanner scanner;
+
+    private long lastUpdateTimeMillis;
+    private int updateCount;
+
+    public IncrementalAnalysis(String projectPath) {
+        this(AnalysisSession.forProject(projectPath), null);
+    }
+
+    public IncrementalAnalysis(String projectPath, String rootPackage) {
+        this(AnalysisSession.forProject(projectPath), rootPackage);
+    }
+
+    public IncrementalAnalysis(AnalysisSession session, String rootPackage) {
+        this.session = session;
+        this.rootPackage = rootPackage;
+    }
+
+    public synchronized void initialize() {
+        long start = System.currentTimeMillis();
+
+        couplingGraph = new CouplingGraph();
+        callGraph = new CallGraph();
+        classDiagram = new ClassDiagram();
+        statisticsScanner = new StatisticsScanner();
+
+        scanner = new CompositeTypeScanner();
+        if (rootPackage != null) {
+            classDiagram.setRootPackage(rootPackage);
+            scanner.addSink(new CouplingGraphScanner(couplingGraph, rootPackage));
+            scanner.addSink(new ClassDiagramScanner(classDiagram, rootPackage));
+        } else {
+            scanner.addSink(new CouplingGraphScanner(couplingGraph));
+            scanner.addSink(new ClassDiagramScanner(classDiagram));
+        }
+        scanner.addSink(statisticsScanner);
+        scanner.addSink(new MethodCallScanner(callGraph));
+
+        for (TypeFacts type : session.getTypeFacts()) {
+            scanner.process(type);
+        }
+        finishUpdate();
+
+        lastUpdateTimeMillis = System.currentTimeMillis() - start;
+    }
+
+    public synchronized FactDelta refresh(Collection<Path> changedPaths) {
+        if (couplingGraph == null) {
+            initialize();
+        }
+
+        long start = System.currentTimeMillis();
+        FactDelta delta = session.refresh(changedPaths);
+        apply(delta);
+        lastUpdateTimeMillis = System.currentTimeMillis() - start;
+        return delta;
+    }
+
+    private void apply(FactDelta delta) {
+        if (delta.isEmpty()) {
+            return;
+        }
+
+        for (SourceFileFacts file : delta.getRemoved()) {
+            for (TypeFacts type : file.getTypes()) {
+                scanner.retract(type);
+            }
+        }
+
+        for (SourceFileFacts file : delta.getAdded()) {
+            for (TypeFacts type : file.getTypes()) {
+                scanner.process(type);
+            }
+        }
+
+        finishUpdate();
+        updateCount++;
+    }
+
+    private void finishUpdate() {
+        couplingGraph.removeOrphanedNodes();
+        couplingGraph.calculateNormalizedCoupling();
+    }
+
+    public synchronized CouplingGraph getCouplingGraph() {
+        return couplingGraph;
+    }
+
+    public synchronized CallGraph getCallGraph() {
+        return callGraph;
+    }
+
+    public synchronized ClassDiagram getClassDiagram() {
+        return classDiagram;
+    }
+
+    public synchronized ProjectStatistics getStatistics() {
+        return getStatistics(AppConstants.DEFAULT_METHOD_THRESHOLD);
+    }
+
+    public synchronized ProjectStatistics getStatistics(int methodThreshold) {
+        return StatisticsProcessor.calculateStatistics(statisticsScanner, methodThreshold);
+    }
+
+    public AnalysisSession getSession() {
+        return session;
+    }
+
+    public String getRootPackage() {
+        return rootPackage;
+    }
+
+    public synchronized long getLastUpdateTimeMillis() {
+        return lastUpdateTimeMillis;
+    }
+
+    public synchronized int getUpdateCount() {
+        return updateCount;
+    }
+}
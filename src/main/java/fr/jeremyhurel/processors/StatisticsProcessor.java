@@ -10,8 +10,6 @@ import fr.jeremyhurel.models.MethodStats;
 import fr.jeremyhurel.models.ProjectStatistics;
 import fr.jeremyhurel.models.class_models.ClassStats;
 import fr.jeremyhurel.scanners.StatisticsScanner;
-import spoon.Launcher;
-import spoon.reflect.CtModel;
 
 public class StatisticsProcessor extends BaseProcessor {
 
@@ -19,23 +17,23 @@ public class StatisticsProcessor extends BaseProcessor {
         super(projectPath);
     }
 
+    public StatisticsProcessor(AnalysisSession session) {
+        super(session);
+    }
+
     public ProjectStatistics generateStatistics() {
         return generateStatistics(AppConstants.DEFAULT_METHOD_THRESHOLD);
     }
 
     public ProjectStatistics generateStatistics(int methodThreshold) {
 
-        Launcher launcher = createLauncher();
-        CtModel model = buildModel(launcher);
-
         StatisticsScanner scanner = new StatisticsScanner();
-        scanner.setFactory(launcher.getFactory());
-        model.getAllTypes().forEach(scanner::process);
+        getTypeFacts().forEach(scanner::process);
 
         return calculateStatistics(scanner, methodThreshold);
     }
 
-    private ProjectStatistics calculateStatistics(StatisticsScanner scanner, int methodThreshold) {
+    public static ProjectStatistics calculateStatistics(StatisticsScanner scanner, int methodThreshold) {
         ProjectStatistics stats = new ProjectStatistics();
 
         Map<String, ClassStats> classStatsMap = scanner.getClassStatsMap();
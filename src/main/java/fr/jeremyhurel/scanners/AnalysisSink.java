@@ -0,0 +1,10 @@
+package fr.jeremyhurel.scanners;
+
+import fr.jeremyhurel.models.fact_models.TypeFacts;
+
+public interface AnalysisSink {
+
+    void process(TypeFacts type);
+
+    void retract(TypeFacts type);
+}
@@ -1,23 +1,17 @@
 package fr.jeremyhurel.scanners;
 
-import java.util.Set;
-
 import fr.jeremyhurel.models.class_models.ClassAttr;
 import fr.jeremyhurel.models.class_models.ClassDiagram;
 import fr.jeremyhurel.models.class_models.ClassDiagramNode;
 import fr.jeremyhurel.models.class_models.ClassMethod;
 import fr.jeremyhurel.models.class_models.ClassRelationship;
+import fr.jeremyhurel.models.fact_models.FieldFacts;
+import fr.jeremyhurel.models.fact_models.MethodFacts;
+import fr.jeremyhurel.models.fact_models.TypeFacts;
 import spoon.processing.AbstractProcessor;
-import spoon.reflect.declaration.CtClass;
-import spoon.reflect.declaration.CtConstructor;
-import spoon.reflect.declaration.CtField;
-import spoon.reflect.declaration.CtMethod;
-import spoon.reflect.declaration.CtParameter;
 import spoon.reflect.declaration.CtType;
-import spoon.reflect.declaration.ModifierKind;
-import spoon.reflect.reference.CtTypeReference;
 
-public class ClassDiagramScanner extends AbstractProcessor<CtType<?>> {
+public class ClassDiagramScanner extends AbstractProcessor<CtType<?>> implements AnalysisSink {
 
     private ClassDiagram classDiagram;
     private String rootPackage;
@@ -33,21 +27,26 @@ public class ClassDiagramScanner extends AbstractProcessor<CtType<?>> {
 
     @Override
     public void process(CtType<?> type) {
+        process(FactExtractionScanner.extractType(type));
+    }
+
+    @Override
+    public void process(TypeFacts type) {
 
-        if (rootPackage != null && !type.getPackage().getQualifiedName().startsWith(rootPackage)) {
+        if (rootPackage != null && !type.getPackageName().startsWith(rootPackage)) {
             return;
         }
 
         String className = type.getSimpleName();
-        String packageName = type.getPackage().getQualifiedName();
+        String packageName = type.getPackageName();
 
         ClassDiagramNode classNode = classDiagram.getOrCreateClass(className, packageName);
 
         classNode.setInterface(type.isInterface());
-        classNode.setAbstract(type.hasModifier(ModifierKind.ABSTRACT));
+        classNode.setAbstract(type.isAbstract());
 
-        if (type.getSuperclass() != null) {
-            String superClassName = type.getSuperclass().getQualifiedName();
+        if (type.getSuperClass() != null) {
+            String superClassName = type.getSuperClass();
             classNode.setSuperClass(superClassName);
 
             ClassRelationship inheritance = new ClassRelationship(
@@ -57,8 +56,7 @@ public class ClassDiagramScanner extends AbstractProcessor<CtType<?>> {
             classDiagram.addRelationship(inheritance);
         }
 
-        for (CtTypeReference<?> interfaceRef : type.getSuperInterfaces()) {
-            String interfaceName = interfaceRef.getQualifiedName();
+        for (String interfaceName : type.getInterfaces()) {
             classNode.addInterface(interfaceName);
 
             ClassRelationship implementation = new ClassRelationship(
@@ -68,36 +66,43 @@ public class ClassDiagramScanner extends AbstractProcessor<CtType<?>> {
             classDiagram.addRelationship(implementation);
         }
 
-        for (CtField<?> field : type.getFields()) {
+        for (FieldFacts field : type.getFields()) {
             processField(classNode, field);
         }
 
-        for (CtMethod<?> method : type.getMethods()) {
+        for (MethodFacts method : type.getMethods()) {
             processMethod(classNode, method);
         }
 
-        if (type instanceof CtClass) {
-            CtClass<?> ctClass = (CtClass<?>) type;
-            for (CtConstructor<?> constructor : ctClass.getConstructors()) {
-                processConstructor(classNode, constructor);
-            }
+        for (MethodFacts constructor : type.getConstructors()) {
+            processConstructor(classNode, constructor);
+        }
+    }
+
+    @Override
+    public void retract(TypeFacts type) {
+
+        if (rootPackage != null && !type.getPackageName().startsWith(rootPackage)) {
+            return;
         }
+
+        classDiagram.removeClass(type.getPackageName() + "." + type.getSimpleName());
     }
 
-    private void processField(ClassDiagramNode classNode, CtField<?> field) {
-        String fieldName = field.getSimpleName();
-        String fieldType = field.getType().getSimpleName();
-        String visibility = getVisibility(field.getModifiers());
+    private void processField(ClassDiagramNode classNode, FieldFacts field) {
+        String fieldName = field.getName();
+        String fieldType = field.getTypeName();
+        String visibility = getVisibility(field.getVisibility());
 
         ClassAttr attribute = new ClassAttr(fieldName, fieldType, visibility);
-        attribute.setStatic(field.hasModifier(ModifierKind.STATIC));
-        attribute.setFinal(field.hasModifier(ModifierKind.FINAL));
+        attribute.setStatic(field.isStatic());
+        attribute.setFinal(field.isFinal());
 
         classNode.addAttribute(attribute);
 
         if (!isPrimitiveType(fieldType)) {
-            String targetClass = field.getType().getQualifiedName();
-            ClassRelationship.RelationType relType = field.hasModifier(ModifierKind.FINAL)
+            String targetClass = field.getTypeQualifiedName();
+            ClassRelationship.RelationType relType = field.isFinal()
                     ? ClassRelationship.RelationType.COMPOSITION
                     : ClassRelationship.RelationType.AGGREGATION;
 
@@ -110,47 +115,44 @@ public class ClassDiagramScanner extends AbstractProcessor<CtType<?>> {
         }
     }
 
-    private void processMethod(ClassDiagramNode classNode, CtMethod<?> method) {
-        String methodName = method.getSimpleName();
-        String returnType = method.getType().getSimpleName();
-        String visibility = getVisibility(method.getModifiers());
+    private void processMethod(ClassDiagramNode classNode, MethodFacts method) {
+        String visibility = getVisibility(method.getVisibility());
 
-        ClassMethod classMethod = new ClassMethod(methodName, returnType, visibility);
-        classMethod.setStatic(method.hasModifier(ModifierKind.STATIC));
-        classMethod.setAbstract(method.hasModifier(ModifierKind.ABSTRACT));
+        ClassMethod classMethod = new ClassMethod(method.getName(), method.getReturnType(), visibility);
+        classMethod.setStatic(method.isStatic());
+        classMethod.setAbstract(method.isAbstract());
 
-        for (CtParameter<?> param : method.getParameters()) {
-            String paramType = param.getType().getSimpleName();
-            String paramName = param.getSimpleName();
-            classMethod.addParameter(paramType + " " + paramName);
+        for (String parameter : method.getParameters()) {
+            classMethod.addParameter(parameter);
         }
 
         classNode.addMethod(classMethod);
     }
 
-    private void processConstructor(ClassDiagramNode classNode, CtConstructor<?> constructor) {
-        String visibility = getVisibility(constructor.getModifiers());
+    private void processConstructor(ClassDiagramNode classNode, MethodFacts constructor) {
+        String visibility = getVisibility(constructor.getVisibility());
 
         ClassMethod classMethod = new ClassMethod(classNode.getClassName(), "", visibility);
         classMethod.setConstructor(true);
 
-        for (CtParameter<?> param : constructor.getParameters()) {
-            String paramType = param.getType().getSimpleName();
-            String paramName = param.getSimpleName();
-            classMethod.addParameter(paramType + " " + paramName);
+        for (String parameter : constructor.getParameters()) {
+            classMethod.addParameter(parameter);
         }
 
         classNode.addMethod(classMethod);
     }
 
-    private String getVisibility(Set<ModifierKind> modifiers) {
-        if (modifiers.contains(ModifierKind.PUBLIC))
-            return "+";
-        if (modifiers.contains(ModifierKind.PRIVATE))
-            return "-";
-        if (modifiers.contains(ModifierKind.PROTECTED))
-            return "#";
-        return "~";
+    private String getVisibility(String visibility) {
+        switch (visibility) {
+            case "public":
+                return "+";
+            case "private":
+                return "-";
+            case "protected":
+                return "#";
+            default:
+                return "~";
+        }
     }
 
     private boolean isPrimitiveType(String type) {
@@ -158,4 +160,4 @@ public class ClassDiagramScanner extends AbstractProcessor<CtType<?>> {
                 type.equals("float") || type.equals("boolean") || type.equals("char") ||
                 type.equals("byte") || type.equals("short") || type.equals("String");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,52 @@
+package fr.jeremyhurel.scanners;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import fr.jeremyhurel.models.fact_models.TypeFacts;
+import spoon.processing.AbstractProcessor;
+import spoon.reflect.declaration.CtType;
+
+public class CompositeTypeScanner extends AbstractProcessor<CtType<?>> {
+
+    private final List<AnalysisSink> sinks;
+    private final FactExtractionScanner extractor;
+
+    public CompositeTypeScanner() {
+        this.sinks = new ArrayList<>();
+        this.extractor = new FactExtractionScanner();
+    }
+
+    public CompositeTypeScanner(AnalysisSink... sinks) {
+        this();
+        for (AnalysisSink sink : sinks) {
+            addSink(sink);
+        }
+    }
+
+    public CompositeTypeScanner addSink(AnalysisSink sink) {
+        sinks.add(sink);
+        return this;
+    }
+
+    public List<AnalysisSink> getSinks() {
+        return sinks;
+    }
+
+    @Override
+    public void process(CtType<?> type) {
+        process(extractor.extract(type));
+    }
+
+    public void process(TypeFacts type) {
+        for (AnalysisSink sink : sinks) {
+            sink.process(type);
+        }
+    }
+
+    public void retract(TypeFacts type) {
+        for (AnalysisSink sink : sinks) {
+            sink.retract(type);
+        }
+    }
+}
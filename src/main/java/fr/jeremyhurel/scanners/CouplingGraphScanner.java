@@ -1,15 +1,16 @@
 package fr.jeremyhurel.scanners;
 
+import java.util.List;
+
 import fr.jeremyhurel.models.CouplingGraph;
+import fr.jeremyhurel.models.fact_models.InvocationFacts;
+import fr.jeremyhurel.models.fact_models.MethodFacts;
+import fr.jeremyhurel.models.fact_models.TypeFacts;
 import fr.jeremyhurel.utils.ExternalLibraryFilter;
 import spoon.processing.AbstractProcessor;
-import spoon.reflect.code.CtInvocation;
-import spoon.reflect.declaration.CtClass;
-import spoon.reflect.declaration.CtConstructor;
-import spoon.reflect.declaration.CtMethod;
 import spoon.reflect.declaration.CtType;
 
-public class CouplingGraphScanner extends AbstractProcessor<CtType<?>> {
+public class CouplingGraphScanner extends AbstractProcessor<CtType<?>> implements AnalysisSink {
 
     private final CouplingGraph couplingGraph;
     private String rootPackage;
@@ -25,58 +26,65 @@ public class CouplingGraphScanner extends AbstractProcessor<CtType<?>> {
 
     @Override
     public void process(CtType<?> type) {
+        process(FactExtractionScanner.extractType(type));
+    }
+
+    @Override
+    public void process(TypeFacts type) {
 
-        if (rootPackage != null && !type.getPackage().getQualifiedName().startsWith(rootPackage)) {
+        if (!isInScope(type)) {
             return;
         }
 
         String className = type.getQualifiedName();
 
-        if (isExternalLibraryClass(className)) {
-            return;
-        }
-
         couplingGraph.getOrCreateNode(className);
 
         analyzeMethodCalls(type, className);
     }
 
-    private void analyzeMethodCalls(CtType<?> type, String fromClassName) {
+    @Override
+    public void retract(TypeFacts type) {
 
-        for (CtMethod<?> method : type.getMethods()) {
-            if (method.getBody() != null) {
-                analyzeMethodBody(method.getBody().getElements(e -> e instanceof CtInvocation),
-                                fromClassName);
-            }
+        if (!isInScope(type)) {
+            return;
         }
 
-        if (type instanceof CtClass) {
-            CtClass<?> ctClass = (CtClass<?>) type;
-            for (CtConstructor<?> constructor : ctClass.getConstructors()) {
-                if (constructor.getBody() != null) {
-                    analyzeMethodBody(constructor.getBody().getElements(e -> e instanceof CtInvocation),
-                                    fromClassName);
-                }
-            }
+        String className = type.getQualifiedName();
+
+        for (MethodFacts method : type.getMethods()) {
+            retractMethodBody(method.getInvocations(), className);
+        }
+
+        for (MethodFacts constructor : type.getConstructors()) {
+            retractMethodBody(constructor.getInvocations(), className);
         }
     }
 
-    private void analyzeMethodBody(java.util.List<?> invocations, String fromClassName) {
-        for (Object element : invocations) {
-            CtInvocation<?> invocation = (CtInvocation<?>) element;
+    private boolean isInScope(TypeFacts type) {
+        if (rootPackage != null && !type.getPackageName().startsWith(rootPackage)) {
+            return false;
+        }
+        return !isExternalLibraryClass(type.getQualifiedName());
+    }
+
+    private void analyzeMethodCalls(TypeFacts type, String fromClassName) {
+
+        for (MethodFacts method : type.getMethods()) {
+            analyzeMethodBody(method.getInvocations(), fromClassName);
+        }
 
-            if (invocation.getExecutable() != null &&
-                invocation.getExecutable().getDeclaringType() != null) {
+        for (MethodFacts constructor : type.getConstructors()) {
+            analyzeMethodBody(constructor.getInvocations(), fromClassName);
+        }
+    }
 
-                String toClassName = invocation.getExecutable().getDeclaringType().getQualifiedName();
+    private void analyzeMethodBody(List<InvocationFacts> invocations, String fromClassName) {
+        for (InvocationFacts invocation : invocations) {
 
-                if (isExternalLibraryClass(toClassName)) {
-                    continue;
-                }
+            if (isCoupling(invocation, fromClassName)) {
 
-                if (toClassName.equals(fromClassName)) {
-                    continue;
-                }
+                String toClassName = invocation.getDeclaringType();
 
                 couplingGraph.getOrCreateNode(toClassName);
 
@@ -85,6 +93,23 @@ public class CouplingGraphScanner extends AbstractProcessor<CtType<?>> {
         }
     }
 
+    private void retractMethodBody(List<InvocationFacts> invocations, String fromClassName) {
+        for (InvocationFacts invocation : invocations) {
+            if (isCoupling(invocation, fromClassName)) {
+                couplingGraph.removeMethodCall(fromClassName, invocation.getDeclaringType());
+            }
+        }
+    }
+
+    private boolean isCoupling(InvocationFacts invocation, String fromClassName) {
+        if (!invocation.isResolved()) {
+            return false;
+        }
+
+        String toClassName = invocation.getDeclaringType();
+        return !isExternalLibraryClass(toClassName) && !toClassName.equals(fromClassName);
+    }
+
     private boolean isExternalLibraryClass(String typeName) {
 
         return ExternalLibraryFilter.isExternalLibraryClass(typeName, rootPackage);
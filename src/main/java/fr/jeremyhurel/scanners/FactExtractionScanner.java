@@ -0,0 +1,320 @@
+package fr.jeremyhurel.scanners;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+
+import fr.jeremyhurel.models.fact_models.FieldFacts;
+import fr.jeremyhurel.models.fact_models.InvocationFacts;
+import fr.jeremyhurel.models.fact_models.MethodFacts;
+import fr.jeremyhurel.models.fact_models.TypeFacts;
+import spoon.reflect.code.CtBlock;
+import spoon.reflect.code.CtInvocation;
+import spoon.reflect.code.CtStatement;
+import spoon.reflect.declaration.CtAnnotationMethod;
+import spoon.reflect.declaration.CtAnnotationType;
+import spoon.reflect.declaration.CtAnonymousExecutable;
+import spoon.reflect.declaration.CtClass;
+import spoon.reflect.declaration.CtConstructor;
+import spoon.reflect.declaration.CtElement;
+import spoon.reflect.declaration.CtEnum;
+import spoon.reflect.declaration.CtEnumValue;
+import spoon.reflect.declaration.CtExecutable;
+import spoon.reflect.declaration.CtField;
+import spoon.reflect.declaration.CtInterface;
+import spoon.reflect.declaration.CtMethod;
+import spoon.reflect.declaration.CtParameter;
+import spoon.reflect.declaration.CtRecord;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.declaration.ModifierKind;
+import spoon.reflect.reference.CtExecutableReference;
+import spoon.reflect.reference.CtTypeReference;
+import spoon.reflect.visitor.CtScanner;
+
+public class FactExtractionScanner extends CtScanner {
+
+    private CtType<?> rootType;
+    private List<MethodFacts> methods;
+    private List<MethodFacts> constructors;
+    private MethodFacts currentExecutable;
+
+    public static TypeFacts extractType(CtType<?> type) {
+        return new FactExtractionScanner().extract(type);
+    }
+
+    public static MethodFacts extractMethod(CtMethod<?> method) {
+        FactExtractionScanner scanner = new FactExtractionScanner();
+        scanner.reset(method.getDeclaringType());
+        scanner.scan(method);
+        return scanner.methods.get(0);
+    }
+
+    public TypeFacts extract(CtType<?> type) {
+        String packageName = type.getPackage() != null ? type.getPackage().getQualifiedName() : "";
+
+        TypeFacts facts = new TypeFacts(type.getQualifiedName(), type.getSimpleName(), packageName);
+        facts.setInterface(type.isInterface());
+        facts.setAbstract(type.hasModifier(ModifierKind.ABSTRACT));
+
+        if (type.getSuperclass() != null) {
+            facts.setSuperClass(type.getSuperclass().getQualifiedName());
+        }
+
+        for (CtTypeReference<?> interfaceRef : type.getSuperInterfaces()) {
+            facts.addInterface(interfaceRef.getQualifiedName());
+        }
+
+        for (CtField<?> field : type.getFields()) {
+            facts.addField(extractField(field));
+        }
+
+        reset(type);
+        scan(type);
+
+        for (MethodFacts method : sortBySignature(methods)) {
+            facts.addMethod(method);
+        }
+        if (type instanceof CtClass) {
+            for (MethodFacts constructor : sortBySignature(constructors)) {
+                facts.addConstructor(constructor);
+            }
+        }
+
+        return facts;
+    }
+
+    private void reset(CtType<?> type) {
+        rootType = type;
+        methods = new ArrayList<>();
+        constructors = new ArrayList<>();
+        currentExecutable = null;
+    }
+
+    // Same order and de-duplication as CtType.getMethods()/getConstructors().
+    private List<MethodFacts> sortBySignature(List<MethodFacts> executables) {
+        TreeMap<String, MethodFacts> sorted = new TreeMap<>();
+        for (MethodFacts executable : executables) {
+            sorted.putIfAbsent(executable.getSignature(), executable);
+        }
+        return new ArrayList<>(sorted.values());
+    }
+
+    @Override
+    public <T> void visitCtClass(CtClass<T> ctClass) {
+        if (isScanned(ctClass)) {
+            super.visitCtClass(ctClass);
+        }
+    }
+
+    @Override
+    public <T> void visitCtInterface(CtInterface<T> ctInterface) {
+        if (isScanned(ctInterface)) {
+            super.visitCtInterface(ctInterface);
+        }
+    }
+
+    @Override
+    public <T extends Enum<?>> void visitCtEnum(CtEnum<T> ctEnum) {
+        if (isScanned(ctEnum)) {
+            super.visitCtEnum(ctEnum);
+        }
+    }
+
+    @Override
+    public void visitCtRecord(CtRecord ctRecord) {
+        if (isScanned(ctRecord)) {
+            super.visitCtRecord(ctRecord);
+        }
+    }
+
+    @Override
+    public <A extends java.lang.annotation.Annotation> void visitCtAnnotationType(CtAnnotationType<A> annotationType) {
+        if (isScanned(annotationType)) {
+            super.visitCtAnnotationType(annotationType);
+        }
+    }
+
+    @Override
+    public <T> void visitCtField(CtField<T> field) {
+        if (currentExecutable != null) {
+            super.visitCtField(field);
+        }
+    }
+
+    @Override
+    public <T> void visitCtEnumValue(CtEnumValue<T> enumValue) {
+        if (currentExecutable != null) {
+            super.visitCtEnumValue(enumValue);
+        }
+    }
+
+    @Override
+    public void visitCtAnonymousExecutable(CtAnonymousExecutable anonymousExecutable) {
+        if (currentExecutable != null) {
+            super.visitCtAnonymousExecutable(anonymousExecutable);
+        }
+    }
+
+    @Override
+    public <T> void visitCtMethod(CtMethod<T> method) {
+        if (currentExecutable != null) {
+            super.visitCtMethod(method);
+            return;
+        }
+        addMethod(method, () -> super.visitCtMethod(method));
+    }
+
+    @Override
+    public <T> void visitCtAnnotationMethod(CtAnnotationMethod<T> annotationMethod) {
+        if (currentExecutable != null) {
+            super.visitCtAnnotationMethod(annotationMethod);
+            return;
+        }
+        addMethod(annotationMethod, () -> super.visitCtAnnotationMethod(annotationMethod));
+    }
+
+    private void addMethod(CtMethod<?> method, Runnable scanChildren) {
+        MethodFacts facts = new MethodFacts(
+                rootType.getQualifiedName(),
+                method.getSimpleName(),
+                method.getSignature());
+
+        facts.setReturnType(method.getType().getSimpleName());
+        facts.setVisibility(getVisibility(method.getModifiers()));
+        facts.setStatic(method.hasModifier(ModifierKind.STATIC));
+        facts.setAbstract(method.hasModifier(ModifierKind.ABSTRACT));
+        facts.setConstructor(false);
+
+        methods.add(facts);
+        scanExecutable(facts, method, scanChildren);
+    }
+
+    @Override
+    public <T> void visitCtConstructor(CtConstructor<T> constructor) {
+        if (currentExecutable != null) {
+            super.visitCtConstructor(constructor);
+            return;
+        }
+
+        MethodFacts facts = new MethodFacts(
+                rootType.getQualifiedName(),
+                rootType.getSimpleName(),
+                constructor.getSignature());
+
+        facts.setVisibility(getVisibility(constructor.getModifiers()));
+        facts.setConstructor(true);
+
+        constructors.add(facts);
+        scanExecutable(facts, constructor, () -> super.visitCtConstructor(constructor));
+    }
+
+    @Override
+    public <T> void visitCtInvocation(CtInvocation<T> invocation) {
+        if (currentExecutable != null) {
+            currentExecutable.addInvocation(extractInvocation(invocation));
+        }
+        super.visitCtInvocation(invocation);
+    }
+
+    private boolean isScanned(CtType<?> type) {
+        return type == rootType || currentExecutable != null;
+    }
+
+    private void scanExecutable(MethodFacts facts, CtExecutable<?> executable, Runnable scanChildren) {
+        for (CtParameter<?> param : executable.getParameters()) {
+            facts.addParameter(param.getType().getSimpleName() + " " + param.getSimpleName());
+        }
+
+        facts.setHasBody(executable.getBody() != null);
+        facts.setLinesOfCode(countLinesOfCode(executable.getBody()));
+        facts.setLineNumber(getLine(executable));
+
+        if (executable.getBody() != null) {
+            currentExecutable = facts;
+            try {
+                scanChildren.run();
+            } finally {
+                currentExecutable = null;
+            }
+        }
+    }
+
+    private static InvocationFacts extractInvocation(CtInvocation<?> invocation) {
+        int lineNumber = getLine(invocation);
+        CtExecutableReference<?> executable = invocation.getExecutable();
+
+        if (executable == null) {
+            return new InvocationFacts(null, "", invocation.toString(), lineNumber);
+        }
+
+        String methodName = executable.getSimpleName();
+        try {
+            String signature = executable.getSignature();
+            String declaringType = executable.getDeclaringType() != null
+                    ? executable.getDeclaringType().getQualifiedName()
+                    : null;
+            return new InvocationFacts(declaringType, methodName, signature, lineNumber);
+        } catch (Exception e) {
+            return new InvocationFacts(null, methodName, methodName, lineNumber);
+        }
+    }
+
+    private static FieldFacts extractField(CtField<?> field) {
+        FieldFacts facts = new FieldFacts(
+                field.getSimpleName(),
+                field.getType().getSimpleName(),
+                field.getType().getQualifiedName(),
+                getVisibility(field.getModifiers()));
+        facts.setStatic(field.hasModifier(ModifierKind.STATIC));
+        facts.setFinal(field.hasModifier(ModifierKind.FINAL));
+        return facts;
+    }
+
+    private static int getLine(CtElement element) {
+        return element.getPosition() != null && element.getPosition().isValidPosition()
+                ? element.getPosition().getLine()
+                : 0;
+    }
+
+    private static String getVisibility(Set<ModifierKind> modifiers) {
+        if (modifiers.contains(ModifierKind.PUBLIC))
+            return "public";
+        if (modifiers.contains(ModifierKind.PRIVATE))
+            return "private";
+        if (modifiers.contains(ModifierKind.PROTECTED))
+            return "protected";
+        return "package-private";
+    }
+
+    private static int countLinesOfCode(CtBlock<?> body) {
+        if (body == null)
+            return 0;
+
+        int count = 0;
+        for (CtStatement statement : body.getStatements()) {
+            count += countStatementLines(statement);
+        }
+        return count;
+    }
+
+    private static int countStatementLines(CtStatement statement) {
+        if (statement == null)
+            return 0;
+
+        if (statement.getPosition() != null && statement.getPosition().isValidPosition()) {
+            int startLine = statement.getPosition().getLine();
+            int endLine = statement.getPosition().getEndLine();
+            if (endLine >= startLine) {
+                return endLine - startLine + 1;
+            }
+        }
+
+        String statementStr = statement.toString();
+        if (statementStr != null && !statementStr.trim().isEmpty()) {
+            return Math.max(1, statementStr.split("\n").length);
+        }
+
+        return 1;
+    }
+}
@@ -1,17 +1,24 @@
 package fr.jeremyhurel.scanners;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 import spoon.processing.AbstractProcessor;
 import spoon.reflect.declaration.CtMethod;
-import spoon.reflect.code.CtInvocation;
-import spoon.reflect.visitor.filter.TypeFilter;
 import fr.jeremyhurel.models.CallGraph;
 import fr.jeremyhurel.models.CalleeGraphNode;
+import fr.jeremyhurel.models.fact_models.InvocationFacts;
+import fr.jeremyhurel.models.fact_models.MethodFacts;
+import fr.jeremyhurel.models.fact_models.TypeFacts;
 
-public class MethodCallScanner extends AbstractProcessor<CtMethod<?>> {
+public class MethodCallScanner extends AbstractProcessor<CtMethod<?>> implements AnalysisSink {
 
     private CallGraph callGraph;
     private String rootClassName;
     private String rootMethodName;
+    private final Set<CalleeGraphNode> declaredNodes = new HashSet<>();
 
     public MethodCallScanner(CallGraph callGraph) {
         this.callGraph = callGraph;
@@ -25,22 +32,41 @@ public class MethodCallScanner extends AbstractProcessor<CtMethod<?>> {
 
     @Override
     public void process(CtMethod<?> method) {
+        process(FactExtractionScanner.extractMethod(method));
+    }
+
+    @Override
+    public void process(TypeFacts type) {
+        for (MethodFacts method : type.getMethods()) {
+            process(method);
+        }
+    }
+
+    @Override
+    public void retract(TypeFacts type) {
+        for (MethodFacts method : type.getMethods()) {
+            retract(method);
+        }
+    }
+
+    public void process(MethodFacts method) {
 
         if (rootClassName != null && rootMethodName != null) {
-            String currentClassName = method.getDeclaringType().getQualifiedName();
-            String currentMethodName = method.getSimpleName();
+            String currentClassName = method.getDeclaringType();
+            String currentMethodName = method.getName();
 
             if (!currentClassName.equals(rootClassName) || !currentMethodName.equals(rootMethodName)) {
                 return;
             }
         }
 
-        String className = method.getDeclaringType().getQualifiedName();
-        String methodName = method.getSimpleName();
+        String className = method.getDeclaringType();
+        String methodName = method.getName();
         String signature = method.getSignature();
-        int lineNumber = method.getPosition() != null ? method.getPosition().getLine() : 0;
+        int lineNumber = method.getLineNumber();
 
         CalleeGraphNode currentNode = callGraph.getOrCreateNode(className, methodName, signature, lineNumber);
+        declaredNodes.add(currentNode);
 
         if (callGraph.getRootNode() == null ||
                 (rootClassName != null && rootMethodName != null &&
@@ -48,21 +74,39 @@ public class MethodCallScanner extends AbstractProcessor<CtMethod<?>> {
             callGraph.setRootNode(currentNode);
         }
 
-        method.getElements(new TypeFilter<>(CtInvocation.class)).forEach(invocation -> {
-            try {
-                String targetClassName = invocation.getExecutable().getDeclaringType().getQualifiedName();
-                String targetMethodName = invocation.getExecutable().getSimpleName();
-                String targetSignature = invocation.getExecutable().getSignature();
-                int targetLineNumber = invocation.getPosition() != null ? invocation.getPosition().getLine() : 0;
+        for (InvocationFacts invocation : method.getInvocations()) {
+            if (!invocation.isResolved()) {
 
-                CalleeGraphNode targetNode = callGraph.getOrCreateNode(
-                        targetClassName, targetMethodName, targetSignature, targetLineNumber);
+                System.err.println("Could not resolve method call: " + invocation.getSignature());
+                continue;
+            }
 
-                currentNode.addCallee(targetNode);
-            } catch (Exception e) {
+            CalleeGraphNode targetNode = callGraph.getOrCreateNode(
+                    invocation.getDeclaringType(), invocation.getMethodName(),
+                    invocation.getSignature(), invocation.getLineNumber());
 
-                System.err.println("Could not resolve method call: " + invocation);
-            }
-        });
+            currentNode.addCallee(targetNode);
+        }
+    }
+
+    public void retract(MethodFacts method) {
+        CalleeGraphNode node = callGraph.getNode(method.getDeclaringType(), method.getName(), method.getSignature());
+        if (node == null || !declaredNodes.remove(node)) {
+            return;
+        }
+
+        List<CalleeGraphNode> previousCallees = new ArrayList<>(node.getCallees());
+        node.clearCallees();
+
+        for (CalleeGraphNode callee : previousCallees) {
+            removeIfUnused(callee);
+        }
+        removeIfUnused(node);
+    }
+
+    private void removeIfUnused(CalleeGraphNode node) {
+        if (node.getCallerCount() == 0 && !declaredNodes.contains(node)) {
+            callGraph.removeNode(node);
+        }
     }
-}
\ No newline at end of file
+}
@@ -9,15 +9,12 @@ import java.util.Set;
 
 import fr.jeremyhurel.models.MethodStats;
 import fr.jeremyhurel.models.class_models.ClassStats;
+import fr.jeremyhurel.models.fact_models.MethodFacts;
+import fr.jeremyhurel.models.fact_models.TypeFacts;
 import spoon.processing.AbstractProcessor;
-import spoon.reflect.code.CtStatement;
-import spoon.reflect.declaration.CtClass;
-import spoon.reflect.declaration.CtConstructor;
-import spoon.reflect.declaration.CtMethod;
 import spoon.reflect.declaration.CtType;
-import spoon.reflect.declaration.ModifierKind;
 
-public class StatisticsScanner extends AbstractProcessor<CtType<?>> {
+public class StatisticsScanner extends AbstractProcessor<CtType<?>> implements AnalysisSink {
 
     private Map<String, ClassStats> classStatsMap;
     private List<MethodStats> methodStatsList;
@@ -31,35 +28,37 @@ public class StatisticsScanner extends AbstractProcessor<CtType<?>> {
 
     @Override
     public void process(CtType<?> type) {
+        process(FactExtractionScanner.extractType(type));
+    }
+
+    @Override
+    public void process(TypeFacts type) {
         String className = type.getSimpleName();
-        String packageName = type.getPackage().getQualifiedName();
+        String packageName = type.getPackageName();
 
         packages.add(packageName);
 
         ClassStats classStats = new ClassStats(className, packageName);
         classStats.setInterface(type.isInterface());
-        classStats.setAbstract(type.hasModifier(ModifierKind.ABSTRACT));
+        classStats.setAbstract(type.isAbstract());
 
         classStats.setAttributeCount(type.getFields().size());
 
         int methodCount = 0;
         int totalClassLinesOfCode = 0;
 
-        for (CtMethod<?> method : type.getMethods()) {
+        for (MethodFacts method : type.getMethods()) {
             methodCount++;
             MethodStats methodStats = processMethod(method, className, packageName);
             methodStatsList.add(methodStats);
             totalClassLinesOfCode += methodStats.getLinesOfCode();
         }
 
-        if (type instanceof CtClass) {
-            CtClass<?> ctClass = (CtClass<?>) type;
-            for (CtConstructor<?> constructor : ctClass.getConstructors()) {
-                methodCount++;
-                MethodStats constructorStats = processConstructor(constructor, className, packageName);
-                methodStatsList.add(constructorStats);
-                totalClassLinesOfCode += constructorStats.getLinesOfCode();
-            }
+        for (MethodFacts constructor : type.getConstructors()) {
+            methodCount++;
+            MethodStats constructorStats = processConstructor(constructor, className, packageName);
+            methodStatsList.add(constructorStats);
+            totalClassLinesOfCode += constructorStats.getLinesOfCode();
         }
 
         classStats.setMethodCount(methodCount);
@@ -68,82 +67,52 @@ public class StatisticsScanner extends AbstractProcessor<CtType<?>> {
         classStatsMap.put(classStats.getFullName(), classStats);
     }
 
-    private MethodStats processMethod(CtMethod<?> method, String className, String packageName) {
-        String methodName = method.getSimpleName();
-        MethodStats methodStats = new MethodStats(methodName, className, packageName);
+    @Override
+    public void retract(TypeFacts type) {
+        String className = type.getSimpleName();
+        String packageName = type.getPackageName();
+
+        classStatsMap.remove(packageName + "." + className);
+        methodStatsList.removeIf(method -> method.getClassName().equals(className)
+                && method.getPackageName().equals(packageName));
 
-        methodStats.setReturnType(method.getType().getSimpleName());
-        methodStats.setVisibility(getVisibility(method.getModifiers()));
-        methodStats.setStatic(method.hasModifier(ModifierKind.STATIC));
-        methodStats.setAbstract(method.hasModifier(ModifierKind.ABSTRACT));
+        boolean packageStillUsed = classStatsMap.values().stream()
+                .anyMatch(classStats -> classStats.getPackageName().equals(packageName));
+        if (!packageStillUsed) {
+            packages.remove(packageName);
+        }
+    }
+
+    private MethodStats processMethod(MethodFacts method, String className, String packageName) {
+        MethodStats methodStats = new MethodStats(method.getName(), className, packageName);
+
+        methodStats.setReturnType(method.getReturnType());
+        methodStats.setVisibility(method.getVisibility());
+        methodStats.setStatic(method.isStatic());
+        methodStats.setAbstract(method.isAbstract());
         methodStats.setConstructor(false);
 
         methodStats.setParameterCount(method.getParameters().size());
-
-        int linesOfCode = countLinesOfCode(method.getBody());
-        methodStats.setLinesOfCode(linesOfCode);
+        methodStats.setLinesOfCode(method.getLinesOfCode());
 
         return methodStats;
     }
 
-    private MethodStats processConstructor(CtConstructor<?> constructor, String className, String packageName) {
+    private MethodStats processConstructor(MethodFacts constructor, String className, String packageName) {
         MethodStats constructorStats = new MethodStats(className, className, packageName);
 
         constructorStats.setReturnType("");
-        constructorStats.setVisibility(getVisibility(constructor.getModifiers()));
+        constructorStats.setVisibility(constructor.getVisibility());
         constructorStats.setStatic(false);
         constructorStats.setAbstract(false);
         constructorStats.setConstructor(true);
 
         constructorStats.setParameterCount(constructor.getParameters().size());
-
-        int linesOfCode = countLinesOfCode(constructor.getBody());
-        constructorStats.setLinesOfCode(linesOfCode);
+        constructorStats.setLinesOfCode(constructor.getLinesOfCode());
 
         return constructorStats;
     }
 
-    private String getVisibility(Set<ModifierKind> modifiers) {
-        if (modifiers.contains(ModifierKind.PUBLIC))
-            return "public";
-        if (modifiers.contains(ModifierKind.PRIVATE))
-            return "private";
-        if (modifiers.contains(ModifierKind.PROTECTED))
-            return "protected";
-        return "package-private";
-    }
-
-    private int countLinesOfCode(spoon.reflect.code.CtBlock<?> body) {
-        if (body == null)
-            return 0;
-
-        int count = 0;
-        for (CtStatement statement : body.getStatements()) {
-            count += countStatementLines(statement);
-        }
-        return count;
-    }
-
-    private int countStatementLines(CtStatement statement) {
-        if (statement == null)
-            return 0;
-
-        if (statement.getPosition() != null && statement.getPosition().isValidPosition()) {
-            int startLine = statement.getPosition().getLine();
-            int endLine = statement.getPosition().getEndLine();
-            if (endLine >= startLine) {
-                return endLine - startLine + 1;
-            }
-        }
-
-        String statementStr = statement.toString();
-        if (statementStr != null && !statementStr.trim().isEmpty()) {
-            return Math.max(1, statementStr.split("\n").length);
-        }
-
-        return 1;
-    }
-
     public Map<String, ClassStats> getClassStatsMap() {
         return classStatsMap;
     }
@@ -9,6 +9,7 @@ import com.googlecode.lanterna.gui2.dialogs.ActionListDialogBuilder;
 import com.googlecode.lanterna.gui2.dialogs.TextInputDialogBuilder;
 import com.googlecode.lanterna.gui2.dialogs.MessageDialogBuilder;
 import java.io.IOException;
+import java.util.regex.Pattern;
 
 public class CalleeGraphDialog implements Dialog {
 
@@ -17,6 +18,7 @@ public class CalleeGraphDialog implements Dialog {
     private String projectPath;
     private String rootClassName;
     private String rootMethodName;
+    private int maxDepth = CallGraphProcessor.UNLIMITED;
 
     public CalleeGraphDialog(MultiWindowTextGUI gui) {
         this.gui = gui;
@@ -87,7 +89,7 @@ public class CalleeGraphDialog implements Dialog {
 
                     if (methodName != null && !methodName.trim().isEmpty()) {
                         this.rootMethodName = methodName.trim();
-                        generateCallGraph();
+                        askForMaxDepth();
                     }
                 })
                 .addAction("Cancel", () -> {
@@ -96,6 +98,23 @@ public class CalleeGraphDialog implements Dialog {
                 .showDialog(gui);
     }
 
+    private void askForMaxDepth() {
+        String depth = new TextInputDialogBuilder()
+                .setTitle("Called Graph - Max Depth")
+                .setDescription("Maximum call depth from the root method\n(leave empty for unlimited):")
+                .setValidationPattern(Pattern.compile("\\d{0,6}"), "Please enter a positive number")
+                .build()
+                .showDialog(gui);
+
+        if (depth == null) {
+            return;
+        }
+        if (!depth.trim().isEmpty() && Integer.parseInt(depth.trim()) > 0) {
+            this.maxDepth = Integer.parseInt(depth.trim());
+        }
+        generateCallGraph();
+    }
+
     private void generateCallGraph() {
         try {
 
@@ -108,6 +127,7 @@ public class CalleeGraphDialog implements Dialog {
             CallGraphProcessor processor;
             if (rootClassName != null && rootMethodName != null) {
                 processor = new CallGraphProcessor(projectPath, rootClassName, rootMethodName);
+                processor.setMaxDepth(maxDepth);
             } else {
                 processor = new CallGraphProcessor(projectPath);
             }
@@ -128,7 +148,9 @@ public class CalleeGraphDialog implements Dialog {
                     .setText("Call graph generated successfully!\n" +
                             "Nodes found: " + callGraph.getNodeCount() + "\n" +
                             "Root node: "
-                            + (callGraph.getRootNode() != null ? callGraph.getRootNode().getFullName() : "None"))
+                            + (callGraph.getRootNode() != null ? callGraph.getRootNode().getFullName() : "None") + "\n" +
+                            (processor.isTruncated() ? "Expansion stopped at depth " + maxDepth + "\n" : "") +
+                            "Sources: " + processor.getSession().getFactCacheSummary())
                     .build()
                     .showDialog(gui);
 
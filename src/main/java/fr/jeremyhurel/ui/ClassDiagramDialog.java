@@ -109,7 +109,8 @@ public class ClassDiagramDialog implements Dialog {
                             "Packages found: " + classDiagram.getPackageCount() + "\n" +
                             "Relationships: " + classDiagram.getRelationshipCount() + "\n" +
                             "Root package: "
-                            + (classDiagram.getRootPackage() != null ? classDiagram.getRootPackage() : "All packages"))
+                            + (classDiagram.getRootPackage() != null ? classDiagram.getRootPackage() : "All packages") + "\n" +
+                            "Sources: " + processor.getSession().getFactCacheSummary())
                     .build()
                     .showDialog(gui);
 
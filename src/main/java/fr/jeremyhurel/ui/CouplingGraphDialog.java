@@ -109,7 +109,8 @@ public class CouplingGraphDialog implements Dialog {
                     .setText("Coupling graph generated successfully!\n\n" +
                             "Classes found: " + couplingGraph.getNodeCount() + "\n" +
                             "Coupling relationships: " + couplingGraph.getCouplingCount() + "\n" +
-                            "Total method calls: " + couplingGraph.getTotalMethodCalls() + "\n\n" +
+                            "Total method calls: " + couplingGraph.getTotalMethodCalls() + "\n" +
+                            "Sources: " + processor.getSession().getFactCacheSummary() + "\n\n" +
                             "Formula: Couplage(A,B) = Method calls A→B / Total calls")
                     .build()
                     .showDialog(gui);
@@ -0,0 +1,217 @@
+package fr.jeremyhurel.ui;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import com.googlecode.lanterna.gui2.BasicWindow;
+import com.googlecode.lanterna.gui2.Borders;
+import com.googlecode.lanterna.gui2.GridLayout;
+import com.googlecode.lanterna.gui2.Label;
+import com.googlecode.lanterna.gui2.MultiWindowTextGUI;
+import com.googlecode.lanterna.gui2.Panel;
+import com.googlecode.lanterna.gui2.Window;
+import com.googlecode.lanterna.gui2.WindowListenerAdapter;
+import com.googlecode.lanterna.input.KeyStroke;
+
+import fr.jeremyhurel.models.ClusterCutIndex;
+import fr.jeremyhurel.models.ClusterTree.ClusterNode;
+import fr.jeremyhurel.models.ModuleExplorer;
+import fr.jeremyhurel.models.ModuleGraph;
+import fr.jeremyhurel.utils.Dialog;
+
+public class ModuleExplorerDialog implements Dialog {
+
+    private static final int LISTED_MODULES = 10;
+    private static final int PAGE_STEP = 10;
+
+    private MultiWindowTextGUI gui;
+    private BasicWindow window;
+    private final ModuleExplorer explorer;
+    private final Consumer<ModuleGraph> onConfirm;
+
+    private boolean thresholdMode;
+    private int targetCount;
+    private int thresholdLevel;
+
+    private Label cutLabel;
+    private Label summaryLabel;
+    private Label modulesLabel;
+    private Label timingLabel;
+
+    public ModuleExplorerDialog(MultiWindowTextGUI gui, ModuleExplorer explorer, int initialCount,
+                                Consumer<ModuleGraph> onConfirm) {
+        this.gui = gui;
+        this.explorer = explorer;
+        this.onConfirm = onConfirm;
+        this.targetCount = Math.max(1, Math.min(initialCount, explorer.getClassCount()));
+    }
+
+    @Override
+    public void show() {
+        window = new BasicWindow("Module Explorer - " + explorer.getClassCount() + " classes");
+        window.setHints(java.util.Arrays.asList(Window.Hint.CENTERED));
+
+        Panel mainPanel = new Panel(new GridLayout(1));
+        Panel textPanel = new Panel(new GridLayout(1));
+
+        cutLabel = new Label("");
+        summaryLabel = new Label("");
+        modulesLabel = new Label("");
+        timingLabel = new Label("");
+
+        textPanel.addComponent(cutLabel);
+        textPanel.addComponent(summaryLabel);
+        textPanel.addComponent(modulesLabel);
+        textPanel.addComponent(timingLabel);
+
+        mainPanel.addComponent(textPanel.withBorder(Borders.singleLine("Live Cut")));
+        mainPanel.addComponent(new Label("LEFT/RIGHT: fewer/more modules   PGUP/PGDN: x" + PAGE_STEP));
+        mainPanel.addComponent(new Label("TAB: switch count/threshold   B: best modularity"));
+        mainPanel.addComponent(new Label("ENTER: keep cut   ESC: close"));
+
+        window.addWindowListener(new WindowListenerAdapter() {
+            @Override
+            public void onInput(Window basePane, KeyStroke keyStroke, AtomicBoolean deliverEvent) {
+                deliverEvent.set(!handleKey(keyStroke));
+            }
+        });
+
+        recompute();
+
+        window.setComponent(mainPanel);
+        gui.addWindow(window);
+    }
+
+    @Override
+    public void close() {
+        if (window != null) {
+            window.close();
+        }
+    }
+
+    @Override
+    public void confirm() {
+        ModuleGraph moduleGraph = explorer.toModuleGraph();
+        close();
+        onConfirm.accept(moduleGraph);
+    }
+
+    private boolean handleKey(KeyStroke keyStroke) {
+        switch (keyStroke.getKeyType()) {
+            case ArrowRight:
+                step(1);
+                return true;
+            case ArrowLeft:
+                step(-1);
+                return true;
+            case PageDown:
+                step(PAGE_STEP);
+                return true;
+            case PageUp:
+                step(-PAGE_STEP);
+                return true;
+            case Tab:
+            case ReverseTab:
+                switchMode();
+                return true;
+            case Enter:
+                confirm();
+                return true;
+            case Escape:
+                close();
+                return true;
+            case Character:
+                if (Character.toLowerCase(keyStroke.getCharacter()) == 'b') {
+                    jumpToBestModularity();
+                    return true;
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    // Both modes step towards more modules with a positive delta: a higher
+    // threshold splits more clusters.
+    private void step(int delta) {
+        if (thresholdMode) {
+            int lastLevel = explorer.getCutIndex().getThresholdLevelCount() - 1;
+            thresholdLevel = Math.max(0, Math.min(thresholdLevel + delta, lastLevel));
+        } else {
+            targetCount = Math.max(1, Math.min(targetCount + delta, explorer.getClassCount()));
+        }
+        recompute();
+    }
+
+    private void jumpToBestModularity() {
+        if (!explorer.getCutIndex().hasCutScores()) {
+            return;
+        }
+        thresholdMode = false;
+        targetCount = explorer.getCutIndex().getBestModularityCount();
+        recompute();
+    }
+
+    // Keeps the current cut when switching: the threshold mode starts from the
+    // lowest level giving at least as many modules, the count mode from the
+    // current module count.
+    private void switchMode() {
+        thresholdMode = !thresholdMode;
+        if (thresholdMode) {
+            ClusterCutIndex index = explorer.getCutIndex();
+            int low = 0;
+            int high = index.getThresholdLevelCount() - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (index.cutByThreshold(index.getThresholdLevel(middle)).size() < explorer.getModuleCount()) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            thresholdLevel = low;
+        } else {
+            targetCount = Math.max(1, explorer.getModuleCount());
+        }
+        recompute();
+    }
+
+    private void recompute() {
+        long start = System.nanoTime();
+        if (thresholdMode) {
+            double threshold = explorer.getCutIndex().getThresholdLevel(thresholdLevel);
+            explorer.cutByThreshold(threshold);
+            cutLabel.setText("Mode: THRESHOLD  |  threshold " + String.format("%.4g", threshold)
+                    + " (level " + (thresholdLevel + 1) + "/" + explorer.getCutIndex().getThresholdLevelCount() + ")");
+        } else {
+            explorer.cutByCount(targetCount);
+            cutLabel.setText("Mode: COUNT  |  target " + targetCount + " modules");
+        }
+        long elapsed = (System.nanoTime() - start) / 1_000;
+
+        summaryLabel.setText("Modules: " + explorer.getModuleCount() + "  |  Average cohesion: "
+                + String.format("%.4f", explorer.getAverageCohesion()) + "\nModularity: "
+                + String.format("%.4f", explorer.getModularity()) + "  |  MQ: "
+                + String.format("%.3f", explorer.getModularizationQuality()));
+        modulesLabel.setText(describeModules());
+        timingLabel.setText("Recomputed in " + elapsed / 1000.0 + " ms ("
+                + explorer.getComputedClusterCount() + " new clusters measured)");
+    }
+
+    private String describeModules() {
+        List<ClusterNode> clusters = explorer.getClusters();
+        clusters.sort((a, b) -> Integer.compare(explorer.getModuleSize(b), explorer.getModuleSize(a)));
+
+        StringBuilder text = new StringBuilder("Largest modules:");
+        for (int i = 0; i < Math.min(clusters.size(), LISTED_MODULES); i++) {
+            ClusterNode cluster = clusters.get(i);
+            text.append("\n  * ").append(explorer.getModuleSize(cluster)).append(" classes (cohesion: ")
+                    .append(String.format("%.3f", explorer.getCohesion(cluster))).append(")");
+        }
+        if (clusters.size() > LISTED_MODULES) {
+            text.append("\n  ... and ").append(clusters.size() - LISTED_MODULES).append(" more modules");
+        }
+        return text.toString();
+    }
+}
@@ -1,6 +1,9 @@
 package fr.jeremyhurel.ui;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 import com.googlecode.lanterna.gui2.BasicWindow;
 import com.googlecode.lanterna.gui2.MultiWindowTextGUI;
@@ -8,8 +11,12 @@ import com.googlecode.lanterna.gui2.dialogs.ActionListDialogBuilder;
 import com.googlecode.lanterna.gui2.dialogs.MessageDialogBuilder;
 import com.googlecode.lanterna.gui2.dialogs.TextInputDialogBuilder;
 
+import fr.jeremyhurel.constants.AppConstants;
 import fr.jeremyhurel.models.ClusterTree;
 import fr.jeremyhurel.models.CouplingGraph;
+import fr.jeremyhurel.models.LabelPropagationClustering;
+import fr.jeremyhurel.models.LeidenClustering;
+import fr.jeremyhurel.models.ModuleExplorer;
 import fr.jeremyhurel.models.ModuleGraph;
 import fr.jeremyhurel.models.class_models.ClassDiagram;
 import fr.jeremyhurel.models.strategies.ParameterizedClusteringStrategy;
@@ -17,6 +24,8 @@ import fr.jeremyhurel.models.strategies.ParameterizedClusteringStrategy.Mode;
 import fr.jeremyhurel.processors.ClassDiagramProcessor;
 import fr.jeremyhurel.processors.CouplingGraphProcessor;
 import fr.jeremyhurel.utils.Dialog;
+import fr.jeremyhurel.utils.JsonExportReader;
+import fr.jeremyhurel.utils.SnapshotReader;
 import fr.jeremyhurel.utils.strategies.ClassDiagramWithModulesPlantUMLExportStrategy;
 
 public class ModuleExtractionDialog implements Dialog {
@@ -25,6 +34,7 @@ public class ModuleExtractionDialog implements Dialog {
     private BasicWindow window;
     private String projectPath;
     private String rootPackage;
+    private boolean savedGraph;
 
     public ModuleExtractionDialog(MultiWindowTextGUI gui) {
         this.gui = gui;
@@ -50,14 +60,20 @@ public class ModuleExtractionDialog implements Dialog {
     private void askForProjectPath() {
         String inputPath = new TextInputDialogBuilder()
                 .setTitle("Module Extraction - Step 1/3")
-                .setDescription("Enter the path to your Java project:\n(e.g., ./src/main/java or /path/to/project)")
+                .setDescription("Enter the path to your Java project:\n(e.g., ./src/main/java or /path/to/project)\n\n"
+                        + "or to a saved coupling graph (.json or .snap export)\nto recluster it without analysis")
                 .setInitialContent("./src/main/java")
                 .build()
                 .showDialog(gui);
 
         if (inputPath != null && !inputPath.trim().isEmpty()) {
             this.projectPath = inputPath.trim();
-            askForRootPackageOrNone();
+            this.savedGraph = Files.isRegularFile(Paths.get(projectPath));
+            if (savedGraph) {
+                askForClusteringStrategy();
+            } else {
+                askForRootPackageOrNone();
+            }
         }
     }
 
@@ -90,15 +106,21 @@ public class ModuleExtractionDialog implements Dialog {
                 .setDescription("""
                         Choose your clustering strategy:
                         
-                        [A] AUTO: Smart detection using elbow method
+                        [A] AUTO: Cut with the highest modularity
                         [F] FIXED: Specify exact number of modules
                         [T] THRESHOLD: Set minimum coupling threshold
                         [C] COMBINED: Mix fixed count with threshold
+                        [L] LEIDEN: Community detection, scales to large projects
+                        [P] PROPAGATION: Fast label propagation for a first look
+                        [E] EXPLORER: Tune the cut live with the arrow keys
                         """)
-                .addAction("[A] Automatic (Elbow Method)", this::extractModulesAutomatic)
+                .addAction("[A] Automatic (Best Modularity)", this::extractModulesAutomatic)
                 .addAction("[F] Fixed Number of Modules", this::extractModulesFixedCount)
                 .addAction("[T] Coupling Threshold", this::extractModulesCouplingThreshold)
                 .addAction("[C] Combined (Fixed + Threshold)", this::extractModulesCombined)
+                .addAction("[L] Community Detection (Leiden)", this::extractModulesLeiden)
+                .addAction("[P] Label Propagation (Fast)", this::extractModulesLabelPropagation)
+                .addAction("[E] Live Explorer (Interactive)", this::exploreModules)
                 .addAction("[X] Cancel", () -> {
                 })
                 .build()
@@ -124,7 +146,29 @@ public class ModuleExtractionDialog implements Dialog {
                 couplingGraph
             );
 
-            displayResults(moduleGraph, "[AUTO] Automatic (Elbow Method)");
+            displayResults(moduleGraph, "[AUTO] Automatic (Best Modularity)");
+            askForExportOptions(moduleGraph);
+
+        } catch (Exception e) {
+            showError("Module extraction failed", e);
+        }
+    }
+
+    private void extractModulesLeiden() {
+        try {
+            new MessageDialogBuilder()
+                    .setTitle("[LEIDEN] Community Detection")
+                    .setText("Detecting communities in the coupling graph...\nThis may take a moment.")
+                    .build()
+                    .showDialog(gui);
+
+            CouplingGraph couplingGraph = generateCouplingGraph();
+            if (couplingGraph == null) return;
+
+            LeidenClustering communityDetection = new LeidenClustering();
+            ModuleGraph moduleGraph = communityDetection.extractModules(couplingGraph);
+
+            displayResults(moduleGraph, "[LEIDEN] " + communityDetection.getStrategyName());
             askForExportOptions(moduleGraph);
 
         } catch (Exception e) {
@@ -132,6 +176,43 @@ public class ModuleExtractionDialog implements Dialog {
         }
     }
 
+    private void extractModulesLabelPropagation() {
+        try {
+            CouplingGraph couplingGraph = generateCouplingGraph();
+            if (couplingGraph == null) return;
+
+            LabelPropagationClustering labelPropagation = new LabelPropagationClustering();
+            ModuleGraph moduleGraph = labelPropagation.extractModules(couplingGraph);
+
+            displayResults(moduleGraph, "[PROPAGATION] " + labelPropagation.getStrategyName());
+            askForExportOptions(moduleGraph);
+
+        } catch (Exception e) {
+            showError("Module extraction failed", e);
+        }
+    }
+
+    private void exploreModules() {
+        try {
+            CouplingGraph couplingGraph = generateCouplingGraph();
+            if (couplingGraph == null) return;
+
+            ClusterTree clusterTree = new ClusterTree();
+            clusterTree.buildFromCouplingGraph(couplingGraph);
+
+            ModuleExplorer explorer = new ModuleExplorer(clusterTree, couplingGraph);
+            int initialCount = new ParameterizedClusteringStrategy(Mode.AUTO).cut(clusterTree.getCutIndex()).size();
+
+            new ModuleExplorerDialog(gui, explorer, initialCount, moduleGraph -> {
+                displayResults(moduleGraph, "[EXPLORER] Live Cut (" + moduleGraph.getModuleCount() + " modules)");
+                askForExportOptions(moduleGraph);
+            }).show();
+
+        } catch (Exception e) {
+            showError("Module extraction failed", e);
+        }
+    }
+
     private void extractModulesFixedCount() {
         String countStr = new TextInputDialogBuilder()
                 .setTitle("[FIXED] Fixed Module Count")
@@ -329,6 +410,10 @@ public class ModuleExtractionDialog implements Dialog {
     }
 
     private CouplingGraph generateCouplingGraph() {
+        if (savedGraph) {
+            return loadCouplingGraph();
+        }
+
         try {
             new MessageDialogBuilder()
                     .setTitle("[PROCESSING] Analyzing Project")
@@ -363,6 +448,47 @@ public class ModuleExtractionDialog implements Dialog {
         }
     }
 
+    private CouplingGraph loadCouplingGraph() {
+        try {
+            CouplingGraph couplingGraph = projectPath.endsWith(AppConstants.SNAPSHOT_EXTENSION)
+                    ? SnapshotReader.readCouplingGraph(projectPath)
+                    : JsonExportReader.readCouplingGraph(projectPath);
+
+            if (couplingGraph.isEmpty()) {
+                new MessageDialogBuilder()
+                        .setTitle("[ERROR] No Classes Found")
+                        .setText("The saved coupling graph has no classes:\n" + projectPath)
+                        .build()
+                        .showDialog(gui);
+                return null;
+            }
+
+            return couplingGraph;
+
+        } catch (Exception e) {
+            showError("Loading the saved coupling graph failed", e);
+            return null;
+        }
+    }
+
+    // A saved graph has no sources to scan, so the diagram comes from the
+    // class diagram export, by default the one saved next to the graph.
+    private ClassDiagram loadClassDiagram() throws IOException {
+        Path sibling = Paths.get(projectPath).resolveSibling("classdiagram" + AppConstants.JSON_EXTENSION);
+        String diagramPath = new TextInputDialogBuilder()
+                .setTitle("Export PlantUML - Class Diagram")
+                .setDescription("Enter the saved class diagram (.json export):\n"
+                        + "(attributes and methods are not part of it)")
+                .setInitialContent(sibling.toString())
+                .build()
+                .showDialog(gui);
+
+        if (diagramPath == null || diagramPath.trim().isEmpty()) {
+            return null;
+        }
+        return JsonExportReader.readClassDiagram(diagramPath.trim());
+    }
+
     private void displayResults(ModuleGraph moduleGraph, String strategyName) {
         StringBuilder result = new StringBuilder();
         result.append("+========================================+\n");
@@ -458,13 +584,19 @@ public class ModuleExtractionDialog implements Dialog {
                         .build()
                         .showDialog(gui);
 
-                ClassDiagramProcessor processor;
-                if (rootPackage != null) {
-                    processor = new ClassDiagramProcessor(projectPath, rootPackage);
+                ClassDiagram classDiagram;
+                if (savedGraph) {
+                    classDiagram = loadClassDiagram();
+                    if (classDiagram == null) return;
                 } else {
-                    processor = new ClassDiagramProcessor(projectPath);
+                    ClassDiagramProcessor processor;
+                    if (rootPackage != null) {
+                        processor = new ClassDiagramProcessor(projectPath, rootPackage);
+                    } else {
+                        processor = new ClassDiagramProcessor(projectPath);
+                    }
+                    classDiagram = processor.generateClassDiagram();
                 }
-                ClassDiagram classDiagram = processor.generateClassDiagram();
 
                 ClassDiagramWithModulesPlantUMLExportStrategy strategy =
                     new ClassDiagramWithModulesPlantUMLExportStrategy(classDiagram, moduleGraph);
@@ -0,0 +1,195 @@
+package fr.jeremyhurel.ui;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Set;
+
+import com.googlecode.lanterna.gui2.BasicWindow;
+import com.googlecode.lanterna.gui2.Borders;
+import com.googlecode.lanterna.gui2.Button;
+import com.googlecode.lanterna.gui2.GridLayout;
+import com.googlecode.lanterna.gui2.Label;
+import com.googlecode.lanterna.gui2.MultiWindowTextGUI;
+import com.googlecode.lanterna.gui2.Panel;
+import com.googlecode.lanterna.gui2.Window;
+import com.googlecode.lanterna.gui2.dialogs.ActionListDialogBuilder;
+import com.googlecode.lanterna.gui2.dialogs.MessageDialogBuilder;
+import com.googlecode.lanterna.gui2.dialogs.TextInputDialogBuilder;
+
+import fr.jeremyhurel.models.CallGraph;
+import fr.jeremyhurel.models.CouplingGraph;
+import fr.jeremyhurel.models.ProjectStatistics;
+import fr.jeremyhurel.models.class_models.ClassDiagram;
+import fr.jeremyhurel.models.fact_models.FactDelta;
+import fr.jeremyhurel.processors.IncrementalAnalysis;
+import fr.jeremyhurel.utils.Dialog;
+import fr.jeremyhurel.utils.SourceWatcher;
+
+public class WatchDialog implements Dialog {
+
+    private MultiWindowTextGUI gui;
+    private BasicWindow window;
+    private String projectPath;
+    private String rootPackage;
+    private IncrementalAnalysis analysis;
+    private SourceWatcher watcher;
+
+    private Label couplingLabel;
+    private Label callGraphLabel;
+    private Label classDiagramLabel;
+    private Label statisticsLabel;
+    private Label lastUpdateLabel;
+
+    public WatchDialog(MultiWindowTextGUI gui) {
+        this.gui = gui;
+    }
+
+    public void show() {
+        askForProjectPath();
+    }
+
+    public void close() {
+        stopWatching();
+        if (window != null) {
+            window.close();
+        }
+    }
+
+    public void confirm() {
+        startWatching();
+    }
+
+    private void askForProjectPath() {
+        String inputPath = new TextInputDialogBuilder()
+                .setTitle("Watch Project - Project Path")
+                .setDescription("Enter the path to your Java project:")
+                .setInitialContent("./src/main/java")
+                .build()
+                .showDialog(gui);
+
+        if (inputPath != null && !inputPath.trim().isEmpty()) {
+            this.projectPath = inputPath.trim();
+            askForRootPackage();
+        }
+    }
+
+    private void askForRootPackage() {
+        new ActionListDialogBuilder()
+                .setTitle("Watch Project - Root Package")
+                .setDescription("Select a root package or choose 'All Packages':")
+                .addAction("All Packages", this::startWatching)
+                .addAction("Specify Root Package", () -> {
+                    String packageName = new TextInputDialogBuilder()
+                            .setTitle("Root Package")
+                            .setDescription("Enter the root package name (e.g., com.example):")
+                            .build()
+                            .showDialog(gui);
+
+                    if (packageName != null && !packageName.trim().isEmpty()) {
+                        this.rootPackage = packageName.trim();
+                        startWatching();
+                    }
+                })
+                .addAction("Cancel", () -> {
+                })
+                .build()
+                .showDialog(gui);
+    }
+
+    private void startWatching() {
+        try {
+            new MessageDialogBuilder()
+                    .setTitle("Watch Project")
+                    .setText("Running initial analysis... Please wait.")
+                    .build()
+                    .showDialog(gui);
+
+            analysis = new IncrementalAnalysis(projectPath, rootPackage);
+            analysis.initialize();
+
+            watcher = new SourceWatcher(Paths.get(projectPath), this::onSourcesChanged);
+
+            showWatchWindow();
+            watcher.start();
+
+        } catch (Exception e) {
+            stopWatching();
+            new MessageDialogBuilder()
+                    .setTitle("Error")
+                    .setText("Failed to watch project:\n" + e.getMessage())
+                    .build()
+                    .showDialog(gui);
+        }
+    }
+
+    private void onSourcesChanged(Set<Path> changedPaths) {
+        try {
+            FactDelta delta = analysis.refresh(changedPaths);
+            if (!delta.isEmpty()) {
+                String update = "Last update: " + delta + " in " + analysis.getLastUpdateTimeMillis() + " ms";
+                gui.getGUIThread().invokeLater(() -> refreshLabels(update));
+            }
+        } catch (RuntimeException e) {
+            gui.getGUIThread().invokeLater(() -> lastUpdateLabel.setText("Update failed: " + e.getMessage()));
+        }
+    }
+
+    private void showWatchWindow() {
+        window = new BasicWindow("Watching " + projectPath);
+        window.setHints(java.util.Arrays.asList(Window.Hint.CENTERED));
+
+        Panel mainPanel = new Panel(new GridLayout(1));
+        Panel textPanel = new Panel(new GridLayout(1));
+
+        couplingLabel = new Label("");
+        callGraphLabel = new Label("");
+        classDiagramLabel = new Label("");
+        statisticsLabel = new Label("");
+        lastUpdateLabel = new Label("");
+
+        textPanel.addComponent(couplingLabel);
+        textPanel.addComponent(callGraphLabel);
+        textPanel.addComponent(classDiagramLabel);
+        textPanel.addComponent(statisticsLabel);
+        textPanel.addComponent(lastUpdateLabel);
+
+        mainPanel.addComponent(textPanel.withBorder(Borders.singleLine("Live Analysis")));
+        mainPanel.addComponent(new Label("Edit, add or delete .java files to update the analyses."));
+        mainPanel.addComponent(new Button("Stop Watching", this::close));
+
+        refreshLabels("Initial analysis: " + analysis.getSession().getFactCacheSummary());
+
+        window.setComponent(mainPanel);
+        gui.addWindow(window);
+    }
+
+    private void refreshLabels(String update) {
+        CouplingGraph couplingGraph = analysis.getCouplingGraph();
+        CallGraph callGraph = analysis.getCallGraph();
+        ClassDiagram classDiagram = analysis.getClassDiagram();
+        ProjectStatistics statistics = analysis.getStatistics();
+
+        couplingLabel.setText("Coupling: " + couplingGraph.getNodeCount() + " classes, "
+                + couplingGraph.getCouplingCount() + " relationships, "
+                + couplingGraph.getTotalMethodCalls() + " method calls");
+        callGraphLabel.setText("Call graph: " + callGraph.getNodeCount() + " methods");
+        classDiagramLabel.setText("Class diagram: " + classDiagram.getClassCount() + " classes, "
+                + classDiagram.getRelationshipCount() + " relationships");
+        statisticsLabel.setText("Statistics: " + statistics.getTotalClasses() + " classes, "
+                + statistics.getTotalMethods() + " methods, "
+                + statistics.getTotalLinesOfCode() + " LOC");
+        lastUpdateLabel.setText(update + " (" + analysis.getUpdateCount() + " updates)");
+    }
+
+    private void stopWatching() {
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                System.err.println("Could not stop source watcher: " + e.getMessage());
+            }
+            watcher = null;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import fr.jeremyhurel.models.CallGraph;
 import fr.jeremyhurel.utils.strategies.CallGraphJsonExportStrategy;
 import fr.jeremyhurel.utils.strategies.CallGraphDotExportStrategy;
 import fr.jeremyhurel.utils.strategies.ExportStrategy;
+import fr.jeremyhurel.utils.strategies.CallGraphSnapshotExportStrategy;
 
 public class CallGraphExporter {
 
@@ -18,11 +19,27 @@ public class CallGraphExporter {
         strategy.export(callGraph, filePath);
     }
 
+    public static void exportToJson(CallGraph callGraph, String filePath, boolean pretty) throws IOException {
+        ExportStrategy<CallGraph> strategy = new CallGraphJsonExportStrategy(pretty);
+        strategy.export(callGraph, filePath);
+    }
+
     public static void exportToDot(CallGraph callGraph, String filePath) throws IOException {
         ExportStrategy<CallGraph> strategy = new CallGraphDotExportStrategy();
         strategy.export(callGraph, filePath);
     }
 
+    public static void exportToDot(CallGraph callGraph, String filePath, int maxNodes, int maxEdges)
+            throws IOException {
+        ExportStrategy<CallGraph> strategy = new CallGraphDotExportStrategy(maxNodes, maxEdges);
+        strategy.export(callGraph, filePath);
+    }
+
+    public static void exportToSnapshot(CallGraph callGraph, String filePath) throws IOException {
+        ExportStrategy<CallGraph> strategy = new CallGraphSnapshotExportStrategy();
+        strategy.export(callGraph, filePath);
+    }
+
     public static void export(CallGraph callGraph, ExportStrategy<CallGraph> strategy, String filePath)
             throws IOException {
         strategy.export(callGraph, filePath);
@@ -18,6 +18,11 @@ public class ClassDiagramExporter {
         strategy.export(classDiagram, filePath);
     }
 
+    public static void exportToJson(ClassDiagram classDiagram, String filePath, boolean pretty) throws IOException {
+        ExportStrategy<ClassDiagram> strategy = new ClassDiagramJsonExportStrategy(pretty);
+        strategy.export(classDiagram, filePath);
+    }
+
     public static void exportToPlantUML(ClassDiagram classDiagram, String filePath) throws IOException {
         ExportStrategy<ClassDiagram> strategy = new ClassDiagramPlantUMLExportStrategy();
         strategy.export(classDiagram, filePath);
@@ -1,15 +1,14 @@
 package fr.jeremyhurel.utils;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 
 import fr.jeremyhurel.models.ClusterTree;
 import fr.jeremyhurel.models.ClusterTree.ClusterNode;
-import static fr.jeremyhurel.utils.StringFormatter.escapeDot;
-import static fr.jeremyhurel.utils.StringFormatter.escapeJson;
-import static fr.jeremyhurel.utils.StringFormatter.formatScientific;
+import fr.jeremyhurel.utils.strategies.ClusterTreeSnapshotExportStrategy;
 
 public class ClusterTreeExporter {
 
@@ -18,66 +17,81 @@ public class ClusterTreeExporter {
     }
 
     public static void exportToJson(ClusterTree clusterTree, String filePath) throws IOException {
-        try (FileWriter writer = new FileWriter(filePath)) {
-            writer.write("{\n");
-            writer.write("  \"clusterTree\": {\n");
-            writer.write("    \"depth\": " + clusterTree.getDepth() + ",\n");
-            writer.write("    \"mergeSteps\": " + clusterTree.getMergeHistory().size() + ",\n");
-            writer.write("    \"root\": ");
+        exportToJson(clusterTree, filePath, true);
+    }
 
+    public static void exportToJson(ClusterTree clusterTree, String filePath, boolean pretty) throws IOException {
+        try (JsonWriter json = new JsonWriter(filePath, pretty)) {
+            json.beginObject().name("clusterTree").beginObject();
+            json.name("engine").value(clusterTree.getEngine().name());
+            json.name("linkage").value(clusterTree.getLinkage().name());
+            json.name("depth").value(clusterTree.getDepth());
+            json.name("mergeSteps").value(clusterTree.getMergeHistory().size());
+            json.name("root");
             if (clusterTree.getRoot() != null) {
-                writeNodeJson(writer, clusterTree.getRoot(), 2);
+                writeNodeJson(json, clusterTree.getRoot());
             } else {
-                writer.write("null");
+                json.nullValue();
             }
 
-            writer.write(",\n");
-            writer.write("    \"mergeHistory\": [\n");
-
-            boolean first = true;
+            json.name("mergeHistory").beginArray();
+            int step = 1;
             for (ClusterNode node : clusterTree.getMergeHistory()) {
-                if (!first) {
-                    writer.write(",\n");
-                }
-                writer.write("      {\n");
-                writer.write("        \"step\": " + (clusterTree.getMergeHistory().indexOf(node) + 1) + ",\n");
-                writer.write("        \"clusterName\": \"" + escapeJson(node.getName()) + "\",\n");
-                writer.write("        \"couplingValue\": " + node.getCouplingValue() + ",\n");
-                writer.write("        \"leftChild\": \"" + escapeJson(node.getLeft().getName()) + "\",\n");
-                writer.write("        \"rightChild\": \"" + escapeJson(node.getRight().getName()) + "\"\n");
-                writer.write("      }");
-                first = false;
-            }
-
-            writer.write("\n    ]\n");
-            writer.write("  }\n");
-            writer.write("}\n");
+                json.beginObject();
+                json.name("step").value(step++);
+                json.name("clusterName").value(node.getName());
+                json.name("couplingValue").value(node.getCouplingValue());
+                json.name("leftChild").value(node.getLeft().getName());
+                json.name("rightChild").value(node.getRight().getName());
+                json.endObject();
+            }
+            json.endArray();
+
+            json.endObject().endObject();
         }
     }
 
-    private static void writeNodeJson(FileWriter writer, ClusterNode node, int indent) throws IOException {
-        String indentStr = " ".repeat(indent);
-
-        writer.write("{\n");
-        writer.write(indentStr + "  \"id\": " + node.getId() + ",\n");
-        writer.write(indentStr + "  \"name\": \"" + escapeJson(node.getName()) + "\",\n");
-        writer.write(indentStr + "  \"isLeaf\": " + node.isLeaf() + ",\n");
-        writer.write(indentStr + "  \"couplingValue\": " + node.getCouplingValue());
-
-        if (!node.isLeaf()) {
-            writer.write(",\n");
-            writer.write(indentStr + "  \"left\": ");
-            writeNodeJson(writer, node.getLeft(), indent + 2);
-            writer.write(",\n");
-            writer.write(indentStr + "  \"right\": ");
-            writeNodeJson(writer, node.getRight(), indent + 2);
+    // Trees built from 20k classes can be chains as deep as the class count,
+    // so every walk below keeps its own stack instead of recursing.
+    private static final class Frame {
+        private final ClusterNode node;
+        private int visitedChildren;
+
+        private Frame(ClusterNode node) {
+            this.node = node;
         }
+    }
+
+    private static void writeNodeJson(JsonWriter json, ClusterNode root) throws IOException {
+        Deque<Frame> stack = new ArrayDeque<>();
+        stack.push(new Frame(root));
+        while (!stack.isEmpty()) {
+            Frame frame = stack.peek();
+            ClusterNode node = frame.node;
+
+            if (frame.visitedChildren == 0) {
+                json.beginObject();
+                json.name("id").value(node.getId());
+                json.name("name").value(node.getName());
+                json.name("isLeaf").value(node.isLeaf());
+                json.name("couplingValue").value(node.getCouplingValue());
+            }
 
-        writer.write("\n" + indentStr + "}");
+            if (node.isLeaf() || frame.visitedChildren == 2) {
+                json.endObject();
+                stack.pop();
+            } else if (frame.visitedChildren++ == 0) {
+                json.name("left");
+                stack.push(new Frame(node.getLeft()));
+            } else {
+                json.name("right");
+                stack.push(new Frame(node.getRight()));
+            }
+        }
     }
 
     public static void exportToDot(ClusterTree clusterTree, String filePath) throws IOException {
-        try (FileWriter writer = new FileWriter(filePath)) {
+        try (ExportWriter writer = new ExportWriter(filePath)) {
             writer.write("digraph ClusterTree {\n");
             writer.write("  rankdir=TB;\n");
             writer.write("  node [shape=box, style=\"rounded,filled\", fillcolor=lightblue];\n");
@@ -87,8 +101,8 @@ public class ClusterTreeExporter {
             if (clusterTree.getRoot() != null) {
                 List<ClusterNode> leaves = getLeafNodes(clusterTree.getRoot());
                 for (ClusterNode leaf : leaves) {
-                    writer.write("  node" + leaf.getId() + " [label=\"" + escapeDot(leaf.getName())
-                            + "\", fillcolor=lightgreen];\n");
+                    writer.write("  node").writeInt(leaf.getId()).write(" [label=\"").writeEscaped(leaf.getName())
+                            .write("\", fillcolor=lightgreen];\n");
                 }
             }
 
@@ -96,11 +110,10 @@ public class ClusterTreeExporter {
             if (clusterTree.getRoot() != null) {
                 List<ClusterNode> internals = getInternalNodes(clusterTree.getRoot());
                 for (ClusterNode internal : internals) {
-
-                    String nodeName = internal.getName();
-                    String label = nodeName + "\\n" + formatScientific(internal.getCouplingValue());
-                    writer.write("  node" + internal.getId() + " [label=\"" + escapeDot(label)
-                            + "\", fillcolor=lightyellow];\n");
+                    // The label escapes its own "\n" separator, as it always has.
+                    writer.write("  node").writeInt(internal.getId()).write(" [label=\"").writeEscaped(internal.getName())
+                            .write("\\\\n").writeScientific(internal.getCouplingValue())
+                            .write("\", fillcolor=lightyellow];\n");
                 }
             }
 
@@ -114,97 +127,143 @@ public class ClusterTreeExporter {
     }
 
     public static void exportToNewick(ClusterTree clusterTree, String filePath) throws IOException {
-        try (FileWriter writer = new FileWriter(filePath)) {
+        try (ExportWriter writer = new ExportWriter(filePath)) {
             if (clusterTree.getRoot() != null) {
-                writer.write(writeNewick(clusterTree.getRoot()));
+                writeNewick(writer, clusterTree.getRoot());
                 writer.write(";\n");
             }
         }
     }
 
-    private static String writeNewick(ClusterNode node) {
-        if (node.isLeaf()) {
-            return node.getName() + ":" + formatScientific(node.getCouplingValue());
+    private static void writeNewick(ExportWriter writer, ClusterNode root) throws IOException {
+        Deque<Frame> stack = new ArrayDeque<>();
+        stack.push(new Frame(root));
+        while (!stack.isEmpty()) {
+            Frame frame = stack.peek();
+            ClusterNode node = frame.node;
+
+            if (node.isLeaf()) {
+                writer.write(node.getName()).write(':').writeScientific(node.getCouplingValue());
+                stack.pop();
+            } else if (frame.visitedChildren == 0) {
+                writer.write('(');
+                frame.visitedChildren++;
+                stack.push(new Frame(node.getLeft()));
+            } else if (frame.visitedChildren == 1) {
+                writer.write(',');
+                frame.visitedChildren++;
+                stack.push(new Frame(node.getRight()));
+            } else {
+                writer.write("):").writeScientific(node.getCouplingValue());
+                stack.pop();
+            }
         }
+    }
 
-        String left = writeNewick(node.getLeft());
-        String right = writeNewick(node.getRight());
-
-        return "(" + left + "," + right + "):" + formatScientific(node.getCouplingValue());
+    public static void exportToSnapshot(ClusterTree clusterTree, String filePath) throws IOException {
+        new ClusterTreeSnapshotExportStrategy().export(clusterTree, filePath);
     }
 
     public static void exportToText(ClusterTree clusterTree, String filePath) throws IOException {
-        try (FileWriter writer = new FileWriter(filePath)) {
+        try (ExportWriter writer = new ExportWriter(filePath)) {
             writer.write("Hierarchical Cluster Tree\n");
             writer.write("=========================\n\n");
-            writer.write("Tree Depth: " + clusterTree.getDepth() + "\n");
-            writer.write("Merge Steps: " + clusterTree.getMergeHistory().size() + "\n\n");
+            writer.write("Tree Depth: ").writeInt(clusterTree.getDepth()).write('\n');
+            writer.write("Merge Steps: ").writeInt(clusterTree.getMergeHistory().size()).write("\n\n");
 
             writer.write("Merge History (chronological):\n");
             writer.write("------------------------------\n");
 
             int step = 1;
             for (ClusterNode node : clusterTree.getMergeHistory()) {
-                writer.write(String.format("Step %d: Merged '%s' and '%s' (coupling: %s) -> '%s'\n",
-                        step++,
-                        node.getLeft().getName(),
-                        node.getRight().getName(),
-                        formatScientific(node.getCouplingValue()),
-                        node.getName()));
+                writer.write("Step ").writeInt(step++)
+                        .write(": Merged '").write(node.getLeft().getName())
+                        .write("' and '").write(node.getRight().getName())
+                        .write("' (coupling: ").writeScientific(node.getCouplingValue())
+                        .write(") -> '").write(node.getName()).write("'\n");
             }
 
             writer.write("\n\nTree Structure:\n");
             writer.write("---------------\n");
             if (clusterTree.getRoot() != null) {
-                writeTextTree(writer, clusterTree.getRoot(), "", true);
+                writeTextTree(writer, clusterTree.getRoot());
             }
         }
     }
 
-    private static void writeTextTree(FileWriter writer, ClusterNode node, String prefix, boolean isTail)
-            throws IOException {
-        writer.write(prefix + (isTail ? "└── " : "├── ") + node.getName());
-        if (!node.isLeaf()) {
-            writer.write(" [coupling: " + formatScientific(node.getCouplingValue()) + "]");
-        }
-        writer.write("\n");
-
-        if (!node.isLeaf()) {
-            writeTextTree(writer, node.getLeft(), prefix + (isTail ? "    " : "│   "), false);
-            writeTextTree(writer, node.getRight(), prefix + (isTail ? "    " : "│   "), true);
+    // The prefix of a node only extends the prefix of its parent, so a single
+    // buffer cut back to each node's own length replaces a string per level.
+    private static void writeTextTree(ExportWriter writer, ClusterNode root) throws IOException {
+        StringBuilder prefix = new StringBuilder();
+        Deque<ClusterNode> nodes = new ArrayDeque<>();
+        Deque<int[]> positions = new ArrayDeque<>();
+        nodes.push(root);
+        positions.push(new int[] {0, 1});
+        while (!nodes.isEmpty()) {
+            ClusterNode node = nodes.pop();
+            int[] position = positions.pop();
+            boolean isTail = position[1] == 1;
+            prefix.setLength(position[0]);
+
+            writer.write(prefix).write(isTail ? "└── " : "├── ").write(node.getName());
+            if (!node.isLeaf()) {
+                writer.write(" [coupling: ").writeScientific(node.getCouplingValue()).write(']');
+            }
+            writer.write('\n');
+
+            if (!node.isLeaf()) {
+                prefix.append(isTail ? "    " : "│   ");
+                nodes.push(node.getRight());
+                positions.push(new int[] {prefix.length(), 1});
+                nodes.push(node.getLeft());
+                positions.push(new int[] {prefix.length(), 0});
+            }
         }
     }
 
-    private static void writeDotEdges(FileWriter writer, ClusterNode node) throws IOException {
-        if (!node.isLeaf()) {
-            writer.write("  node" + node.getId() + " -> node" + node.getLeft().getId()
-                    + " [label=\"\"];\n");
-            writer.write("  node" + node.getId() + " -> node" + node.getRight().getId()
-                    + " [label=\"\"];\n");
-
-            writeDotEdges(writer, node.getLeft());
-            writeDotEdges(writer, node.getRight());
+    private static void writeDotEdges(ExportWriter writer, ClusterNode root) throws IOException {
+        for (ClusterNode node : getInternalNodes(root)) {
+            writer.write("  node").writeInt(node.getId()).write(" -> node").writeInt(node.getLeft().getId())
+                    .write(" [label=\"\"];\n");
+            writer.write("  node").writeInt(node.getId()).write(" -> node").writeInt(node.getRight().getId())
+                    .write(" [label=\"\"];\n");
         }
     }
 
-    private static List<ClusterNode> getLeafNodes(ClusterNode node) {
-        List<ClusterNode> leaves = new ArrayList<>();
-        if (node.isLeaf()) {
-            leaves.add(node);
-        } else {
-            leaves.addAll(getLeafNodes(node.getLeft()));
-            leaves.addAll(getLeafNodes(node.getRight()));
+    private static List<ClusterNode> getLeafNodes(ClusterNode root) {
+        List<ClusterNode> leaves = new ArrayList<>(root.getLeafCount());
+        for (ClusterNode node : preOrder(root)) {
+            if (node.isLeaf()) {
+                leaves.add(node);
+            }
         }
         return leaves;
     }
 
-    private static List<ClusterNode> getInternalNodes(ClusterNode node) {
-        List<ClusterNode> internals = new ArrayList<>();
-        if (!node.isLeaf()) {
-            internals.add(node);
-            internals.addAll(getInternalNodes(node.getLeft()));
-            internals.addAll(getInternalNodes(node.getRight()));
+    private static List<ClusterNode> getInternalNodes(ClusterNode root) {
+        List<ClusterNode> internals = new ArrayList<>(Math.max(0, root.getLeafCount() - 1));
+        for (ClusterNode node : preOrder(root)) {
+            if (!node.isLeaf()) {
+                internals.add(node);
+            }
         }
         return internals;
     }
+
+    private static List<ClusterNode> preOrder(ClusterNode root) {
+        List<ClusterNode> order = new ArrayList<>(2 * root.getLeafCount());
+        Deque<ClusterNode> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            ClusterNode node = stack.pop();
+            order.add(node);
+            if (node.getRight() != null) {
+                stack.push(node.getRight());
+            }
+            if (node.getLeft() != null) {
+                stack.push(node.getLeft());
+            }
+        }
+        return order;
+    }
 }
@@ -6,6 +6,7 @@ import fr.jeremyhurel.models.CouplingGraph;
 import fr.jeremyhurel.utils.strategies.CouplingGraphJsonExportStrategy;
 import fr.jeremyhurel.utils.strategies.CouplingGraphDotExportStrategy;
 import fr.jeremyhurel.utils.strategies.ExportStrategy;
+import fr.jeremyhurel.utils.strategies.CouplingGraphSnapshotExportStrategy;
 
 public class CouplingGraphExporter {
 
@@ -18,11 +19,21 @@ public class CouplingGraphExporter {
         strategy.export(couplingGraph, filePath);
     }
 
+    public static void exportToJson(CouplingGraph couplingGraph, String filePath, boolean pretty) throws IOException {
+        ExportStrategy<CouplingGraph> strategy = new CouplingGraphJsonExportStrategy(pretty);
+        strategy.export(couplingGraph, filePath);
+    }
+
     public static void exportToDot(CouplingGraph couplingGraph, String filePath) throws IOException {
         ExportStrategy<CouplingGraph> strategy = new CouplingGraphDotExportStrategy();
         strategy.export(couplingGraph, filePath);
     }
 
+    public static void exportToSnapshot(CouplingGraph couplingGraph, String filePath) throws IOException {
+        ExportStrategy<CouplingGraph> strategy = new CouplingGraphSnapshotExportStrategy();
+        strategy.export(couplingGraph, filePath);
+    }
+
     public static void export(CouplingGraph couplingGraph, ExportStrategy<CouplingGraph> strategy, String filePath)
             throws IOException {
         strategy.export(couplingGraph, filePath);
@@ -0,0 +1,249 @@
+package fr.jeremyhurel.utils;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Buffered UTF-8 text output shared by the exporters. Text is collected in a
+// reusable char buffer and encoded into a byte buffer that is written to the
+// channel in large blocks, and numbers are formatted straight into the char
+// buffer, so writing a large graph does not allocate a string per value.
+public final class ExportWriter implements Closeable, Flushable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_FIXED_DECIMALS = 9;
+    private static final long[] POWERS_OF_TEN = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final char[] chars = new char[BUFFER_SIZE];
+    private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE * 2);
+    private final StringBuilder scratch = new StringBuilder(32);
+    private int count;
+
+    public ExportWriter(String filePath) throws IOException {
+        this(FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+    }
+
+    public ExportWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    // Null is written as "null", as string concatenation does.
+    public ExportWriter write(String text) throws IOException {
+        if (text == null) {
+            return write("null");
+        }
+        return write(text, 0, text.length());
+    }
+
+    public ExportWriter write(String text, int start, int end) throws IOException {
+        while (start < end) {
+            if (count == chars.length) {
+                drainChars(false);
+            }
+            int chunk = Math.min(end - start, chars.length - count);
+            text.getChars(start, start + chunk, chars, count);
+            count += chunk;
+            start += chunk;
+        }
+        return this;
+    }
+
+    public ExportWriter write(CharSequence text) throws IOException {
+        if (text == null) {
+            return write("null");
+        }
+        for (int i = 0; i < text.length(); i++) {
+            write(text.charAt(i));
+        }
+        return this;
+    }
+
+    public ExportWriter write(char c) throws IOException {
+        if (count == chars.length) {
+            drainChars(false);
+        }
+        chars[count++] = c;
+        return this;
+    }
+
+    public ExportWriter writeRepeated(char c, int times) throws IOException {
+        for (int i = 0; i < times; i++) {
+            write(c);
+        }
+        return this;
+    }
+
+    // Same text as escapeJson and escapeDot, in one pass over the value.
+    public ExportWriter writeEscaped(String value) throws IOException {
+        if (value == null) {
+            return this;
+        }
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            char escaped = switch (c) {
+                case '\\' -> '\\';
+                case '"' -> '"';
+                case '\n' -> 'n';
+                case '\r' -> 'r';
+                case '\t' -> 't';
+                default -> 0;
+            };
+            if (escaped != 0) {
+                write(value, start, i);
+                write('\\').write(escaped);
+                start = i + 1;
+            }
+        }
+        return write(value, start, value.length());
+    }
+
+    public ExportWriter writeInt(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            return write(Long.toString(value));
+        }
+        if (chars.length - count < 20) {
+            drainChars(false);
+        }
+        if (value < 0) {
+            chars[count++] = '-';
+            value = -value;
+        }
+        int end = count + digitCount(value);
+        for (int i = end - 1; i >= count; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        count = end;
+        return this;
+    }
+
+    // Same text as String.valueOf(double).
+    public ExportWriter writeDouble(double value) throws IOException {
+        scratch.setLength(0);
+        scratch.append(value);
+        return writeScratch();
+    }
+
+    // Same text as String.format("%.Nf") with a '.' separator whatever the
+    // default locale. The formatter rounds the shortest decimal form of the
+    // value half up, which the scaled value reproduces unless it lies right
+    // at a half; those rare cases go through BigDecimal.
+    public ExportWriter writeFixed(double value, int decimals) throws IOException {
+        if (decimals < 0 || decimals > MAX_FIXED_DECIMALS) {
+            throw new IllegalArgumentException("Unsupported number of decimals: " + decimals);
+        }
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return write(Double.toString(value));
+        }
+
+        if (Double.compare(value, 0.0) < 0) {
+            write('-');
+        }
+        double scaled = Math.abs(value) * POWERS_OF_TEN[decimals];
+        double floor = Math.floor(scaled);
+        double fraction = scaled - floor;
+        if (scaled >= 1e15 || Math.abs(fraction - 0.5) <= 1e-9 + scaled * 1e-13) {
+            return write(new BigDecimal(Double.toString(Math.abs(value)))
+                    .setScale(decimals, RoundingMode.HALF_UP).toPlainString());
+        }
+
+        long units = (long) floor + (fraction > 0.5 ? 1 : 0);
+        writeInt(units / POWERS_OF_TEN[decimals]);
+        if (decimals > 0) {
+            write('.');
+            long digits = units % POWERS_OF_TEN[decimals];
+            writeRepeated('0', decimals - digitCount(digits));
+            writeInt(digits);
+        }
+        return this;
+    }
+
+    // Same text as StringFormatter.formatScientific.
+    public ExportWriter writeScientific(double value) throws IOException {
+        if (value == 0.0) {
+            return write('0');
+        }
+        int exponent = (int) Math.floor(Math.log10(Math.abs(value)));
+        double mantissa = value / Math.pow(10, exponent);
+        return writeFixed(mantissa, 2).write("×10^").writeInt(exponent);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drainChars(false);
+        drainBytes();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drainChars(true);
+            while (encoder.flush(bytes).isOverflow()) {
+                drainBytes();
+            }
+            drainBytes();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private ExportWriter writeScratch() throws IOException {
+        if (chars.length - count < scratch.length()) {
+            drainChars(false);
+        }
+        scratch.getChars(0, scratch.length(), chars, count);
+        count += scratch.length();
+        return this;
+    }
+
+    // A high surrogate at the end of the buffer stays there until its low half
+    // arrives, so pairs split across two drains are still encoded together.
+    private void drainChars(boolean endOfInput) throws IOException {
+        CharBuffer input = CharBuffer.wrap(chars, 0, count);
+        CoderResult result = encoder.encode(input, bytes, endOfInput);
+        while (result.isOverflow()) {
+            drainBytes();
+            result = encoder.encode(input, bytes, endOfInput);
+        }
+        int remaining = input.remaining();
+        System.arraycopy(chars, input.position(), chars, 0, remaining);
+        count = remaining;
+    }
+
+    private void drainBytes() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    private static int digitCount(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+}
@@ -0,0 +1,261 @@
+package fr.jeremyhurel.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+import fr.jeremyhurel.constants.AppConstants;
+import fr.jeremyhurel.models.fact_models.FieldFacts;
+import fr.jeremyhurel.models.fact_models.InvocationFacts;
+import fr.jeremyhurel.models.fact_models.MethodFacts;
+import fr.jeremyhurel.models.fact_models.SourceFileFacts;
+import fr.jeremyhurel.models.fact_models.TypeFacts;
+
+public class FactCache {
+
+    private static final int MAGIC = 0x4A525446;
+    private static final int FORMAT_VERSION = 1;
+    private static final String ENTRY_EXTENSION = ".facts";
+
+    private final Path directory;
+    private int hits;
+    private int misses;
+    private long readTimeMillis;
+
+    public FactCache() {
+        this(Paths.get(AppConstants.CACHE_DIRECTORY));
+    }
+
+    public FactCache(Path directory) {
+        this.directory = directory;
+    }
+
+    public static String hash(Path file) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = digest.digest(Files.readAllBytes(file));
+            StringBuilder hex = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+                hex.append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public synchronized SourceFileFacts load(String path, String contentHash) {
+        long start = System.currentTimeMillis();
+        try {
+            Path entry = entryPath(contentHash);
+            if (!Files.isRegularFile(entry)) {
+                misses++;
+                return null;
+            }
+
+            try (DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(Files.newInputStream(entry)))) {
+                if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION
+                        || !contentHash.equals(in.readUTF())) {
+                    misses++;
+                    return null;
+                }
+
+                SourceFileFacts facts = new SourceFileFacts(path, contentHash);
+                int typeCount = in.readInt();
+                for (int i = 0; i < typeCount; i++) {
+                    facts.addType(readType(in));
+                }
+                hits++;
+                return facts;
+            }
+        } catch (IOException e) {
+            misses++;
+            return null;
+        } finally {
+            readTimeMillis += System.currentTimeMillis() - start;
+        }
+    }
+
+    public synchronized void store(SourceFileFacts facts) {
+        try {
+            Files.createDirectories(directory);
+            Path entry = entryPath(facts.getContentHash());
+            Path temp = Files.createTempFile(directory, facts.getContentHash(), ".tmp");
+
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(facts.getContentHash());
+                out.writeInt(facts.getTypes().size());
+                for (TypeFacts type : facts.getTypes()) {
+                    writeType(out, type);
+                }
+            }
+
+            Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("Could not write fact cache entry for " + facts.getPath() + ": " + e.getMessage());
+        }
+    }
+
+    public synchronized void resetStatistics() {
+        hits = 0;
+        misses = 0;
+        readTimeMillis = 0;
+    }
+
+    public synchronized int getHits() {
+        return hits;
+    }
+
+    public synchronized int getMisses() {
+        return misses;
+    }
+
+    public synchronized long getReadTimeMillis() {
+        return readTimeMillis;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    private Path entryPath(String contentHash) {
+        return directory.resolve(contentHash + ENTRY_EXTENSION);
+    }
+
+    private void writeType(DataOutputStream out, TypeFacts type) throws IOException {
+        out.writeUTF(type.getQualifiedName());
+        out.writeUTF(type.getSimpleName());
+        out.writeUTF(type.getPackageName());
+        out.writeBoolean(type.isInterface());
+        out.writeBoolean(type.isAbstract());
+        writeNullable(out, type.getSuperClass());
+        writeStrings(out, type.getInterfaces());
+
+        out.writeInt(type.getFields().size());
+        for (FieldFacts field : type.getFields()) {
+            out.writeUTF(field.getName());
+            out.writeUTF(field.getTypeName());
+            writeNullable(out, field.getTypeQualifiedName());
+            out.writeUTF(field.getVisibility());
+            out.writeBoolean(field.isStatic());
+            out.writeBoolean(field.isFinal());
+        }
+
+        writeMethods(out, type.getMethods());
+        writeMethods(out, type.getConstructors());
+    }
+
+    private TypeFacts readType(DataInputStream in) throws IOException {
+        TypeFacts type = new TypeFacts(in.readUTF(), in.readUTF(), in.readUTF());
+        type.setInterface(in.readBoolean());
+        type.setAbstract(in.readBoolean());
+        type.setSuperClass(readNullable(in));
+
+        int interfaceCount = in.readInt();
+        for (int i = 0; i < interfaceCount; i++) {
+            type.addInterface(in.readUTF());
+        }
+
+        int fieldCount = in.readInt();
+        for (int i = 0; i < fieldCount; i++) {
+            FieldFacts field = new FieldFacts(in.readUTF(), in.readUTF(), readNullable(in), in.readUTF());
+            field.setStatic(in.readBoolean());
+            field.setFinal(in.readBoolean());
+            type.addField(field);
+        }
+
+        int methodCount = in.readInt();
+        for (int i = 0; i < methodCount; i++) {
+            type.addMethod(readMethod(in));
+        }
+
+        int constructorCount = in.readInt();
+        for (int i = 0; i < constructorCount; i++) {
+            type.addConstructor(readMethod(in));
+        }
+
+        return type;
+    }
+
+    private void writeMethods(DataOutputStream out, List<MethodFacts> methods) throws IOException {
+        out.writeInt(methods.size());
+        for (MethodFacts method : methods) {
+            out.writeUTF(method.getDeclaringType());
+            out.writeUTF(method.getName());
+            out.writeUTF(method.getSignature());
+            out.writeUTF(method.getReturnType());
+            out.writeUTF(method.getVisibility());
+            out.writeBoolean(method.isStatic());
+            out.writeBoolean(method.isAbstract());
+            out.writeBoolean(method.isConstructor());
+            out.writeBoolean(method.hasBody());
+            out.writeInt(method.getLinesOfCode());
+            out.writeInt(method.getLineNumber());
+            writeStrings(out, method.getParameters());
+
+            out.writeInt(method.getInvocations().size());
+            for (InvocationFacts invocation : method.getInvocations()) {
+                writeNullable(out, invocation.getDeclaringType());
+                out.writeUTF(invocation.getMethodName());
+                out.writeUTF(invocation.getSignature());
+                out.writeInt(invocation.getLineNumber());
+            }
+        }
+    }
+
+    private MethodFacts readMethod(DataInputStream in) throws IOException {
+        MethodFacts method = new MethodFacts(in.readUTF(), in.readUTF(), in.readUTF());
+        method.setReturnType(in.readUTF());
+        method.setVisibility(in.readUTF());
+        method.setStatic(in.readBoolean());
+        method.setAbstract(in.readBoolean());
+        method.setConstructor(in.readBoolean());
+        method.setHasBody(in.readBoolean());
+        method.setLinesOfCode(in.readInt());
+        method.setLineNumber(in.readInt());
+
+        int parameterCount = in.readInt();
+        for (int i = 0; i < parameterCount; i++) {
+            method.addParameter(in.readUTF());
+        }
+
+        int invocationCount = in.readInt();
+        for (int i = 0; i < invocationCount; i++) {
+            method.addInvocation(new InvocationFacts(readNullable(in), in.readUTF(), in.readUTF(), in.readInt()));
+        }
+
+        return method;
+    }
+
+    private void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    private void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
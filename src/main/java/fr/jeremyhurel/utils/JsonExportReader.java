@@ -0,0 +1,683 @@
+package fr.jeremyhurel.utils;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import fr.jeremyhurel.models.CallGraph;
+import fr.jeremyhurel.models.CalleeGraphNode;
+import fr.jeremyhurel.models.ClusterTree;
+import fr.jeremyhurel.models.CouplingGraph;
+import fr.jeremyhurel.models.class_models.ClassDiagram;
+import fr.jeremyhurel.models.class_models.ClassDiagramNode;
+import fr.jeremyhurel.models.class_models.ClassRelationship;
+
+// Rebuilds the models from the JSON exports of this tool, so that a saved
+// result can be reclustered or browsed without analysing the project again.
+// Fields are matched by name and unknown ones are skipped. Derived values
+// such as coupling weights and cluster labels are recomputed rather than
+// read back, and anything inconsistent is reported as an IOException.
+public final class JsonExportReader {
+
+    private JsonExportReader() {
+
+    }
+
+    public static CouplingGraph readCouplingGraph(String filePath) throws IOException {
+        try (JsonReader json = new JsonReader(filePath)) {
+            enterRoot(json, filePath, "couplingGraph");
+
+            List<String> nodeNames = new ArrayList<>();
+            Map<String, Integer> classIndexes = new HashMap<>();
+            List<String> classNames = new ArrayList<>();
+            Couplings couplings = new Couplings();
+            long nodeCount = -1;
+            long couplingCount = -1;
+            long totalMethodCalls = -1;
+
+            json.beginObject();
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "nodeCount" -> nodeCount = json.nextLong();
+                    case "couplingCount" -> couplingCount = json.nextLong();
+                    case "totalMethodCalls" -> totalMethodCalls = json.nextLong();
+                    case "nodes" -> {
+                        json.beginArray();
+                        while (json.hasNext()) {
+                            nodeNames.add(readObjectField(json, filePath, "className"));
+                        }
+                        json.endArray();
+                    }
+                    case "couplings" -> {
+                        json.beginArray();
+                        while (json.hasNext()) {
+                            readCoupling(json, filePath, classIndexes, classNames, couplings);
+                        }
+                        json.endArray();
+                    }
+                    default -> json.skipValue();
+                }
+            }
+            json.endObject();
+            leaveRoot(json);
+
+            int[] order = classOrder(classNames.size(), couplings);
+            CouplingGraph graph = new CouplingGraph(classNames.size(), couplings.size);
+            int[] ids = new int[classNames.size()];
+            for (int className : order) {
+                ids[className] = graph.getClassNames().intern(classNames.get(className));
+            }
+            try {
+                for (int i = 0; i < couplings.size; i++) {
+                    graph.addMethodCalls(ids[couplings.from[i]], ids[couplings.to[i]], couplings.count[i]);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid coupling graph in " + filePath + ": " + e.getMessage(), e);
+            }
+            for (String nodeName : nodeNames) {
+                graph.getOrCreateNode(nodeName);
+            }
+            graph.calculateNormalizedCoupling();
+
+            if (graph.getCouplingCount() != couplings.size) {
+                throw new IOException("Invalid coupling graph in " + filePath + ": "
+                        + (couplings.size - graph.getCouplingCount()) + " duplicate couplings");
+            }
+            checkCount(filePath, "nodeCount", nodeCount, graph.getNodeCount());
+            checkCount(filePath, "couplingCount", couplingCount, graph.getCouplingCount());
+            checkCount(filePath, "totalMethodCalls", totalMethodCalls, graph.getTotalMethodCalls());
+            return graph;
+        }
+    }
+
+    public static CallGraph readCallGraph(String filePath) throws IOException {
+        try (JsonReader json = new JsonReader(filePath)) {
+            enterRoot(json, filePath, "callGraph");
+
+            Map<String, CalleeGraphNode> methods = new HashMap<>();
+            Map<CalleeGraphNode, List<CalleeGraphNode>> expansions = new IdentityHashMap<>();
+            List<CalleeGraphNode> listed = new ArrayList<>();
+            List<int[]> calleeIndexes = new ArrayList<>();
+            CalleeGraphNode root = null;
+            long nodeCount = -1;
+
+            json.beginObject();
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "nodeCount" -> nodeCount = json.nextLong();
+                    case "rootNode" -> root = readCallTree(json, filePath, methods, expansions);
+                    case "allNodes" -> {
+                        json.beginArray();
+                        while (json.hasNext()) {
+                            MethodEntry entry = new MethodEntry();
+                            json.beginObject();
+                            while (json.hasNext()) {
+                                String name = json.nextName();
+                                if (name.equals("calleeIndexes")) {
+                                    entry.calleeIndexes = readIntArray(json);
+                                } else if (!entry.readField(json, name)) {
+                                    json.skipValue();
+                                }
+                            }
+                            json.endObject();
+                            listed.add(entry.resolve(filePath, methods));
+                            calleeIndexes.add(entry.calleeIndexes);
+                        }
+                        json.endArray();
+                    }
+                    default -> json.skipValue();
+                }
+            }
+            json.endObject();
+            leaveRoot(json);
+
+            CallGraph graph = new CallGraph();
+            for (CalleeGraphNode node : listed) {
+                graph.addNode(node);
+            }
+            graph.setRootNode(root);
+
+            // A method expanded in the call tree lists all its callees there.
+            // The others take theirs from the callee indexes, which older
+            // exports lack, leaving them with only what the root reaches.
+            for (Map.Entry<CalleeGraphNode, List<CalleeGraphNode>> expansion : expansions.entrySet()) {
+                for (CalleeGraphNode callee : expansion.getValue()) {
+                    expansion.getKey().addCallee(callee);
+                }
+            }
+            for (int i = 0; i < listed.size(); i++) {
+                if (calleeIndexes.get(i) == null || expansions.containsKey(listed.get(i))) {
+                    continue;
+                }
+                for (int index : calleeIndexes.get(i)) {
+                    if (index < 0 || index >= listed.size()) {
+                        throw new IOException("Invalid call graph in " + filePath + ": callee index " + index
+                                + " out of " + listed.size() + " nodes");
+                    }
+                    listed.get(i).addCallee(listed.get(index));
+                }
+            }
+
+            checkCount(filePath, "nodeCount", nodeCount, graph.getNodeCount());
+            return graph;
+        }
+    }
+
+    // The coupling graph is only used to score cuts and may be null.
+    public static ClusterTree readClusterTree(String filePath, CouplingGraph couplingGraph) throws IOException {
+        try (JsonReader json = new JsonReader(filePath)) {
+            enterRoot(json, filePath, "clusterTree");
+
+            ClusterTree.Engine engine = ClusterTree.Engine.NEAREST_NEIGHBOR_CHAIN;
+            ClusterTree.Linkage linkage = ClusterTree.Linkage.WEIGHTED;
+            ClusterMerges merges = new ClusterMerges();
+            long mergeSteps = -1;
+
+            json.beginObject();
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "engine" -> engine = readEnum(json, filePath, ClusterTree.Engine.class);
+                    case "linkage" -> linkage = readEnum(json, filePath, ClusterTree.Linkage.class);
+                    case "mergeSteps" -> mergeSteps = json.nextLong();
+                    case "root" -> readClusterNodes(json, filePath, merges);
+                    default -> json.skipValue();
+                }
+            }
+            json.endObject();
+            leaveRoot(json);
+
+            checkCount(filePath, "mergeSteps", mergeSteps, merges.mergeIds.size());
+            return merges.toTree(filePath, engine, linkage, couplingGraph);
+        }
+    }
+
+    // The export summarises each class, so attributes and methods cannot be
+    // restored: the classes come back with their names, kind and superclass.
+    public static ClassDiagram readClassDiagram(String filePath) throws IOException {
+        try (JsonReader json = new JsonReader(filePath)) {
+            enterRoot(json, filePath, "classDiagram");
+
+            ClassDiagram diagram = new ClassDiagram();
+            long classCount = -1;
+            long relationshipCount = -1;
+
+            json.beginObject();
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "classCount" -> classCount = json.nextLong();
+                    case "relationshipCount" -> relationshipCount = json.nextLong();
+                    case "rootPackage" -> diagram.setRootPackage(emptyToNull(json.nextStringOrNull()));
+                    case "packageEncapsulation" -> diagram.setPackageEncapsulation(json.nextBoolean());
+                    case "classes" -> {
+                        json.beginArray();
+                        while (json.hasNext()) {
+                            diagram.addClass(readDiagramClass(json, filePath));
+                        }
+                        json.endArray();
+                    }
+                    case "relationships" -> {
+                        json.beginArray();
+                        while (json.hasNext()) {
+                            diagram.addRelationship(readRelationship(json, filePath));
+                        }
+                        json.endArray();
+                    }
+                    default -> json.skipValue();
+                }
+            }
+            json.endObject();
+            leaveRoot(json);
+
+            checkCount(filePath, "classCount", classCount, diagram.getClassCount());
+            checkCount(filePath, "relationshipCount", relationshipCount, diagram.getRelationshipCount());
+            return diagram;
+        }
+    }
+
+    // Moves into the value of the single top-level field that names the model.
+    private static void enterRoot(JsonReader json, String filePath, String rootName) throws IOException {
+        if (json.peek() != JsonReader.Token.BEGIN_OBJECT) {
+            throw notAnExport(filePath, rootName);
+        }
+        json.beginObject();
+        while (json.hasNext()) {
+            if (json.nextName().equals(rootName)) {
+                return;
+            }
+            json.skipValue();
+        }
+        throw notAnExport(filePath, rootName);
+    }
+
+    private static void leaveRoot(JsonReader json) throws IOException {
+        while (json.hasNext()) {
+            json.nextName();
+            json.skipValue();
+        }
+        json.endObject();
+        json.endDocument();
+    }
+
+    private static IOException notAnExport(String filePath, String rootName) {
+        return new IOException(filePath + " is not a " + rootName + " export");
+    }
+
+    private static void checkCount(String filePath, String field, long expected, int actual) throws IOException {
+        if (expected >= 0 && expected != actual) {
+            throw new IOException("Inconsistent export " + filePath + ": " + field + " is " + expected
+                    + " but " + actual + " were read");
+        }
+    }
+
+    private static String readObjectField(JsonReader json, String filePath, String field) throws IOException {
+        String value = null;
+        json.beginObject();
+        while (json.hasNext()) {
+            if (json.nextName().equals(field)) {
+                value = json.nextString();
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
+        return require(filePath, field, value);
+    }
+
+    private static String require(String filePath, String field, String value) throws IOException {
+        if (value == null) {
+            throw new IOException("Invalid export " + filePath + ": missing " + field);
+        }
+        return value;
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private static <E extends Enum<E>> E readEnum(JsonReader json, String filePath, Class<E> type)
+            throws IOException {
+        String name = json.nextString();
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid export " + filePath + ": unknown " + type.getSimpleName() + " " + name, e);
+        }
+    }
+
+    private static int[] readIntArray(JsonReader json) throws IOException {
+        int[] values = new int[8];
+        int size = 0;
+        json.beginArray();
+        while (json.hasNext()) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = json.nextInt();
+        }
+        json.endArray();
+        return Arrays.copyOf(values, size);
+    }
+
+    private static void readCoupling(JsonReader json, String filePath, Map<String, Integer> classIndexes,
+                                     List<String> classNames, Couplings couplings) throws IOException {
+        String from = null;
+        String to = null;
+        int count = -1;
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "from" -> from = json.nextString();
+                case "to" -> to = json.nextString();
+                case "methodCallCount" -> count = json.nextInt();
+                default -> json.skipValue();
+            }
+        }
+        json.endObject();
+        if (count < 0) {
+            throw new IOException("Invalid export " + filePath + ": missing methodCallCount");
+        }
+        couplings.add(classIndex(require(filePath, "from", from), classIndexes, classNames),
+                classIndex(require(filePath, "to", to), classIndexes, classNames), count);
+    }
+
+    private static int classIndex(String className, Map<String, Integer> classIndexes, List<String> classNames) {
+        Integer index = classIndexes.putIfAbsent(className, classNames.size());
+        if (index == null) {
+            classNames.add(className);
+            return classNames.size() - 1;
+        }
+        return index;
+    }
+
+    // Class ids decide the order of the exported couplings and break ties
+    // when clustering, but the file does not store them. Couplings are
+    // written by source id and then by target id, so consecutive rows and
+    // consecutive targets in a row give an order the ids must follow; the
+    // classes are numbered in that order, earliest appearance first among the
+    // free ones. A file that was reordered falls back to appearance order.
+    private static int[] classOrder(int classCount, Couplings couplings) {
+        int constraints = Math.max(0, couplings.size - 1);
+        int[] before = new int[constraints];
+        int[] after = new int[constraints];
+        for (int i = 0; i < constraints; i++) {
+            boolean sameRow = couplings.from[i] == couplings.from[i + 1];
+            before[i] = sameRow ? couplings.to[i] : couplings.from[i];
+            after[i] = sameRow ? couplings.to[i + 1] : couplings.from[i + 1];
+        }
+
+        int[] start = new int[classCount + 1];
+        int[] pending = new int[classCount];
+        for (int i = 0; i < constraints; i++) {
+            start[before[i] + 1]++;
+            pending[after[i]]++;
+        }
+        for (int i = 0; i < classCount; i++) {
+            start[i + 1] += start[i];
+        }
+        int[] successors = new int[constraints];
+        int[] fill = Arrays.copyOf(start, classCount);
+        for (int i = 0; i < constraints; i++) {
+            successors[fill[before[i]]++] = after[i];
+        }
+
+        int[] order = new int[classCount];
+        int ordered = 0;
+        PriorityQueue<Integer> free = new PriorityQueue<>();
+        for (int i = 0; i < classCount; i++) {
+            if (pending[i] == 0) {
+                free.add(i);
+            }
+        }
+        while (!free.isEmpty()) {
+            int className = free.poll();
+            order[ordered++] = className;
+            for (int i = start[className]; i < start[className + 1]; i++) {
+                if (--pending[successors[i]] == 0) {
+                    free.add(successors[i]);
+                }
+            }
+        }
+
+        if (ordered < classCount) {
+            for (int i = 0; i < classCount; i++) {
+                order[i] = i;
+            }
+        }
+        return order;
+    }
+
+    // Each method is expanded once in the exported tree, every other mention
+    // carries a marker instead of callees, so expansions are kept per method
+    // and linked once the whole file is read.
+    private static CalleeGraphNode readCallTree(JsonReader json, String filePath, Map<String, CalleeGraphNode> methods,
+                                                Map<CalleeGraphNode, List<CalleeGraphNode>> expansions)
+            throws IOException {
+        if (json.peek() == JsonReader.Token.NULL) {
+            json.nextNull();
+            return null;
+        }
+
+        Deque<MethodEntry> stack = new ArrayDeque<>();
+        json.beginObject();
+        stack.push(new MethodEntry());
+        while (true) {
+            MethodEntry entry = stack.peek();
+            if (json.peek() == JsonReader.Token.END_ARRAY && entry.inCallees) {
+                json.endArray();
+                entry.inCallees = false;
+            } else if (json.peek() == JsonReader.Token.END_OBJECT) {
+                json.endObject();
+                stack.pop();
+                CalleeGraphNode node = entry.resolve(filePath, methods);
+                if (entry.callees != null) {
+                    expansions.putIfAbsent(node, entry.callees);
+                }
+                if (stack.isEmpty()) {
+                    return node;
+                }
+                stack.peek().callees.add(node);
+            } else if (entry.inCallees) {
+                json.beginObject();
+                stack.push(new MethodEntry());
+            } else {
+                String name = json.nextName();
+                if (name.equals("callees") && json.peek() == JsonReader.Token.BEGIN_ARRAY) {
+                    json.beginArray();
+                    entry.callees = new ArrayList<>();
+                    entry.inCallees = true;
+                } else if (!entry.readField(json, name)) {
+                    json.skipValue();
+                }
+            }
+        }
+    }
+
+    // Nodes arrive children first, so each one is recorded when its object
+    // closes, whatever the order of its fields.
+    private static void readClusterNodes(JsonReader json, String filePath, ClusterMerges merges)
+            throws IOException {
+        if (json.peek() == JsonReader.Token.NULL) {
+            json.nextNull();
+            return;
+        }
+
+        Deque<ClusterEntry> stack = new ArrayDeque<>();
+        json.beginObject();
+        stack.push(new ClusterEntry());
+        while (!stack.isEmpty()) {
+            ClusterEntry entry = stack.peek();
+            if (json.peek() == JsonReader.Token.END_OBJECT) {
+                json.endObject();
+                stack.pop();
+                merges.add(filePath, entry);
+                if (stack.isEmpty()) {
+                    merges.rootId = entry.id;
+                } else if (stack.peek().readingLeft) {
+                    stack.peek().left = entry.id;
+                } else {
+                    stack.peek().right = entry.id;
+                }
+                continue;
+            }
+
+            String name = json.nextName();
+            switch (name) {
+                case "id" -> entry.id = json.nextInt();
+                case "name" -> entry.name = json.nextString();
+                case "isLeaf" -> entry.isLeaf = json.nextBoolean();
+                case "couplingValue" -> entry.coupling = json.nextDouble();
+                case "left", "right" -> {
+                    entry.readingLeft = name.equals("left");
+                    json.beginObject();
+                    stack.push(new ClusterEntry());
+                }
+                default -> json.skipValue();
+            }
+        }
+    }
+
+    private static ClassDiagramNode readDiagramClass(JsonReader json, String filePath) throws IOException {
+        String className = null;
+        String packageName = null;
+        boolean isInterface = false;
+        boolean isAbstract = false;
+        String superClass = null;
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "className" -> className = json.nextStringOrNull();
+                case "packageName" -> packageName = json.nextStringOrNull();
+                case "isInterface" -> isInterface = json.nextBoolean();
+                case "isAbstract" -> isAbstract = json.nextBoolean();
+                case "superClass" -> superClass = emptyToNull(json.nextStringOrNull());
+                default -> json.skipValue();
+            }
+        }
+        json.endObject();
+
+        ClassDiagramNode node = new ClassDiagramNode(require(filePath, "className", className),
+                require(filePath, "packageName", packageName));
+        node.setInterface(isInterface);
+        node.setAbstract(isAbstract);
+        node.setSuperClass(superClass);
+        return node;
+    }
+
+    private static ClassRelationship readRelationship(JsonReader json, String filePath) throws IOException {
+        String source = null;
+        String target = null;
+        ClassRelationship.RelationType type = null;
+        String label = "";
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "source" -> source = json.nextString();
+                case "target" -> target = json.nextString();
+                case "type" -> type = readEnum(json, filePath, ClassRelationship.RelationType.class);
+                case "label" -> label = json.nextString();
+                default -> json.skipValue();
+            }
+        }
+        json.endObject();
+
+        if (type == null) {
+            throw new IOException("Invalid export " + filePath + ": missing type");
+        }
+        return new ClassRelationship(require(filePath, "source", source), require(filePath, "target", target),
+                type, label);
+    }
+
+    private static final class Couplings {
+        private int[] from = new int[64];
+        private int[] to = new int[64];
+        private int[] count = new int[64];
+        private int size;
+
+        private void add(int fromIndex, int toIndex, int callCount) {
+            if (size == from.length) {
+                from = Arrays.copyOf(from, size * 2);
+                to = Arrays.copyOf(to, size * 2);
+                count = Arrays.copyOf(count, size * 2);
+            }
+            from[size] = fromIndex;
+            to[size] = toIndex;
+            count[size++] = callCount;
+        }
+    }
+
+    private static final class MethodEntry {
+        private String className;
+        private String methodName;
+        private String signature;
+        private int lineNumber;
+        private int[] calleeIndexes;
+        private List<CalleeGraphNode> callees;
+        private boolean inCallees;
+
+        private boolean readField(JsonReader json, String name) throws IOException {
+            switch (name) {
+                case "className" -> className = json.nextString();
+                case "methodName" -> methodName = json.nextString();
+                case "signature" -> signature = json.nextString();
+                case "lineNumber" -> lineNumber = json.nextInt();
+                default -> {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Methods are keyed as CallGraph keys them, so a method mentioned in
+        // several places becomes one node.
+        private CalleeGraphNode resolve(String filePath, Map<String, CalleeGraphNode> methods) throws IOException {
+            require(filePath, "className", className);
+            require(filePath, "methodName", methodName);
+            require(filePath, "signature", signature);
+            return methods.computeIfAbsent(className + "." + methodName + signature,
+                    key -> new CalleeGraphNode(className, methodName, signature, lineNumber));
+        }
+    }
+
+    private static final class ClusterEntry {
+        private int id = -1;
+        private String name;
+        private Boolean isLeaf;
+        private double coupling;
+        private int left = -1;
+        private int right = -1;
+        private boolean readingLeft;
+    }
+
+    // Collects the nodes of the exported tree into the dense ids of
+    // ClusterTree: leaves first, then one id per merge.
+    private static final class ClusterMerges {
+        private final List<Integer> leafIds = new ArrayList<>();
+        private final List<String> leafNames = new ArrayList<>();
+        private final List<Integer> mergeIds = new ArrayList<>();
+        private final List<int[]> mergeChildren = new ArrayList<>();
+        private final List<Double> mergeCouplings = new ArrayList<>();
+        private int rootId = -1;
+
+        private void add(String filePath, ClusterEntry entry) throws IOException {
+            if (entry.id < 0) {
+                throw new IOException("Invalid cluster tree in " + filePath + ": missing node id");
+            }
+            boolean leaf = entry.left < 0;
+            if (leaf != entry.right < 0 || (entry.isLeaf != null && entry.isLeaf != leaf)) {
+                throw new IOException("Invalid cluster tree in " + filePath + ": node " + entry.id
+                        + " does not have " + (leaf ? "zero" : "two") + " children");
+            }
+            if (leaf) {
+                leafIds.add(entry.id);
+                leafNames.add(require(filePath, "name", entry.name));
+            } else {
+                mergeIds.add(entry.id);
+                mergeChildren.add(new int[] {entry.left, entry.right});
+                mergeCouplings.add(entry.coupling);
+            }
+        }
+
+        private ClusterTree toTree(String filePath, ClusterTree.Engine engine, ClusterTree.Linkage linkage,
+                                   CouplingGraph couplingGraph) throws IOException {
+            int leafCount = leafIds.size();
+            String[] names = new String[leafCount];
+            for (int i = 0; i < leafCount; i++) {
+                int id = leafIds.get(i);
+                if (id >= leafCount || names[id] != null) {
+                    throw new IOException("Invalid cluster tree in " + filePath + ": unexpected leaf id " + id);
+                }
+                names[id] = leafNames.get(i);
+            }
+
+            int mergeCount = mergeIds.size();
+            int[] left = new int[mergeCount];
+            int[] right = new int[mergeCount];
+            double[] coupling = new double[mergeCount];
+            boolean[] seen = new boolean[mergeCount];
+            for (int i = 0; i < mergeCount; i++) {
+                int merge = mergeIds.get(i) - leafCount;
+                if (merge < 0 || merge >= mergeCount || seen[merge]) {
+                    throw new IOException("Invalid cluster tree in " + filePath + ": unexpected merge id "
+                            + mergeIds.get(i));
+                }
+                seen[merge] = true;
+                left[merge] = mergeChildren.get(i)[0];
+                right[merge] = mergeChildren.get(i)[1];
+                coupling[merge] = mergeCouplings.get(i);
+            }
+
+            try {
+                return ClusterTree.fromMerges(engine, linkage, names, left, right, coupling, rootId, couplingGraph);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid cluster tree in " + filePath + ": " + e.getMessage(), e);
+            }
+        }
+    }
+}
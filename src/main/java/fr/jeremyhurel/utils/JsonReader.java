@@ -0,0 +1,436 @@
+package fr.jeremyhurel.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+// Streaming JSON parser, the reading side of JsonWriter. Callers pull tokens
+// in document order, so a large export is never held in memory and deeply
+// nested trees are read without recursion. Malformed input is reported as an
+// IOException naming the file and line.
+public final class JsonReader implements Closeable {
+
+    public enum Token {
+        BEGIN_OBJECT,
+        END_OBJECT,
+        BEGIN_ARRAY,
+        END_ARRAY,
+        NAME,
+        STRING,
+        NUMBER,
+        BOOLEAN,
+        NULL,
+        END_DOCUMENT
+    }
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int NONEMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;
+    private static final int EMPTY_ARRAY = 5;
+    private static final int NONEMPTY_ARRAY = 6;
+
+    private final String filePath;
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder text = new StringBuilder();
+    private int pos;
+    private int limit;
+    private int line = 1;
+    private int[] scopes = new int[32];
+    private int depth;
+    private Token peeked;
+
+    // Invalid UTF-8 fails the read instead of turning into replacement characters.
+    public JsonReader(String filePath) throws IOException {
+        this.filePath = filePath;
+        this.in = new InputStreamReader(Files.newInputStream(Paths.get(filePath)),
+                StandardCharsets.UTF_8.newDecoder());
+        scopes[depth++] = EMPTY_DOCUMENT;
+    }
+
+    public Token peek() throws IOException {
+        if (peeked == null) {
+            peeked = readToken();
+        }
+        return peeked;
+    }
+
+    public boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    public void beginObject() throws IOException {
+        consume(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() throws IOException {
+        consume(Token.END_OBJECT);
+        depth--;
+    }
+
+    public void beginArray() throws IOException {
+        consume(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() throws IOException {
+        consume(Token.END_ARRAY);
+        depth--;
+    }
+
+    public String nextName() throws IOException {
+        consume(Token.NAME);
+        return readString();
+    }
+
+    public String nextString() throws IOException {
+        consume(Token.STRING);
+        return readString();
+    }
+
+    // A null where a string is expected reads as null, as JsonWriter writes it.
+    public String nextStringOrNull() throws IOException {
+        if (peek() == Token.NULL) {
+            nextNull();
+            return null;
+        }
+        return nextString();
+    }
+
+    public long nextLong() throws IOException {
+        consume(Token.NUMBER);
+        String number = readNumber();
+        try {
+            return Long.parseLong(number);
+        } catch (NumberFormatException e) {
+            throw malformed("expected an integer but found " + number);
+        }
+    }
+
+    public int nextInt() throws IOException {
+        long value = nextLong();
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw malformed("integer " + value + " out of range");
+        }
+        return (int) value;
+    }
+
+    public double nextDouble() throws IOException {
+        consume(Token.NUMBER);
+        return Double.parseDouble(readNumber());
+    }
+
+    public boolean nextBoolean() throws IOException {
+        consume(Token.BOOLEAN);
+        boolean value = buffer[pos] == 't';
+        readLiteral(value ? "true" : "false");
+        return value;
+    }
+
+    public void nextNull() throws IOException {
+        consume(Token.NULL);
+        readLiteral("null");
+    }
+
+    // Skips the next value with everything nested in it.
+    public void skipValue() throws IOException {
+        int nested = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT -> {
+                    beginObject();
+                    nested++;
+                }
+                case BEGIN_ARRAY -> {
+                    beginArray();
+                    nested++;
+                }
+                case END_OBJECT -> {
+                    endObject();
+                    nested--;
+                }
+                case END_ARRAY -> {
+                    endArray();
+                    nested--;
+                }
+                case NAME -> nextName();
+                case STRING -> nextString();
+                case NUMBER -> {
+                    consume(Token.NUMBER);
+                    readNumber();
+                }
+                case BOOLEAN -> nextBoolean();
+                case NULL -> nextNull();
+                case END_DOCUMENT -> throw malformed("expected a value but found the end of the document");
+            }
+        } while (nested > 0);
+    }
+
+    // Fails unless the rest of the file is whitespace.
+    public void endDocument() throws IOException {
+        consume(Token.END_DOCUMENT);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private Token readToken() throws IOException {
+        int scope = scopes[depth - 1];
+        switch (scope) {
+            case EMPTY_ARRAY, NONEMPTY_ARRAY -> {
+                int c = nextNonWhitespace();
+                if (c == ']') {
+                    return Token.END_ARRAY;
+                }
+                if (scope == NONEMPTY_ARRAY) {
+                    if (c != ',') {
+                        throw unexpected(c, "',' or ']'");
+                    }
+                } else if (c != -1) {
+                    pos--;
+                }
+                scopes[depth - 1] = NONEMPTY_ARRAY;
+                return readValueToken();
+            }
+            case EMPTY_OBJECT, NONEMPTY_OBJECT -> {
+                int c = nextNonWhitespace();
+                if (c == '}') {
+                    return Token.END_OBJECT;
+                }
+                if (scope == NONEMPTY_OBJECT) {
+                    if (c != ',') {
+                        throw unexpected(c, "',' or '}'");
+                    }
+                    c = nextNonWhitespace();
+                }
+                if (c != '"') {
+                    throw unexpected(c, "a name");
+                }
+                scopes[depth - 1] = DANGLING_NAME;
+                return Token.NAME;
+            }
+            case DANGLING_NAME -> {
+                int c = nextNonWhitespace();
+                if (c != ':') {
+                    throw unexpected(c, "':'");
+                }
+                scopes[depth - 1] = NONEMPTY_OBJECT;
+                return readValueToken();
+            }
+            case EMPTY_DOCUMENT -> {
+                scopes[depth - 1] = NONEMPTY_DOCUMENT;
+                return readValueToken();
+            }
+            default -> {
+                int c = nextNonWhitespace();
+                if (c != -1) {
+                    throw unexpected(c, "the end of the document");
+                }
+                return Token.END_DOCUMENT;
+            }
+        }
+    }
+
+    // Brackets and the opening quote are consumed here, literals and numbers
+    // are left in the buffer for the call that reads them.
+    private Token readValueToken() throws IOException {
+        int c = nextNonWhitespace();
+        switch (c) {
+            case '{':
+                return Token.BEGIN_OBJECT;
+            case '[':
+                return Token.BEGIN_ARRAY;
+            case '"':
+                return Token.STRING;
+            case 't', 'f':
+                pos--;
+                return Token.BOOLEAN;
+            case 'n':
+                pos--;
+                return Token.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    pos--;
+                    return Token.NUMBER;
+                }
+                throw unexpected(c, "a value");
+        }
+    }
+
+    private void consume(Token expected) throws IOException {
+        Token token = peek();
+        if (token != expected) {
+            throw malformed("expected " + describe(expected) + " but found " + describe(token));
+        }
+        peeked = null;
+    }
+
+    private void push(int scope) {
+        if (depth == scopes.length) {
+            scopes = Arrays.copyOf(scopes, depth * 2);
+        }
+        scopes[depth++] = scope;
+    }
+
+    // Runs of plain characters are copied in one call per buffer.
+    private String readString() throws IOException {
+        text.setLength(0);
+        while (true) {
+            int start = pos;
+            while (pos < limit) {
+                char c = buffer[pos];
+                if (c == '"' || c == '\\' || c < 0x20) {
+                    break;
+                }
+                pos++;
+            }
+            text.append(buffer, start, pos - start);
+
+            int c = nextChar();
+            if (c == '"') {
+                return text.toString();
+            }
+            if (c == '\\') {
+                text.append(readEscape());
+            } else if (c == -1) {
+                throw malformed("unterminated string");
+            } else if (c < 0x20) {
+                throw malformed("unescaped control character in string");
+            } else {
+                pos--;
+            }
+        }
+    }
+
+    private char readEscape() throws IOException {
+        int c = nextChar();
+        switch (c) {
+            case '"', '\\', '/':
+                return (char) c;
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(nextChar(), 16);
+                    if (digit < 0) {
+                        throw malformed("invalid \\u escape");
+                    }
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            default:
+                throw malformed("invalid escape sequence");
+        }
+    }
+
+    // Checks the JSON number grammar, which rules out the NaN, Infinity and
+    // hexadecimal forms Java would otherwise accept.
+    private String readNumber() throws IOException {
+        text.setLength(0);
+        int c = nextChar();
+        if (c == '-') {
+            text.append('-');
+            c = nextChar();
+        }
+        c = readDigits(c);
+        if (c == '.') {
+            text.append('.');
+            c = readDigits(nextChar());
+        }
+        if (c == 'e' || c == 'E') {
+            text.append('e');
+            c = nextChar();
+            if (c == '+' || c == '-') {
+                text.append((char) c);
+                c = nextChar();
+            }
+            c = readDigits(c);
+        }
+        if (c != -1) {
+            pos--;
+        }
+        return text.toString();
+    }
+
+    // Appends a non-empty run of digits and returns the character after it.
+    private int readDigits(int c) throws IOException {
+        if (c < '0' || c > '9') {
+            throw malformed("invalid number");
+        }
+        while (c >= '0' && c <= '9') {
+            text.append((char) c);
+            c = nextChar();
+        }
+        return c;
+    }
+
+    private void readLiteral(String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (nextChar() != literal.charAt(i)) {
+                throw malformed("invalid literal, expected " + literal);
+            }
+        }
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        while (true) {
+            int c = nextChar();
+            if (c == '\n') {
+                line++;
+            } else if (c != ' ' && c != '\t' && c != '\r') {
+                return c;
+            }
+        }
+    }
+
+    // Refilling restarts the buffer at zero, so the last character read can
+    // always be pushed back with pos--.
+    private int nextChar() throws IOException {
+        if (pos == limit) {
+            int read = in.read(buffer, 0, buffer.length);
+            if (read <= 0) {
+                pos = 0;
+                limit = 0;
+                return -1;
+            }
+            pos = 0;
+            limit = read;
+        }
+        return buffer[pos++];
+    }
+
+    private static String describe(Token token) {
+        return token.name().toLowerCase().replace('_', ' ');
+    }
+
+    private IOException unexpected(int c, String expected) {
+        String found = c == -1 ? "the end of the file" : "'" + (char) c + "'";
+        return malformed("expected " + expected + " but found " + found);
+    }
+
+    private IOException malformed(String reason) {
+        return new IOException("Malformed JSON in " + filePath + " at line " + line + ": " + reason);
+    }
+}
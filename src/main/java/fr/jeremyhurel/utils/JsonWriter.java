@@ -0,0 +1,208 @@
+package fr.jeremyhurel.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+
+// Streaming JSON generator on top of ExportWriter. Callers emit names and
+// values in document order and the writer places the separators, so nothing
+// is assembled in memory. Pretty output indents by two spaces per level, the
+// compact form has no whitespace at all.
+public final class JsonWriter implements Closeable {
+
+    // Call and cluster trees can nest thousands of levels deep, where full
+    // indentation would grow the file quadratically, so it stops growing here.
+    private static final int MAX_INDENT_LEVEL = 64;
+
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int NONEMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;
+    private static final int EMPTY_ARRAY = 5;
+    private static final int NONEMPTY_ARRAY = 6;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final ExportWriter out;
+    private final boolean pretty;
+    private int[] scopes = new int[32];
+    private int depth;
+
+    public JsonWriter(String filePath, boolean pretty) throws IOException {
+        this(new ExportWriter(filePath), pretty);
+    }
+
+    public JsonWriter(ExportWriter out, boolean pretty) {
+        this.out = out;
+        this.pretty = pretty;
+        scopes[depth++] = EMPTY_DOCUMENT;
+    }
+
+    public JsonWriter beginObject() throws IOException {
+        beforeValue();
+        push(EMPTY_OBJECT);
+        out.write('{');
+        return this;
+    }
+
+    public JsonWriter endObject() throws IOException {
+        return end(EMPTY_OBJECT, NONEMPTY_OBJECT, '}');
+    }
+
+    public JsonWriter beginArray() throws IOException {
+        beforeValue();
+        push(EMPTY_ARRAY);
+        out.write('[');
+        return this;
+    }
+
+    public JsonWriter endArray() throws IOException {
+        return end(EMPTY_ARRAY, NONEMPTY_ARRAY, ']');
+    }
+
+    public JsonWriter name(String name) throws IOException {
+        int scope = scopes[depth - 1];
+        if (scope == NONEMPTY_OBJECT) {
+            out.write(',');
+        } else if (scope != EMPTY_OBJECT) {
+            throw new IllegalStateException("JSON name outside of an object: " + name);
+        }
+        newline();
+        writeString(name);
+        out.write(pretty ? ": " : ":");
+        scopes[depth - 1] = DANGLING_NAME;
+        return this;
+    }
+
+    public JsonWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        beforeValue();
+        writeString(value);
+        return this;
+    }
+
+    public JsonWriter value(long value) throws IOException {
+        beforeValue();
+        out.writeInt(value);
+        return this;
+    }
+
+    public JsonWriter value(boolean value) throws IOException {
+        beforeValue();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    // Same digits as String.valueOf(double).
+    public JsonWriter value(double value) throws IOException {
+        checkFinite(value);
+        beforeValue();
+        out.writeDouble(value);
+        return this;
+    }
+
+    // Same digits as String.format("%.Nf").
+    public JsonWriter valueFixed(double value, int decimals) throws IOException {
+        checkFinite(value);
+        beforeValue();
+        out.writeFixed(value, decimals);
+        return this;
+    }
+
+    public JsonWriter nullValue() throws IOException {
+        beforeValue();
+        out.write("null");
+        return this;
+    }
+
+    // Ends the document with a newline. An unfinished document still closes
+    // the file before the error is reported.
+    @Override
+    public void close() throws IOException {
+        try {
+            if (depth != 1 || scopes[0] != NONEMPTY_DOCUMENT) {
+                throw new IllegalStateException("Incomplete JSON document");
+            }
+            out.write('\n');
+        } finally {
+            out.close();
+        }
+    }
+
+    private void beforeValue() throws IOException {
+        switch (scopes[depth - 1]) {
+            case EMPTY_DOCUMENT -> scopes[depth - 1] = NONEMPTY_DOCUMENT;
+            case DANGLING_NAME -> scopes[depth - 1] = NONEMPTY_OBJECT;
+            case EMPTY_ARRAY -> {
+                scopes[depth - 1] = NONEMPTY_ARRAY;
+                newline();
+            }
+            case NONEMPTY_ARRAY -> {
+                out.write(',');
+                newline();
+            }
+            case NONEMPTY_DOCUMENT -> throw new IllegalStateException("JSON document already has a value");
+            default -> throw new IllegalStateException("JSON value inside an object needs a name first");
+        }
+    }
+
+    private JsonWriter end(int emptyScope, int nonemptyScope, char bracket) throws IOException {
+        int scope = scopes[depth - 1];
+        if (scope != emptyScope && scope != nonemptyScope) {
+            throw new IllegalStateException("Unbalanced JSON: cannot close with '" + bracket + "'");
+        }
+        depth--;
+        if (scope == nonemptyScope) {
+            newline();
+        }
+        out.write(bracket);
+        return this;
+    }
+
+    private void push(int scope) {
+        if (depth == scopes.length) {
+            scopes = Arrays.copyOf(scopes, depth * 2);
+        }
+        scopes[depth++] = scope;
+    }
+
+    private void newline() throws IOException {
+        if (pretty) {
+            out.write('\n').writeRepeated(' ', 2 * Math.min(depth - 1, MAX_INDENT_LEVEL));
+        }
+    }
+
+    // Runs of plain characters are copied in one call, and every control
+    // character is escaped so that any name or value stays valid JSON.
+    private void writeString(String value) throws IOException {
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            out.write(value, start, i).write('\\');
+            switch (c) {
+                case '"', '\\' -> out.write(c);
+                case '\n' -> out.write('n');
+                case '\r' -> out.write('r');
+                case '\t' -> out.write('t');
+                case '\b' -> out.write('b');
+                case '\f' -> out.write('f');
+                default -> out.write("u00").write(HEX_DIGITS[c >> 4]).write(HEX_DIGITS[c & 0xF]);
+            }
+            start = i + 1;
+        }
+        out.write(value, start, value.length()).write('"');
+    }
+
+    private static void checkFinite(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("JSON numbers must be finite: " + value);
+        }
+    }
+}
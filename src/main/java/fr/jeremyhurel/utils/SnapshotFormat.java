@@ -0,0 +1,49 @@
+package fr.jeremyhurel.utils;
+
+// Binary snapshot layout shared by SnapshotWriter and SnapshotReader.
+//
+// A file starts with the magic bytes "JRTS", the format version and the kind
+// of result it holds, each on one byte. The payload then begins with a string
+// table: its size followed by every string as a byte length and its UTF-8
+// bytes. Everything after refers to strings by their index in that table.
+// Integers are unsigned LEB128 varints, signed ones zigzag-encoded first, and
+// floating-point values are big-endian IEEE 754. Edge lists are stored as
+// compressed rows: per source its edge count, then its targets.
+//
+// COUPLING_GRAPH  class name count (the class names are the first strings),
+//                 coupled pair count, the graph nodes as (name, coupling
+//                 value as a float), then per class its callees in ascending
+//                 order as gaps from the previous one, each with its call count
+// CALL_GRAPH      method count, how many of them are in the node map, each
+//                 method as (class, name, signature, signed line number),
+//                 the root as index + 1 or 0, then per method its callees
+// CLUSTER_TREE    engine and linkage names as inline strings, leaf count
+//                 (the leaves are the first strings), merge count, each merge
+//                 as (left, right, coupling as a double), then the root id + 1
+//                 or 0
+// MODULE_GRAPH    module count, then each module as (signed id, name,
+//                 cohesion as a double, class count, classes)
+public final class SnapshotFormat {
+
+    private SnapshotFormat() {
+
+    }
+
+    public static final byte[] MAGIC = {'J', 'R', 'T', 'S'};
+    public static final int VERSION = 1;
+
+    public static final int COUPLING_GRAPH = 1;
+    public static final int CALL_GRAPH = 2;
+    public static final int CLUSTER_TREE = 3;
+    public static final int MODULE_GRAPH = 4;
+
+    public static String kindName(int kind) {
+        return switch (kind) {
+            case COUPLING_GRAPH -> "coupling graph";
+            case CALL_GRAPH -> "call graph";
+            case CLUSTER_TREE -> "cluster tree";
+            case MODULE_GRAPH -> "module graph";
+            default -> "unknown kind " + kind;
+        };
+    }
+}
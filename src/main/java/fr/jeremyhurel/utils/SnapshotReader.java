@@ -0,0 +1,323 @@
+package fr.jeremyhurel.utils;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import fr.jeremyhurel.models.CallGraph;
+import fr.jeremyhurel.models.CalleeGraphNode;
+import fr.jeremyhurel.models.ClusterTree;
+import fr.jeremyhurel.models.CouplingGraph;
+import fr.jeremyhurel.models.Module;
+import fr.jeremyhurel.models.ModuleGraph;
+
+// Loads the snapshots written by the snapshot export strategies. The file is
+// memory-mapped and decoded straight from the mapping, so re-opening a large
+// result costs one pass over its bytes. Any inconsistency is reported as an
+// IOException rather than a partly loaded model.
+public final class SnapshotReader {
+
+    private final String filePath;
+    private final ByteBuffer buffer;
+    private final int version;
+    private final int kind;
+
+    private SnapshotReader(String filePath, ByteBuffer buffer) throws IOException {
+        this.filePath = filePath;
+        this.buffer = buffer;
+
+        byte[] magic = new byte[SnapshotFormat.MAGIC.length];
+        if (buffer.remaining() < magic.length + 2) {
+            throw corrupt("too short for a snapshot header");
+        }
+        buffer.get(magic);
+        if (!Arrays.equals(magic, SnapshotFormat.MAGIC)) {
+            throw corrupt("not a snapshot file");
+        }
+        this.version = buffer.get() & 0xFF;
+        this.kind = buffer.get() & 0xFF;
+        if (version < 1 || version > SnapshotFormat.VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + " in " + filePath
+                    + " (this build reads up to version " + SnapshotFormat.VERSION + ")");
+        }
+    }
+
+    public static SnapshotReader open(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large to map: " + filePath + " (" + size + " bytes)");
+            }
+            return new SnapshotReader(filePath, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    public static CouplingGraph readCouplingGraph(String filePath) throws IOException {
+        return open(filePath).readCouplingGraph();
+    }
+
+    public static CallGraph readCallGraph(String filePath) throws IOException {
+        return open(filePath).readCallGraph();
+    }
+
+    public static ClusterTree readClusterTree(String filePath, CouplingGraph couplingGraph) throws IOException {
+        return open(filePath).readClusterTree(couplingGraph);
+    }
+
+    public static ModuleGraph readModuleGraph(String filePath) throws IOException {
+        return open(filePath).readModuleGraph();
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public int getKind() {
+        return kind;
+    }
+
+    // Call counts are the source of truth: the weights and node coupling
+    // values are recomputed, then the saved node values are put back.
+    public CouplingGraph readCouplingGraph() throws IOException {
+        expectKind(SnapshotFormat.COUPLING_GRAPH);
+        try {
+            String[] strings = readStringTable();
+            int classCount = readCount();
+            if (classCount > strings.length) {
+                throw corrupt(classCount + " classes for " + strings.length + " strings");
+            }
+            int couplingCount = readCount();
+
+            CouplingGraph graph = new CouplingGraph(classCount, couplingCount);
+            for (int id = 0; id < classCount; id++) {
+                graph.getClassNames().intern(strings[id]);
+            }
+            if (graph.getClassNames().size() != classCount) {
+                throw corrupt("duplicate class names");
+            }
+
+            int nodeCount = readCount();
+            String[] nodeNames = new String[nodeCount];
+            float[] nodeValues = new float[nodeCount];
+            for (int i = 0; i < nodeCount; i++) {
+                nodeNames[i] = strings[readIndex(strings.length)];
+                nodeValues[i] = buffer.getFloat();
+            }
+
+            for (int from = 0; from < classCount; from++) {
+                int degree = readCount();
+                int to = 0;
+                for (int edge = 0; edge < degree; edge++) {
+                    to += readVarint();
+                    if (to >= classCount) {
+                        throw corrupt("call target " + to + " out of " + classCount + " classes");
+                    }
+                    graph.addMethodCalls(from, to, readVarint());
+                }
+            }
+            if (graph.getCouplingCount() != couplingCount) {
+                throw corrupt(graph.getCouplingCount() + " coupled pairs instead of " + couplingCount);
+            }
+
+            graph.calculateNormalizedCoupling();
+            for (int i = 0; i < nodeCount; i++) {
+                graph.getOrCreateNode(nodeNames[i]).setCouplingValue(nodeValues[i]);
+            }
+            expectEnd();
+            return graph;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw corrupt(e);
+        }
+    }
+
+    public CallGraph readCallGraph() throws IOException {
+        expectKind(SnapshotFormat.CALL_GRAPH);
+        try {
+            String[] strings = readStringTable();
+            int methodCount = readCount();
+            int mappedCount = readCount();
+            if (mappedCount > methodCount) {
+                throw corrupt(mappedCount + " mapped methods out of " + methodCount);
+            }
+
+            CallGraph graph = new CallGraph();
+            CalleeGraphNode[] methods = new CalleeGraphNode[methodCount];
+            for (int i = 0; i < methodCount; i++) {
+                String className = strings[readIndex(strings.length)];
+                String methodName = strings[readIndex(strings.length)];
+                String signature = strings[readIndex(strings.length)];
+                int lineNumber = readSignedVarint();
+                methods[i] = i < mappedCount
+                        ? graph.getOrCreateNode(className, methodName, signature, lineNumber)
+                        : new CalleeGraphNode(className, methodName, signature, lineNumber);
+            }
+
+            int root = readVarint();
+            if (root > methodCount) {
+                throw corrupt("root " + root + " out of " + methodCount + " methods");
+            }
+            if (root > 0) {
+                graph.setRootNode(methods[root - 1]);
+            }
+
+            for (CalleeGraphNode method : methods) {
+                int calleeCount = readCount();
+                for (int i = 0; i < calleeCount; i++) {
+                    method.addCallee(methods[readIndex(methodCount)]);
+                }
+            }
+            expectEnd();
+            return graph;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw corrupt(e);
+        }
+    }
+
+    public ClusterTree readClusterTree(CouplingGraph couplingGraph) throws IOException {
+        expectKind(SnapshotFormat.CLUSTER_TREE);
+        try {
+            String[] strings = readStringTable();
+            ClusterTree.Engine engine = ClusterTree.Engine.valueOf(readString());
+            ClusterTree.Linkage linkage = ClusterTree.Linkage.valueOf(readString());
+            int leafCount = readCount();
+            if (leafCount > strings.length) {
+                throw corrupt(leafCount + " leaves for " + strings.length + " strings");
+            }
+
+            int mergeCount = readCount();
+            int[] left = new int[mergeCount];
+            int[] right = new int[mergeCount];
+            double[] coupling = new double[mergeCount];
+            for (int i = 0; i < mergeCount; i++) {
+                left[i] = readVarint();
+                right[i] = readVarint();
+                coupling[i] = buffer.getDouble();
+            }
+            int rootId = readVarint() - 1;
+            expectEnd();
+
+            return ClusterTree.fromMerges(engine, linkage, Arrays.copyOf(strings, leafCount), left, right,
+                    coupling, rootId, couplingGraph);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw corrupt(e);
+        }
+    }
+
+    public ModuleGraph readModuleGraph() throws IOException {
+        expectKind(SnapshotFormat.MODULE_GRAPH);
+        try {
+            String[] strings = readStringTable();
+            int moduleCount = readCount();
+
+            ModuleGraph graph = new ModuleGraph();
+            for (int m = 0; m < moduleCount; m++) {
+                Module module = new Module(readSignedVarint(), strings[readIndex(strings.length)]);
+                module.setCohesion(buffer.getDouble());
+                int classCount = readCount();
+                List<String> classes = new ArrayList<>(classCount);
+                for (int i = 0; i < classCount; i++) {
+                    classes.add(strings[readIndex(strings.length)]);
+                }
+                module.addClasses(classes);
+                graph.addModule(module);
+            }
+            expectEnd();
+            return graph;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw corrupt(e);
+        }
+    }
+
+    private String[] readStringTable() throws IOException {
+        String[] strings = new String[readCount()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = readString();
+        }
+        return strings;
+    }
+
+    private String readString() throws IOException {
+        int length = readVarint();
+        if (length > buffer.remaining()) {
+            throw corrupt("string of " + length + " bytes past the end of the file");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Every counted item takes at least one byte, which bounds what a damaged
+    // count can make us allocate.
+    private int readCount() throws IOException {
+        int count = readVarint();
+        if (count > buffer.remaining()) {
+            throw corrupt("count " + count + " past the end of the file");
+        }
+        return count;
+    }
+
+    private int readIndex(int size) throws IOException {
+        int index = readVarint();
+        if (index >= size) {
+            throw corrupt("index " + index + " out of " + size);
+        }
+        return index;
+    }
+
+    private int readVarint() throws IOException {
+        int value = readUnsigned();
+        if (value < 0) {
+            throw corrupt("varint out of range");
+        }
+        return value;
+    }
+
+    private int readSignedVarint() throws IOException {
+        int value = readUnsigned();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private int readUnsigned() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            if (shift == 28 && (b & 0xF0) != 0) {
+                throw corrupt("varint longer than 32 bits");
+            }
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw corrupt("varint longer than 32 bits");
+    }
+
+    private void expectKind(int expected) throws IOException {
+        if (kind != expected) {
+            throw new IOException(filePath + " holds a " + SnapshotFormat.kindName(kind) + " snapshot, not a "
+                    + SnapshotFormat.kindName(expected));
+        }
+    }
+
+    private void expectEnd() throws IOException {
+        if (buffer.hasRemaining()) {
+            throw corrupt(buffer.remaining() + " unexpected bytes at the end");
+        }
+    }
+
+    private IOException corrupt(String reason) {
+        return new IOException("Corrupt snapshot " + filePath + ": " + reason);
+    }
+
+    private IOException corrupt(RuntimeException cause) {
+        String reason = cause instanceof BufferUnderflowException ? "truncated" : cause.getMessage();
+        return new IOException("Corrupt snapshot " + filePath + ": " + reason, cause);
+    }
+}
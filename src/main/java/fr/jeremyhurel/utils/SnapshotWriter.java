@@ -0,0 +1,113 @@
+package fr.jeremyhurel.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Writes one snapshot in the layout of SnapshotFormat, through a byte buffer
+// drained to the file in large blocks.
+public final class SnapshotWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    public SnapshotWriter(String filePath, int kind) throws IOException {
+        this.channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        buffer.put(SnapshotFormat.MAGIC).put((byte) SnapshotFormat.VERSION).put((byte) kind);
+    }
+
+    // Writes the table and returns the index of each string in it.
+    public Map<String, Integer> writeStringTable(List<String> strings) throws IOException {
+        Map<String, Integer> indexes = new HashMap<>(strings.size() * 2);
+        writeVarint(strings.size());
+        for (String string : strings) {
+            if (indexes.putIfAbsent(string, indexes.size()) != null) {
+                throw new IllegalArgumentException("Duplicate string in snapshot table: " + string);
+            }
+            writeString(string);
+        }
+        return indexes;
+    }
+
+    public SnapshotWriter writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length);
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            int chunk = Math.min(bytes.length - offset, buffer.remaining());
+            buffer.put(bytes, offset, chunk);
+            offset += chunk;
+        }
+        return this;
+    }
+
+    public SnapshotWriter writeVarint(int value) throws IOException {
+        if (value < 0) {
+            throw new IllegalArgumentException("Unsigned varint cannot be negative: " + value);
+        }
+        return writeUnsigned(value);
+    }
+
+    public SnapshotWriter writeSignedVarint(int value) throws IOException {
+        return writeUnsigned((value << 1) ^ (value >> 31));
+    }
+
+    public SnapshotWriter writeFloat(float value) throws IOException {
+        ensure(Float.BYTES);
+        buffer.putFloat(value);
+        return this;
+    }
+
+    public SnapshotWriter writeDouble(double value) throws IOException {
+        ensure(Double.BYTES);
+        buffer.putDouble(value);
+        return this;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+
+    // The bits of value as an unsigned 32-bit number, seven at a time.
+    private SnapshotWriter writeUnsigned(int value) throws IOException {
+        ensure(5);
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+        return this;
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
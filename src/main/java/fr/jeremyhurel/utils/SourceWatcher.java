@@ -0,0 +1,140 @@
+package fr.jeremyhurel.utils;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class SourceWatcher implements Closeable {
+
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 300;
+
+    private final Path root;
+    private final long debounceMillis;
+    private final Consumer<Set<Path>> listener;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> directories;
+    private Thread thread;
+    private volatile boolean running;
+
+    public SourceWatcher(Path root, Consumer<Set<Path>> listener) throws IOException {
+        this(root, DEFAULT_DEBOUNCE_MILLIS, listener);
+    }
+
+    public SourceWatcher(Path root, long debounceMillis, Consumer<Set<Path>> listener) throws IOException {
+        this.root = root.toAbsolutePath().normalize();
+        this.debounceMillis = debounceMillis;
+        this.listener = listener;
+        this.watchService = this.root.getFileSystem().newWatchService();
+        this.directories = new HashMap<>();
+        registerAll(this.root);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::watch, "source-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        running = false;
+        watchService.close();
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    private void watch() {
+        Set<Path> pending = new LinkedHashSet<>();
+
+        while (running) {
+            WatchKey key;
+            try {
+                key = pending.isEmpty()
+                        ? watchService.take()
+                        : watchService.poll(debounceMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            if (key == null) {
+                dispatch(pending);
+                pending = new LinkedHashSet<>();
+                continue;
+            }
+
+            Path directory = directories.get(key);
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW || directory == null) {
+                    pending.add(root);
+                    continue;
+                }
+
+                Path child = directory.resolve((Path) event.context());
+                if (event.kind() == ENTRY_CREATE && Files.isDirectory(child)) {
+                    try {
+                        registerAll(child);
+                    } catch (IOException e) {
+                        pending.add(root);
+                    }
+                }
+                pending.add(child);
+            }
+
+            if (!key.reset()) {
+                directories.remove(key);
+            }
+        }
+    }
+
+    private void dispatch(Set<Path> changedPaths) {
+        try {
+            listener.accept(changedPaths);
+        } catch (RuntimeException e) {
+            System.err.println("Source watcher listener failed: " + e.getMessage());
+        }
+    }
+
+    private void registerAll(Path start) throws IOException {
+        List<Path> subdirectories;
+        try (Stream<Path> paths = Files.walk(start)) {
+            subdirectories = paths.filter(Files::isDirectory).collect(Collectors.toList());
+        }
+
+        for (Path directory : subdirectories) {
+            WatchKey key = directory.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+            directories.put(key, directory);
+        }
+    }
+}
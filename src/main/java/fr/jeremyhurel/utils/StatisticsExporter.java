@@ -1,6 +1,5 @@
 package fr.jeremyhurel.utils;
 
-import java.io.FileWriter;
 import java.io.IOException;
 import java.text.DecimalFormat;
 
@@ -17,81 +16,82 @@ public class StatisticsExporter {
     }
 
     public static void exportToText(ProjectStatistics stats, String filePath) throws IOException {
-        try (FileWriter writer = new FileWriter(filePath)) {
+        try (ExportWriter writer = new ExportWriter(filePath)) {
             writeStatisticsReport(writer, stats);
         }
     }
 
-    private static void writeStatisticsReport(FileWriter writer, ProjectStatistics stats) throws IOException {
-        writer.write("=".repeat(80) + "\n");
+    private static void writeStatisticsReport(ExportWriter writer, ProjectStatistics stats) throws IOException {
+        writer.writeRepeated('=', 80).write('\n');
         writer.write("RAPPORT STATISTIQUES DU PROJET JAVA\n");
-        writer.write("=".repeat(80) + "\n\n");
+        writer.writeRepeated('=', 80).write("\n\n");
 
         writer.write("STATISTIQUES GENERALES\n");
-        writer.write("-".repeat(30) + "\n");
-        writer.write("1. Nombre de classes de l'application: " + stats.getTotalClasses() + "\n");
-        writer.write("2. Nombre de lignes de code de l'application: " + stats.getTotalLinesOfCode() + "\n");
-        writer.write("3. Nombre total de méthodes de l'application: " + stats.getTotalMethods() + "\n");
-        writer.write("4. Nombre total de packages de l'application: " + stats.getTotalPackages() + "\n");
-        writer.write("5. Nombre moyen de méthodes par classe: "
-                + DECIMAL_FORMAT.format(stats.getAverageMethodsPerClass()) + "\n");
-        writer.write("6. Nombre moyen de lignes de code par méthode: "
-                + DECIMAL_FORMAT.format(stats.getAverageLinesPerMethod()) + "\n");
-        writer.write("7. Nombre moyen d'attributs par classe: "
-                + DECIMAL_FORMAT.format(stats.getAverageAttributesPerClass()) + "\n\n");
+        writer.writeRepeated('-', 30).write('\n');
+        writer.write("1. Nombre de classes de l'application: ").writeInt(stats.getTotalClasses()).write('\n');
+        writer.write("2. Nombre de lignes de code de l'application: ").writeInt(stats.getTotalLinesOfCode()).write('\n');
+        writer.write("3. Nombre total de méthodes de l'application: ").writeInt(stats.getTotalMethods()).write('\n');
+        writer.write("4. Nombre total de packages de l'application: ").writeInt(stats.getTotalPackages()).write('\n');
+        writer.write("5. Nombre moyen de méthodes par classe: ")
+                .write(DECIMAL_FORMAT.format(stats.getAverageMethodsPerClass())).write('\n');
+        writer.write("6. Nombre moyen de lignes de code par méthode: ")
+                .write(DECIMAL_FORMAT.format(stats.getAverageLinesPerMethod())).write('\n');
+        writer.write("7. Nombre moyen d'attributs par classe: ")
+                .write(DECIMAL_FORMAT.format(stats.getAverageAttributesPerClass())).write("\n\n");
 
         writer.write("8. LES 10% DES CLASSES AVEC LE PLUS DE METHODES\n");
-        writer.write("-".repeat(50) + "\n");
+        writer.writeRepeated('-', 50).write('\n');
         for (ClassStats cls : stats.getTop10PercentClassesByMethods()) {
-            writer.write("   - " + cls.getFullName() + " (" + cls.getMethodCount() + " méthodes)\n");
+            writer.write("   - ").write(cls.getFullName()).write(" (").writeInt(cls.getMethodCount()).write(" méthodes)\n");
         }
-        writer.write("\n");
+        writer.write('\n');
 
         writer.write("9. LES 10% DES CLASSES AVEC LE PLUS D'ATTRIBUTS\n");
-        writer.write("-".repeat(50) + "\n");
+        writer.writeRepeated('-', 50).write('\n');
         for (ClassStats cls : stats.getTop10PercentClassesByAttributes()) {
-            writer.write("   - " + cls.getFullName() + " (" + cls.getAttributeCount() + " attributs)\n");
+            writer.write("   - ").write(cls.getFullName()).write(" (").writeInt(cls.getAttributeCount()).write(" attributs)\n");
         }
-        writer.write("\n");
+        writer.write('\n');
 
         writer.write("10. CLASSES DANS LES DEUX CATEGORIES PRECEDENTES\n");
-        writer.write("-".repeat(50) + "\n");
+        writer.writeRepeated('-', 50).write('\n');
         if (stats.getClassesInBothTopCategories().isEmpty()) {
             writer.write("   Aucune classe ne fait partie des deux catégories.\n");
         } else {
             for (ClassStats cls : stats.getClassesInBothTopCategories()) {
-                writer.write("   - " + cls.getFullName() + " (" + cls.getMethodCount() + " méthodes, "
-                        + cls.getAttributeCount() + " attributs)\n");
+                writer.write("   - ").write(cls.getFullName()).write(" (").writeInt(cls.getMethodCount()).write(" méthodes, ")
+                        .writeInt(cls.getAttributeCount()).write(" attributs)\n");
             }
         }
-        writer.write("\n");
+        writer.write('\n');
 
-        writer.write("11. CLASSES AVEC PLUS DE " + stats.getMethodThreshold() + " METHODES\n");
-        writer.write("-".repeat(50) + "\n");
+        writer.write("11. CLASSES AVEC PLUS DE ").writeInt(stats.getMethodThreshold()).write(" METHODES\n");
+        writer.writeRepeated('-', 50).write('\n');
         if (stats.getClassesWithMoreThanXMethods().isEmpty()) {
-            writer.write("   Aucune classe n'a plus de " + stats.getMethodThreshold() + " méthodes.\n");
+            writer.write("   Aucune classe n'a plus de ").writeInt(stats.getMethodThreshold()).write(" méthodes.\n");
         } else {
             for (ClassStats cls : stats.getClassesWithMoreThanXMethods()) {
-                writer.write("   - " + cls.getFullName() + " (" + cls.getMethodCount() + " méthodes)\n");
+                writer.write("   - ").write(cls.getFullName()).write(" (").writeInt(cls.getMethodCount()).write(" méthodes)\n");
             }
         }
-        writer.write("\n");
+        writer.write('\n');
 
         writer.write("12. LES 10% DES METHODES AVEC LE PLUS DE LIGNES\n");
-        writer.write("-".repeat(50) + "\n");
+        writer.writeRepeated('-', 50).write('\n');
         for (MethodStats method : stats.getTop10PercentMethodsByLines()) {
-            writer.write("   - " + method.getFullMethodName() + " (" + method.getLinesOfCode() + " lignes)\n");
+            writer.write("   - ").write(method.getFullMethodName()).write(" (").writeInt(method.getLinesOfCode())
+                    .write(" lignes)\n");
         }
-        writer.write("\n");
+        writer.write('\n');
 
         writer.write("13. NOMBRE MAXIMAL DE PARAMETRES\n");
-        writer.write("-".repeat(50) + "\n");
-        writer.write("   Le nombre maximal de paramètres dans l'application: " + stats.getMaxParametersInApplication()
-                + "\n\n");
+        writer.writeRepeated('-', 50).write('\n');
+        writer.write("   Le nombre maximal de paramètres dans l'application: ")
+                .writeInt(stats.getMaxParametersInApplication()).write("\n\n");
 
-        writer.write("=".repeat(80) + "\n");
+        writer.writeRepeated('=', 80).write('\n');
         writer.write("FIN DU RAPPORT\n");
-        writer.write("=".repeat(80) + "\n");
+        writer.writeRepeated('=', 80).write('\n');
     }
 
     public static String formatStatisticsForDisplay(ProjectStatistics stats) {
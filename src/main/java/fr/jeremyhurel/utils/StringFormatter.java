@@ -32,7 +32,14 @@ public final class StringFormatter {
         if (name == null) {
             return "";
         }
-        return name.replaceAll("[^a-zA-Z0-9_.]", "_");
+        StringBuilder sanitized = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i += Character.charCount(name.codePointAt(i))) {
+            int c = name.codePointAt(i);
+            boolean kept = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '_' || c == '.';
+            sanitized.append(kept ? (char) c : '_');
+        }
+        return sanitized.toString();
     }
 
     public static String getSimpleClassName(String fullClassName) {
@@ -1,78 +1,191 @@
 package fr.jeremyhurel.utils.strategies;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import fr.jeremyhurel.constants.AppConstants;
 import fr.jeremyhurel.models.CallGraph;
 import fr.jeremyhurel.models.CalleeGraphNode;
-import static fr.jeremyhurel.utils.StringFormatter.escapeDot;
+import fr.jeremyhurel.utils.ExportWriter;
 import static fr.jeremyhurel.utils.StringFormatter.sanitizeForDot;
 
 public class CallGraphDotExportStrategy implements ExportStrategy<CallGraph> {
 
+    private static final String TRUNCATED_NODE_ID = "__truncated__";
+
+    private final int maxNodes;
+    private final int maxEdges;
+
+    public CallGraphDotExportStrategy() {
+        this(AppConstants.DEFAULT_DOT_MAX_NODES, AppConstants.DEFAULT_DOT_MAX_EDGES);
+    }
+
+    public CallGraphDotExportStrategy(int maxNodes, int maxEdges) {
+        if (maxNodes < 1 || maxEdges < 0) {
+            throw new IllegalArgumentException("DOT export limits must allow at least one node: "
+                    + maxNodes + " nodes, " + maxEdges + " edges");
+        }
+        this.maxNodes = maxNodes;
+        this.maxEdges = maxEdges;
+    }
+
     @Override
     public void export(CallGraph data, String filePath) throws IOException {
-        try (FileWriter writer = new FileWriter(filePath)) {
+        try (ExportWriter writer = new ExportWriter(filePath)) {
             writer.write("digraph CallGraph {\n");
             writer.write("    rankdir=LR;\n");
             writer.write("    node [shape=box, style=filled, fillcolor=lightblue];\n");
             writer.write("    edge [color=black, arrowhead=open];\n\n");
 
-            Set<String> writtenNodes = new HashSet<>();
-            Set<String> writtenEdges = new HashSet<>();
+            DotGraphWriter graphWriter = new DotGraphWriter(writer);
 
             if (data.getRootNode() != null) {
-
-                String rootNodeId = sanitizeForDot(data.getRootNode().getFullName());
-                writer.write("    \"" + rootNodeId + "\" [fillcolor=lightgreen, label=\""
-                        + escapeDot(data.getRootNode().getFullName()) + "\\n(ROOT)\"];\n");
-                writtenNodes.add(rootNodeId);
-
-                writeDotNode(writer, data.getRootNode(), writtenNodes, writtenEdges, new HashSet<>());
+                graphWriter.writeRoot(data.getRootNode());
+                graphWriter.writeReachable(data.getRootNode());
             } else {
-
                 for (CalleeGraphNode node : data.getNodes().values()) {
-                    writeDotNode(writer, node, writtenNodes, writtenEdges, new HashSet<>());
+                    graphWriter.writeReachable(node);
                 }
             }
 
+            graphWriter.writeTruncationMarkers();
             writer.write("}\n");
         }
     }
 
-    private void writeDotNode(FileWriter writer, CalleeGraphNode node, Set<String> writtenNodes,
-            Set<String> writtenEdges, Set<CalleeGraphNode> visited) throws IOException {
-        if (visited.contains(node)) {
-            return;
+    // Each method is expanded once, so the export is linear in the size of the
+    // graph. Methods sharing a DOT identifier, such as overloads, are written as
+    // one node, which is why written nodes and edges are tracked by DOT id.
+    private final class DotGraphWriter {
+        private final ExportWriter writer;
+        private final Map<CalleeGraphNode, Integer> dotIdOfNode = new HashMap<>();
+        private final Map<String, Integer> dotIdOfName = new HashMap<>();
+        private final List<String> dotNames = new ArrayList<>();
+        private final BitSet writtenNodes = new BitSet();
+        private final BitSet omittedNodes = new BitSet();
+        private final BitSet nodesWithOmittedCalls = new BitSet();
+        private final Set<Long> seenEdges = new HashSet<>();
+        private final Set<CalleeGraphNode> expanded = new HashSet<>();
+        private int writtenNodeCount;
+        private int writtenEdgeCount;
+        private int omittedEdgeCount;
+
+        private DotGraphWriter(ExportWriter writer) {
+            this.writer = writer;
+        }
+
+        private void writeRoot(CalleeGraphNode root) throws IOException {
+            int rootId = dotIdOf(root);
+            writer.write("    \"").write(dotNames.get(rootId)).write("\" [fillcolor=lightgreen, label=\"")
+                    .writeEscaped(root.getFullName()).write("\\n(ROOT)\"];\n");
+            writtenNodes.set(rootId);
+            writtenNodeCount++;
         }
-        visited.add(node);
 
-        String nodeId = sanitizeForDot(node.getFullName());
+        private void writeReachable(CalleeGraphNode start) throws IOException {
+            if (!expanded.add(start)) {
+                return;
+            }
+            writeNode(start);
+
+            Deque<CalleeGraphNode> nodes = new ArrayDeque<>();
+            Deque<int[]> nextCallee = new ArrayDeque<>();
+            nodes.push(start);
+            nextCallee.push(new int[1]);
+
+            while (!nodes.isEmpty()) {
+                CalleeGraphNode node = nodes.peek();
+                int[] next = nextCallee.peek();
+                if (next[0] == node.getCallees().size()) {
+                    nodes.pop();
+                    nextCallee.pop();
+                    continue;
+                }
+
+                CalleeGraphNode callee = node.getCallees().get(next[0]++);
+                writeNode(callee);
+                writeEdge(dotIdOf(node), dotIdOf(callee));
 
-        if (!writtenNodes.contains(nodeId)) {
-            String label = escapeDot(node.getClassName()) + "\\n" + escapeDot(node.getMethodName());
-            writer.write("    \"" + nodeId + "\" [label=\"" + label + "\"];\n");
-            writtenNodes.add(nodeId);
+                if (expanded.add(callee)) {
+                    nodes.push(callee);
+                    nextCallee.push(new int[1]);
+                }
+            }
         }
 
-        for (CalleeGraphNode callee : node.getCallees()) {
-            String calleeId = sanitizeForDot(callee.getFullName());
-            String edge = nodeId + " -> " + calleeId;
+        private int dotIdOf(CalleeGraphNode node) {
+            Integer id = dotIdOfNode.get(node);
+            if (id == null) {
+                String name = sanitizeForDot(node.getFullName());
+                id = dotIdOfName.get(name);
+                if (id == null) {
+                    id = dotNames.size();
+                    dotIdOfName.put(name, id);
+                    dotNames.add(name);
+                }
+                dotIdOfNode.put(node, id);
+            }
+            return id;
+        }
 
-            if (!writtenNodes.contains(calleeId)) {
-                String calleeLabel = escapeDot(callee.getClassName()) + "\\n" + escapeDot(callee.getMethodName());
-                writer.write("    \"" + calleeId + "\" [label=\"" + calleeLabel + "\"];\n");
-                writtenNodes.add(calleeId);
+        private void writeNode(CalleeGraphNode node) throws IOException {
+            int id = dotIdOf(node);
+            if (writtenNodes.get(id) || omittedNodes.get(id)) {
+                return;
+            }
+            if (writtenNodeCount >= maxNodes) {
+                omittedNodes.set(id);
+                return;
             }
 
-            if (!writtenEdges.contains(edge)) {
-                writer.write("    \"" + nodeId + "\" -> \"" + calleeId + "\";\n");
-                writtenEdges.add(edge);
+            writer.write("    \"").write(dotNames.get(id)).write("\" [label=\"").writeEscaped(node.getClassName())
+                    .write("\\n").writeEscaped(node.getMethodName()).write("\"];\n");
+            writtenNodes.set(id);
+            writtenNodeCount++;
+        }
+
+        private void writeEdge(int from, int to) throws IOException {
+            if (!seenEdges.add(((long) from << 32) | to)) {
+                return;
             }
+            if (!writtenNodes.get(from) || !writtenNodes.get(to) || writtenEdgeCount >= maxEdges) {
+                omittedEdgeCount++;
+                if (writtenNodes.get(from)) {
+                    nodesWithOmittedCalls.set(from);
+                }
+                return;
+            }
+
+            writer.write("    \"").write(dotNames.get(from)).write("\" -> \"").write(dotNames.get(to)).write("\";\n");
+            writtenEdgeCount++;
+        }
 
-            writeDotNode(writer, callee, writtenNodes, writtenEdges, new HashSet<>(visited));
+        // One note node states what was left out, and a dashed edge points to it
+        // from every written method whose calls were not all exported.
+        private void writeTruncationMarkers() throws IOException {
+            int omittedNodeCount = omittedNodes.cardinality();
+            if (omittedNodeCount == 0 && omittedEdgeCount == 0) {
+                return;
+            }
+
+            writer.write("\n    // Truncated: ").writeInt(omittedNodeCount).write(" methods and ").writeInt(omittedEdgeCount)
+                    .write(" calls omitted (limits: ").writeInt(maxNodes).write(" methods, ").writeInt(maxEdges)
+                    .write(" calls)\n");
+            writer.write("    \"" + TRUNCATED_NODE_ID + "\" [shape=note, fillcolor=lightyellow, label=\"Truncated\\n")
+                    .writeInt(omittedNodeCount).write(" more methods\\n").writeInt(omittedEdgeCount)
+                    .write(" more calls\"];\n");
+            for (int id = nodesWithOmittedCalls.nextSetBit(0); id >= 0; id = nodesWithOmittedCalls.nextSetBit(id + 1)) {
+                writer.write("    \"").write(dotNames.get(id)).write("\" -> \"" + TRUNCATED_NODE_ID
+                        + "\" [style=dashed, color=gray];\n");
+            }
         }
     }
 
@@ -1,84 +1,129 @@
 package fr.jeremyhurel.utils.strategies;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.Set;
 
 import fr.jeremyhurel.models.CallGraph;
 import fr.jeremyhurel.models.CalleeGraphNode;
-import static fr.jeremyhurel.utils.StringFormatter.escapeJson;
+import fr.jeremyhurel.utils.JsonWriter;
 
 public class CallGraphJsonExportStrategy implements ExportStrategy<CallGraph> {
 
+    private static final String CIRCULAR_REFERENCE = "[CIRCULAR_REFERENCE]";
+    private static final String EXPANDED_ABOVE = "[EXPANDED_ABOVE]";
+
+    private final boolean pretty;
+
+    public CallGraphJsonExportStrategy() {
+        this(true);
+    }
+
+    public CallGraphJsonExportStrategy(boolean pretty) {
+        this.pretty = pretty;
+    }
+
     @Override
     public void export(CallGraph data, String filePath) throws IOException {
-        try (FileWriter writer = new FileWriter(filePath)) {
-            writer.write("{\n");
-            writer.write("  \"callGraph\": {\n");
-            writer.write("    \"nodeCount\": " + data.getNodeCount() + ",\n");
-            writer.write("    \"rootNode\": ");
-
+        try (JsonWriter json = new JsonWriter(filePath, pretty)) {
+            json.beginObject().name("callGraph").beginObject();
+            json.name("nodeCount").value(data.getNodeCount());
+            json.name("rootNode");
             if (data.getRootNode() != null) {
-                writeNodeJson(writer, data.getRootNode(), "    ", new HashSet<>());
+                writeCallTree(json, data.getRootNode());
             } else {
-                writer.write("null");
+                json.nullValue();
+            }
+
+            // The tree above only reaches what the root calls, so every node
+            // also lists its callees by position in this array, which is what
+            // lets JsonExportReader rebuild the whole graph.
+            Map<CalleeGraphNode, Integer> indexes = new IdentityHashMap<>(data.getNodeCount() * 2);
+            for (CalleeGraphNode node : data.getNodes().values()) {
+                indexes.put(node, indexes.size());
             }
 
-            writer.write(",\n    \"allNodes\": [\n");
-            boolean first = true;
+            json.name("allNodes").beginArray();
             for (CalleeGraphNode node : data.getNodes().values()) {
-                if (!first) {
-                    writer.write(",\n");
+                json.beginObject();
+                writeNodeFields(json, node);
+                json.name("calleeCount").value(node.getCallees().size());
+                json.name("calleeIndexes").beginArray();
+                for (CalleeGraphNode callee : node.getCallees()) {
+                    Integer index = indexes.get(callee);
+                    if (index != null) {
+                        json.value(index);
+                    }
                 }
-                writer.write("      {\n");
-                writer.write("        \"className\": \"" + escapeJson(node.getClassName()) + "\",\n");
-                writer.write("        \"methodName\": \"" + escapeJson(node.getMethodName()) + "\",\n");
-                writer.write("        \"signature\": \"" + escapeJson(node.getSignature()) + "\",\n");
-                writer.write("        \"lineNumber\": " + node.getLineNumber() + ",\n");
-                writer.write("        \"calleeCount\": " + node.getCallees().size() + "\n");
-                writer.write("      }");
-                first = false;
+                json.endArray();
+                json.endObject();
             }
-            writer.write("\n    ]\n");
-            writer.write("  }\n");
-            writer.write("}\n");
+            json.endArray();
+
+            json.endObject().endObject();
         }
     }
 
-    private void writeNodeJson(FileWriter writer, CalleeGraphNode node, String indent,
-            Set<CalleeGraphNode> visited) throws IOException {
-        if (visited.contains(node)) {
-            writer.write("{\n");
-            writer.write(indent + "  \"className\": \"" + escapeJson(node.getClassName()) + "\",\n");
-            writer.write(indent + "  \"methodName\": \"" + escapeJson(node.getMethodName()) + "\",\n");
-            writer.write(indent + "  \"signature\": \"" + escapeJson(node.getSignature()) + "\",\n");
-            writer.write(indent + "  \"lineNumber\": " + node.getLineNumber() + ",\n");
-            writer.write(indent + "  \"callees\": \"[CIRCULAR_REFERENCE]\"\n");
-            writer.write(indent + "}");
-            return;
+    // Each method is expanded once, at its first place in the tree. A later
+    // call to a method on the current path is a cycle, and a call to one
+    // expanded in another branch points back to that branch, which keeps the
+    // tree linear in the size of the graph.
+    private void writeCallTree(JsonWriter json, CalleeGraphNode root) throws IOException {
+        Set<CalleeGraphNode> expanded = new HashSet<>();
+        Set<CalleeGraphNode> onPath = new HashSet<>();
+        Deque<CalleeGraphNode> path = new ArrayDeque<>();
+        Deque<int[]> nextCallee = new ArrayDeque<>();
+
+        if (beginNode(json, root, expanded, onPath)) {
+            path.push(root);
+            nextCallee.push(new int[1]);
         }
+        while (!path.isEmpty()) {
+            CalleeGraphNode node = path.peek();
+            int[] next = nextCallee.peek();
+            if (next[0] == node.getCallees().size()) {
+                json.endArray().endObject();
+                onPath.remove(path.pop());
+                nextCallee.pop();
+                continue;
+            }
 
-        visited.add(node);
-        writer.write("{\n");
-        writer.write(indent + "  \"className\": \"" + escapeJson(node.getClassName()) + "\",\n");
-        writer.write(indent + "  \"methodName\": \"" + escapeJson(node.getMethodName()) + "\",\n");
-        writer.write(indent + "  \"signature\": \"" + escapeJson(node.getSignature()) + "\",\n");
-        writer.write(indent + "  \"lineNumber\": " + node.getLineNumber() + ",\n");
-        writer.write(indent + "  \"callees\": [\n");
-
-        boolean first = true;
-        for (CalleeGraphNode callee : node.getCallees()) {
-            if (!first) {
-                writer.write(",\n");
+            CalleeGraphNode callee = node.getCallees().get(next[0]++);
+            if (beginNode(json, callee, expanded, onPath)) {
+                path.push(callee);
+                nextCallee.push(new int[1]);
             }
-            writer.write(indent + "    ");
-            writeNodeJson(writer, callee, indent + "    ", new HashSet<>(visited));
-            first = false;
         }
+    }
+
+    // Returns whether the callees of the node still have to be written.
+    private boolean beginNode(JsonWriter json, CalleeGraphNode node, Set<CalleeGraphNode> expanded,
+            Set<CalleeGraphNode> onPath) throws IOException {
+        json.beginObject();
+        writeNodeFields(json, node);
+        json.name("callees");
+        if (onPath.contains(node)) {
+            json.value(CIRCULAR_REFERENCE).endObject();
+            return false;
+        }
+        if (!expanded.add(node)) {
+            json.value(EXPANDED_ABOVE).endObject();
+            return false;
+        }
+        onPath.add(node);
+        json.beginArray();
+        return true;
+    }
 
-        writer.write("\n" + indent + "  ]\n");
-        writer.write(indent + "}");
+    private void writeNodeFields(JsonWriter json, CalleeGraphNode node) throws IOException {
+        json.name("className").value(node.getClassName());
+        json.name("methodName").value(node.getMethodName());
+        json.name("signature").value(node.getSignature());
+        json.name("lineNumber").value(node.getLineNumber());
     }
 
     @Override
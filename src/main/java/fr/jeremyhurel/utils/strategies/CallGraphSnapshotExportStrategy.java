@@ -0,0 +1,77 @@
+package fr.jeremyhurel.utils.strategies;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import fr.jeremyhurel.models.CallGraph;
+import fr.jeremyhurel.models.CalleeGraphNode;
+import fr.jeremyhurel.utils.SnapshotFormat;
+import fr.jeremyhurel.utils.SnapshotWriter;
+
+public class CallGraphSnapshotExportStrategy implements ExportStrategy<CallGraph> {
+
+    // Methods of the node map come first. Methods only reachable as callees,
+    // such as removed nodes still called by others, follow them so that every
+    // call can be stored as an index.
+    @Override
+    public void export(CallGraph data, String filePath) throws IOException {
+        List<CalleeGraphNode> methods = new ArrayList<>(data.getNodes().values());
+        Map<CalleeGraphNode, Integer> indexOf = new IdentityHashMap<>();
+        for (CalleeGraphNode method : methods) {
+            indexOf.put(method, indexOf.size());
+        }
+        int mappedCount = methods.size();
+        if (data.getRootNode() != null && indexOf.putIfAbsent(data.getRootNode(), methods.size()) == null) {
+            methods.add(data.getRootNode());
+        }
+        for (int i = 0; i < methods.size(); i++) {
+            for (CalleeGraphNode callee : methods.get(i).getCallees()) {
+                if (indexOf.putIfAbsent(callee, methods.size()) == null) {
+                    methods.add(callee);
+                }
+            }
+        }
+
+        Set<String> strings = new LinkedHashSet<>();
+        for (CalleeGraphNode method : methods) {
+            strings.add(method.getClassName());
+            strings.add(method.getMethodName());
+            strings.add(method.getSignature());
+        }
+
+        try (SnapshotWriter writer = new SnapshotWriter(filePath, SnapshotFormat.CALL_GRAPH)) {
+            Map<String, Integer> indexes = writer.writeStringTable(new ArrayList<>(strings));
+            writer.writeVarint(methods.size()).writeVarint(mappedCount);
+            for (CalleeGraphNode method : methods) {
+                writer.writeVarint(indexes.get(method.getClassName()))
+                        .writeVarint(indexes.get(method.getMethodName()))
+                        .writeVarint(indexes.get(method.getSignature()))
+                        .writeSignedVarint(method.getLineNumber());
+            }
+
+            writer.writeVarint(data.getRootNode() != null ? indexOf.get(data.getRootNode()) + 1 : 0);
+
+            for (CalleeGraphNode method : methods) {
+                writer.writeVarint(method.getCallees().size());
+                for (CalleeGraphNode callee : method.getCallees()) {
+                    writer.writeVarint(indexOf.get(callee));
+                }
+            }
+        }
+    }
+
+    @Override
+    public String getFormatName() {
+        return "Snapshot";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "snap";
+    }
+}
@@ -1,72 +1,68 @@
 package fr.jeremyhurel.utils.strategies;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.util.Objects;
 
 import fr.jeremyhurel.models.class_models.ClassDiagram;
 import fr.jeremyhurel.models.class_models.ClassDiagramNode;
 import fr.jeremyhurel.models.class_models.ClassRelationship;
-import static fr.jeremyhurel.utils.StringFormatter.escapeJson;
+import fr.jeremyhurel.utils.JsonWriter;
 
 public class ClassDiagramJsonExportStrategy implements ExportStrategy<ClassDiagram> {
 
+    private final boolean pretty;
+
+    public ClassDiagramJsonExportStrategy() {
+        this(true);
+    }
+
+    public ClassDiagramJsonExportStrategy(boolean pretty) {
+        this.pretty = pretty;
+    }
+
+    // Missing names are written as empty strings, as the export always did.
     @Override
     public void export(ClassDiagram data, String filePath) throws IOException {
-        try (FileWriter writer = new FileWriter(filePath)) {
-            writer.write("{\n");
-            writer.write("  \"classDiagram\": {\n");
-            writer.write("    \"classCount\": " + data.getClassCount() + ",\n");
-            writer.write("    \"packageCount\": " + data.getPackageCount() + ",\n");
-            writer.write("    \"relationshipCount\": " + data.getRelationshipCount() + ",\n");
-            writer.write("    \"rootPackage\": \""
-                    + escapeJson(data.getRootPackage() != null ? data.getRootPackage() : "") + "\",\n");
-            writer.write("    \"packageEncapsulation\": " + data.isPackageEncapsulation() + ",\n");
-            writer.write("    \"classes\": [\n");
+        try (JsonWriter json = new JsonWriter(filePath, pretty)) {
+            json.beginObject().name("classDiagram").beginObject();
+            json.name("classCount").value(data.getClassCount());
+            json.name("packageCount").value(data.getPackageCount());
+            json.name("relationshipCount").value(data.getRelationshipCount());
+            json.name("rootPackage").value(Objects.toString(data.getRootPackage(), ""));
+            json.name("packageEncapsulation").value(data.isPackageEncapsulation());
 
-            boolean first = true;
+            json.name("classes").beginArray();
             for (ClassDiagramNode classNode : data.getClasses().values()) {
-                if (!first) {
-                    writer.write(",\n");
-                }
-                writeClassJson(writer, classNode);
-                first = false;
+                writeClassJson(json, classNode);
             }
+            json.endArray();
 
-            writer.write("\n    ],\n");
-            writer.write("    \"relationships\": [\n");
-
-            first = true;
+            json.name("relationships").beginArray();
             for (ClassRelationship relationship : data.getRelationships()) {
-                if (!first) {
-                    writer.write(",\n");
-                }
-                writer.write("      {\n");
-                writer.write("        \"source\": \"" + escapeJson(relationship.getSourceClass()) + "\",\n");
-                writer.write("        \"target\": \"" + escapeJson(relationship.getTargetClass()) + "\",\n");
-                writer.write("        \"type\": \"" + relationship.getType().name() + "\",\n");
-                writer.write("        \"label\": \"" + escapeJson(relationship.getLabel()) + "\"\n");
-                writer.write("      }");
-                first = false;
+                json.beginObject();
+                json.name("source").value(Objects.toString(relationship.getSourceClass(), ""));
+                json.name("target").value(Objects.toString(relationship.getTargetClass(), ""));
+                json.name("type").value(relationship.getType().name());
+                json.name("label").value(Objects.toString(relationship.getLabel(), ""));
+                json.endObject();
             }
+            json.endArray();
 
-            writer.write("\n    ]\n");
-            writer.write("  }\n");
-            writer.write("}\n");
+            json.endObject().endObject();
         }
     }
 
-    private void writeClassJson(FileWriter writer, ClassDiagramNode classNode) throws IOException {
-        writer.write("      {\n");
-        writer.write("        \"className\": \"" + escapeJson(classNode.getClassName()) + "\",\n");
-        writer.write("        \"packageName\": \"" + escapeJson(classNode.getPackageName()) + "\",\n");
-        writer.write("        \"fullName\": \"" + escapeJson(classNode.getFullName()) + "\",\n");
-        writer.write("        \"isInterface\": " + classNode.isInterface() + ",\n");
-        writer.write("        \"isAbstract\": " + classNode.isAbstract() + ",\n");
-        writer.write("        \"superClass\": \""
-                + escapeJson(classNode.getSuperClass() != null ? classNode.getSuperClass() : "") + "\",\n");
-        writer.write("        \"attributeCount\": " + classNode.getAttributes().size() + ",\n");
-        writer.write("        \"methodCount\": " + classNode.getMethods().size() + "\n");
-        writer.write("      }");
+    private void writeClassJson(JsonWriter json, ClassDiagramNode classNode) throws IOException {
+        json.beginObject();
+        json.name("className").value(Objects.toString(classNode.getClassName(), ""));
+        json.name("packageName").value(Objects.toString(classNode.getPackageName(), ""));
+        json.name("fullName").value(Objects.toString(classNode.getFullName(), ""));
+        json.name("isInterface").value(classNode.isInterface());
+        json.name("isAbstract").value(classNode.isAbstract());
+        json.name("superClass").value(Objects.toString(classNode.getSuperClass(), ""));
+        json.name("attributeCount").value(classNode.getAttributes().size());
+        json.name("methodCount").value(classNode.getMethods().size());
+        json.endObject();
     }
 
     @Override
@@ -1,6 +1,5 @@
 package fr.jeremyhurel.utils.strategies;
 
-import java.io.FileWriter;
 import java.io.IOException;
 import java.util.HashSet;
 import java.util.Set;
@@ -10,12 +9,13 @@ import fr.jeremyhurel.models.class_models.ClassDiagram;
 import fr.jeremyhurel.models.class_models.ClassDiagramNode;
 import fr.jeremyhurel.models.class_models.ClassMethod;
 import fr.jeremyhurel.models.class_models.ClassRelationship;
+import fr.jeremyhurel.utils.ExportWriter;
 
 public class ClassDiagramPlantUMLExportStrategy implements ExportStrategy<ClassDiagram> {
 
     @Override
     public void export(ClassDiagram data, String filePath) throws IOException {
-        try (FileWriter writer = new FileWriter(filePath)) {
+        try (ExportWriter writer = new ExportWriter(filePath)) {
             writer.write("@startuml\n");
             writer.write("!theme plain\n");
             writer.write("title Class Diagram\n\n");
@@ -46,7 +46,7 @@ public class ClassDiagramPlantUMLExportStrategy implements ExportStrategy<ClassD
                     String packageName = entry.getKey();
                     java.util.List<ClassDiagramNode> classesInPackage = entry.getValue();
 
-                    writer.write("package \"" + packageName + "\" {\n");
+                    writer.write("package \"").write(packageName).write("\" {\n");
 
                     for (ClassDiagramNode classNode : classesInPackage) {
                         writePlantUMLClass(writer, classNode, writtenClasses, "  ");
@@ -71,7 +71,7 @@ public class ClassDiagramPlantUMLExportStrategy implements ExportStrategy<ClassD
         }
     }
 
-    private void writePlantUMLClass(FileWriter writer, ClassDiagramNode classNode,
+    private void writePlantUMLClass(ExportWriter writer, ClassDiagramNode classNode,
             Set<String> writtenClasses, String indent) throws IOException {
         String className = sanitizeForPlantUML(classNode.getClassName());
 
@@ -81,28 +81,28 @@ public class ClassDiagramPlantUMLExportStrategy implements ExportStrategy<ClassD
         writtenClasses.add(className);
 
         if (classNode.isInterface()) {
-            writer.write(indent + "interface " + className + " <<interface>> {\n");
+            writer.write(indent).write("interface ").write(className).write(" <<interface>> {\n");
         } else if (classNode.isAbstract()) {
-            writer.write(indent + "abstract class " + className + " <<abstract>> {\n");
+            writer.write(indent).write("abstract class ").write(className).write(" <<abstract>> {\n");
         } else {
-            writer.write(indent + "class " + className + " <<concrete>> {\n");
+            writer.write(indent).write("class ").write(className).write(" <<concrete>> {\n");
         }
 
         for (ClassAttr attribute : classNode.getAttributes()) {
-            writer.write(indent + "  " + attribute.getVisibility() + " ");
+            writer.write(indent).write("  ").write(attribute.getVisibility()).write(' ');
             if (attribute.isStatic())
                 writer.write("{static} ");
             if (attribute.isFinal())
                 writer.write("{final} ");
-            writer.write(attribute.getType() + " " + attribute.getName() + "\n");
+            writer.write(attribute.getType()).write(' ').write(attribute.getName()).write('\n');
         }
 
         if (!classNode.getAttributes().isEmpty() && !classNode.getMethods().isEmpty()) {
-            writer.write(indent + "  --\n");
+            writer.write(indent).write("  --\n");
         }
 
         for (ClassMethod method : classNode.getMethods()) {
-            writer.write(indent + "  " + method.getVisibility() + " ");
+            writer.write(indent).write("  ").write(method.getVisibility()).write(' ');
             if (method.isStatic())
                 writer.write("{static} ");
             if (method.isAbstract())
@@ -111,17 +111,22 @@ public class ClassDiagramPlantUMLExportStrategy implements ExportStrategy<ClassD
                 writer.write("<<constructor>> ");
             }
             if (!method.isConstructor()) {
-                writer.write(method.getReturnType() + " ");
+                writer.write(method.getReturnType()).write(' ');
+            }
+            writer.write(method.getName()).write('(');
+            for (int i = 0; i < method.getParameters().size(); i++) {
+                if (i > 0) {
+                    writer.write(", ");
+                }
+                writer.write(method.getParameters().get(i));
             }
-            writer.write(method.getName() + "(");
-            writer.write(String.join(", ", method.getParameters()));
             writer.write(")\n");
         }
 
-        writer.write(indent + "}\n\n");
+        writer.write(indent).write("}\n\n");
     }
 
-    private void writePlantUMLRelationship(FileWriter writer, ClassRelationship relationship)
+    private void writePlantUMLRelationship(ExportWriter writer, ClassRelationship relationship)
             throws IOException {
         String source = sanitizeForPlantUML(getSimpleClassName(relationship.getSourceClass()));
         String target = sanitizeForPlantUML(getSimpleClassName(relationship.getTargetClass()));
@@ -135,11 +140,11 @@ public class ClassDiagramPlantUMLExportStrategy implements ExportStrategy<ClassD
             case DEPENDENCY -> " ..> ";
         };
 
-        writer.write(source + relationSymbol + target);
+        writer.write(source).write(relationSymbol).write(target);
         if (!relationship.getLabel().isEmpty()) {
-            writer.write(" : " + relationship.getLabel());
+            writer.write(" : ").write(relationship.getLabel());
         }
-        writer.write("\n");
+        writer.write('\n');
     }
 
     private String getSimpleClassName(String fullClassName) {
@@ -1,6 +1,5 @@
 package fr.jeremyhurel.utils.strategies;
 
-import java.io.FileWriter;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -14,6 +13,7 @@ import fr.jeremyhurel.models.class_models.ClassDiagram;
 import fr.jeremyhurel.models.class_models.ClassDiagramNode;
 import fr.jeremyhurel.models.class_models.ClassMethod;
 import fr.jeremyhurel.models.class_models.ClassRelationship;
+import fr.jeremyhurel.utils.ExportWriter;
 
 public class ClassDiagramWithModulesPlantUMLExportStrategy {
 
@@ -26,7 +26,7 @@ public class ClassDiagramWithModulesPlantUMLExportStrategy {
     }
 
     public void export(String filePath) throws IOException {
-        try (FileWriter writer = new FileWriter(filePath)) {
+        try (ExportWriter writer = new ExportWriter(filePath)) {
             writer.write("@startuml\n");
             writer.write("!theme plain\n");
             writer.write("title Class Diagram with Modules\n\n");
@@ -55,11 +55,11 @@ public class ClassDiagramWithModulesPlantUMLExportStrategy {
             }
 
             for (Module module : moduleGraph.getModules()) {
-                writer.write("package \"" + module.getName() + "\" {\n");
-                writer.write("  note as " + sanitizeForPlantUML(module.getName()) + "_note\n");
-                writer.write("    Module " + module.getId() + "\n");
-                writer.write("    Size: " + module.getSize() + " classes\n");
-                writer.write("    Cohesion: " + String.format("%.4f", module.getCohesion()) + "\n");
+                writer.write("package \"").write(module.getName()).write("\" {\n");
+                writer.write("  note as ").write(sanitizeForPlantUML(module.getName())).write("_note\n");
+                writer.write("    Module ").writeInt(module.getId()).write('\n');
+                writer.write("    Size: ").writeInt(module.getSize()).write(" classes\n");
+                writer.write("    Cohesion: ").writeFixed(module.getCohesion(), 4).write('\n');
                 writer.write("  end note\n\n");
 
                 for (String className : module.getClasses()) {
@@ -88,7 +88,7 @@ public class ClassDiagramWithModulesPlantUMLExportStrategy {
         }
     }
 
-    private void writePlantUMLClass(FileWriter writer, ClassDiagramNode classNode,
+    private void writePlantUMLClass(ExportWriter writer, ClassDiagramNode classNode,
             Set<String> writtenClasses, String indent) throws IOException {
         String className = sanitizeForPlantUML(classNode.getClassName());
 
@@ -98,28 +98,28 @@ public class ClassDiagramWithModulesPlantUMLExportStrategy {
         writtenClasses.add(className);
 
         if (classNode.isInterface()) {
-            writer.write(indent + "interface " + className + " <<interface>> {\n");
+            writer.write(indent).write("interface ").write(className).write(" <<interface>> {\n");
         } else if (classNode.isAbstract()) {
-            writer.write(indent + "abstract class " + className + " <<abstract>> {\n");
+            writer.write(indent).write("abstract class ").write(className).write(" <<abstract>> {\n");
         } else {
-            writer.write(indent + "class " + className + " <<concrete>> {\n");
+            writer.write(indent).write("class ").write(className).write(" <<concrete>> {\n");
         }
 
         for (ClassAttr attribute : classNode.getAttributes()) {
-            writer.write(indent + "  " + attribute.getVisibility() + " ");
+            writer.write(indent).write("  ").write(attribute.getVisibility()).write(' ');
             if (attribute.isStatic())
                 writer.write("{static} ");
             if (attribute.isFinal())
                 writer.write("{final} ");
-            writer.write(attribute.getType() + " " + attribute.getName() + "\n");
+            writer.write(attribute.getType()).write(' ').write(attribute.getName()).write('\n');
         }
 
         if (!classNode.getAttributes().isEmpty() && !classNode.getMethods().isEmpty()) {
-            writer.write(indent + "  --\n");
+            writer.write(indent).write("  --\n");
         }
 
         for (ClassMethod method : classNode.getMethods()) {
-            writer.write(indent + "  " + method.getVisibility() + " ");
+            writer.write(indent).write("  ").write(method.getVisibility()).write(' ');
             if (method.isStatic())
                 writer.write("{static} ");
             if (method.isAbstract())
@@ -128,17 +128,22 @@ public class ClassDiagramWithModulesPlantUMLExportStrategy {
                 writer.write("<<constructor>> ");
             }
             if (!method.isConstructor()) {
-                writer.write(method.getReturnType() + " ");
+                writer.write(method.getReturnType()).write(' ');
+            }
+            writer.write(method.getName()).write('(');
+            for (int i = 0; i < method.getParameters().size(); i++) {
+                if (i > 0) {
+                    writer.write(", ");
+                }
+                writer.write(method.getParameters().get(i));
             }
-            writer.write(method.getName() + "(");
-            writer.write(String.join(", ", method.getParameters()));
             writer.write(")\n");
         }
 
-        writer.write(indent + "}\n\n");
+        writer.write(indent).write("}\n\n");
     }
 
-    private void writePlantUMLRelationship(FileWriter writer, ClassRelationship relationship)
+    private void writePlantUMLRelationship(ExportWriter writer, ClassRelationship relationship)
             throws IOException {
         String source = sanitizeForPlantUML(getSimpleClassName(relationship.getSourceClass()));
         String target = sanitizeForPlantUML(getSimpleClassName(relationship.getTargetClass()));
@@ -152,11 +157,11 @@ public class ClassDiagramWithModulesPlantUMLExportStrategy {
             case DEPENDENCY -> " ..> ";
         };
 
-        writer.write(source + relationSymbol + target);
+        writer.write(source).write(relationSymbol).write(target);
         if (!relationship.getLabel().isEmpty()) {
-            writer.write(" : " + relationship.getLabel());
+            writer.write(" : ").write(relationship.getLabel());
         }
-        writer.write("\n");
+        writer.write('\n');
     }
 
     private String getSimpleClassName(String fullClassName) {
@@ -0,0 +1,48 @@
+package fr.jeremyhurel.utils.strategies;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import fr.jeremyhurel.models.ClusterTree;
+import fr.jeremyhurel.models.ClusterTree.ClusterNode;
+import fr.jeremyhurel.utils.SnapshotFormat;
+import fr.jeremyhurel.utils.SnapshotWriter;
+
+public class ClusterTreeSnapshotExportStrategy implements ExportStrategy<ClusterTree> {
+
+    // Only the leaf names and the merge arrays are stored; labels, sizes and
+    // depths are derived again when the tree is loaded.
+    @Override
+    public void export(ClusterTree data, String filePath) throws IOException {
+        List<String> leafNames = new ArrayList<>(data.getLeafCount());
+        for (int leaf = 0; leaf < data.getLeafCount(); leaf++) {
+            leafNames.add(data.getNode(leaf).getName());
+        }
+
+        try (SnapshotWriter writer = new SnapshotWriter(filePath, SnapshotFormat.CLUSTER_TREE)) {
+            writer.writeStringTable(leafNames);
+            writer.writeString(data.getEngine().name()).writeString(data.getLinkage().name());
+            writer.writeVarint(data.getLeafCount());
+
+            List<ClusterNode> merges = data.getMergeHistory();
+            writer.writeVarint(merges.size());
+            for (ClusterNode merge : merges) {
+                writer.writeVarint(merge.getLeft().getId())
+                        .writeVarint(merge.getRight().getId())
+                        .writeDouble(merge.getCouplingValue());
+            }
+            writer.writeVarint(data.getRoot() != null ? data.getRoot().getId() + 1 : 0);
+        }
+    }
+
+    @Override
+    public String getFormatName() {
+        return "Snapshot";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "snap";
+    }
+}
@@ -1,19 +1,18 @@
 package fr.jeremyhurel.utils.strategies;
 
-import java.io.FileWriter;
 import java.io.IOException;
 import java.util.Map;
 
 import fr.jeremyhurel.models.CouplingGraph;
 import fr.jeremyhurel.models.CouplingNode;
-import static fr.jeremyhurel.utils.StringFormatter.escapeDot;
+import fr.jeremyhurel.utils.ExportWriter;
 import static fr.jeremyhurel.utils.StringFormatter.sanitizeForDot;
 
 public class CouplingGraphDotExportStrategy implements ExportStrategy<CouplingGraph> {
 
     @Override
     public void export(CouplingGraph data, String filePath) throws IOException {
-        try (FileWriter writer = new FileWriter(filePath)) {
+        try (ExportWriter writer = new ExportWriter(filePath)) {
             writer.write("digraph CouplingGraph {\n");
             writer.write("    rankdir=LR;\n");
             writer.write("    node [shape=box, style=filled, fillcolor=lightblue];\n");
@@ -24,10 +23,8 @@ public class CouplingGraphDotExportStrategy implements ExportStrategy<CouplingGr
                 String label = getSimpleClassName(node.getClassName());
                 float totalCoupling = node.getCouplingValue();
 
-                String tooltip = String.format("Total outgoing coupling: %.6f", totalCoupling);
-
-                writer.write("    \"" + nodeId + "\" [label=\"" + escapeDot(label) + "\", tooltip=\""
-                            + escapeDot(tooltip) + "\"];\n");
+                writer.write("    \"").write(nodeId).write("\" [label=\"").writeEscaped(label)
+                        .write("\", tooltip=\"Total outgoing coupling: ").writeFixed(totalCoupling, 6).write("\"];\n");
             }
 
             writer.write("\n");
@@ -44,11 +41,10 @@ public class CouplingGraphDotExportStrategy implements ExportStrategy<CouplingGr
 
                     String edgeStyle = getEdgeStyle(normalizedCoupling);
                     String edgeColor = getEdgeColor(normalizedCoupling);
-                    String label = "calls=" + callCount + "\\ncoupling=" + String.format("%.4f", normalizedCoupling);
-
-                    writer.write("    \"" + fromId + "\" -> \"" + toId + "\" [label=\""
-                            + label + "\", " + edgeStyle + ", color=\"" + edgeColor
-                            + "\"];\n");
+                    writer.write("    \"").write(fromId).write("\" -> \"").write(toId)
+                            .write("\" [label=\"calls=").writeInt(callCount)
+                            .write("\\ncoupling=").writeFixed(normalizedCoupling, 4)
+                            .write("\", ").write(edgeStyle).write(", color=\"").write(edgeColor).write("\"];\n");
                 }
             }
 
@@ -1,63 +1,59 @@
 package fr.jeremyhurel.utils.strategies;
 
-import java.io.FileWriter;
 import java.io.IOException;
 import java.util.Map;
 
 import fr.jeremyhurel.models.CouplingGraph;
 import fr.jeremyhurel.models.CouplingNode;
-import static fr.jeremyhurel.utils.StringFormatter.escapeJson;
+import fr.jeremyhurel.utils.JsonWriter;
 
 public class CouplingGraphJsonExportStrategy implements ExportStrategy<CouplingGraph> {
 
+    private final boolean pretty;
+
+    public CouplingGraphJsonExportStrategy() {
+        this(true);
+    }
+
+    public CouplingGraphJsonExportStrategy(boolean pretty) {
+        this.pretty = pretty;
+    }
+
     @Override
     public void export(CouplingGraph data, String filePath) throws IOException {
-        try (FileWriter writer = new FileWriter(filePath)) {
-            writer.write("{\n");
-            writer.write("  \"couplingGraph\": {\n");
-            writer.write("    \"specification\": \"Couplage(A,B) = Number of method calls between A and B / Total method calls in application\",\n");
-            writer.write("    \"nodeCount\": " + data.getNodeCount() + ",\n");
-            writer.write("    \"couplingCount\": " + data.getCouplingCount() + ",\n");
-            writer.write("    \"totalMethodCalls\": " + data.getTotalMethodCalls() + ",\n");
-            writer.write("    \"nodes\": [\n");
+        try (JsonWriter json = new JsonWriter(filePath, pretty)) {
+            json.beginObject().name("couplingGraph").beginObject();
+            json.name("specification")
+                    .value("Couplage(A,B) = Number of method calls between A and B / Total method calls in application");
+            json.name("nodeCount").value(data.getNodeCount());
+            json.name("couplingCount").value(data.getCouplingCount());
+            json.name("totalMethodCalls").value(data.getTotalMethodCalls());
 
-            boolean firstNode = true;
+            json.name("nodes").beginArray();
             for (CouplingNode node : data.getNodes().values()) {
-                if (!firstNode) {
-                    writer.write(",\n");
-                }
-                writer.write("      {\n");
-                writer.write("        \"className\": \"" + escapeJson(node.getClassName()) + "\",\n");
-                writer.write("        \"totalOutgoingCoupling\": " + String.format("%.6f", node.getCouplingValue()) + "\n");
-                writer.write("      }");
-                firstNode = false;
+                json.beginObject();
+                json.name("className").value(node.getClassName());
+                json.name("totalOutgoingCoupling").valueFixed(node.getCouplingValue(), 6);
+                json.endObject();
             }
-            writer.write("\n    ],\n");
+            json.endArray();
 
-            writer.write("    \"couplings\": [\n");
-            boolean firstCoupling = true;
+            json.name("couplings").beginArray();
             for (Map.Entry<String, Map<String, Integer>> entry : data.getCallCountMatrix().entrySet()) {
                 String from = entry.getKey();
                 for (Map.Entry<String, Integer> callEntry : entry.getValue().entrySet()) {
                     String to = callEntry.getKey();
-                    int callCount = callEntry.getValue();
-                    double normalizedCoupling = data.getCouplingWeight(from, to);
-
-                    if (!firstCoupling) {
-                        writer.write(",\n");
-                    }
-                    writer.write("      {\n");
-                    writer.write("        \"from\": \"" + escapeJson(from) + "\",\n");
-                    writer.write("        \"to\": \"" + escapeJson(to) + "\",\n");
-                    writer.write("        \"methodCallCount\": " + callCount + ",\n");
-                    writer.write("        \"normalizedCoupling\": " + String.format("%.6f", normalizedCoupling) + "\n");
-                    writer.write("      }");
-                    firstCoupling = false;
+                    json.beginObject();
+                    json.name("from").value(from);
+                    json.name("to").value(to);
+                    json.name("methodCallCount").value(callEntry.getValue());
+                    json.name("normalizedCoupling").valueFixed(data.getCouplingWeight(from, to), 6);
+                    json.endObject();
                 }
             }
-            writer.write("\n    ]\n");
-            writer.write("  }\n");
-            writer.write("}\n");
+            json.endArray();
+
+            json.endObject().endObject();
         }
     }
 
@@ -0,0 +1,63 @@
+package fr.jeremyhurel.utils.strategies;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import fr.jeremyhurel.models.ClassNameTable;
+import fr.jeremyhurel.models.CouplingGraph;
+import fr.jeremyhurel.models.CouplingNode;
+import fr.jeremyhurel.models.SparseCouplingMatrix;
+import fr.jeremyhurel.utils.SnapshotFormat;
+import fr.jeremyhurel.utils.SnapshotWriter;
+
+public class CouplingGraphSnapshotExportStrategy implements ExportStrategy<CouplingGraph> {
+
+    // The string table starts with the class name table, so class ids are
+    // kept as they are; nodes without any call are appended after it. The
+    // calls come from the normalized matrix, as in the other exports.
+    @Override
+    public void export(CouplingGraph data, String filePath) throws IOException {
+        ClassNameTable classNames = data.getClassNames();
+        List<String> strings = new ArrayList<>(classNames.size());
+        for (int id = 0; id < classNames.size(); id++) {
+            strings.add(classNames.nameOf(id));
+        }
+        for (String nodeName : data.getAllNodeNames()) {
+            if (classNames.indexOf(nodeName) < 0) {
+                strings.add(nodeName);
+            }
+        }
+
+        try (SnapshotWriter writer = new SnapshotWriter(filePath, SnapshotFormat.COUPLING_GRAPH)) {
+            Map<String, Integer> indexes = writer.writeStringTable(strings);
+            SparseCouplingMatrix matrix = data.getSparseCouplingMatrix();
+            writer.writeVarint(classNames.size()).writeVarint(matrix.getEdgeCount());
+
+            writer.writeVarint(data.getNodeCount());
+            for (CouplingNode node : data.getNodes().values()) {
+                writer.writeVarint(indexes.get(node.getClassName())).writeFloat(node.getCouplingValue());
+            }
+
+            for (int row = 0; row < classNames.size(); row++) {
+                writer.writeVarint(matrix.rowEnd(row) - matrix.rowStart(row));
+                int previous = 0;
+                for (int edge = matrix.rowStart(row); edge < matrix.rowEnd(row); edge++) {
+                    writer.writeVarint(matrix.col(edge) - previous).writeVarint(matrix.count(edge));
+                    previous = matrix.col(edge);
+                }
+            }
+        }
+    }
+
+    @Override
+    public String getFormatName() {
+        return "Snapshot";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "snap";
+    }
+}
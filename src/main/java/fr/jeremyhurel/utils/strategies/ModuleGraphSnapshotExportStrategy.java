@@ -0,0 +1,51 @@
+package fr.jeremyhurel.utils.strategies;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import fr.jeremyhurel.models.Module;
+import fr.jeremyhurel.models.ModuleGraph;
+import fr.jeremyhurel.utils.SnapshotFormat;
+import fr.jeremyhurel.utils.SnapshotWriter;
+
+public class ModuleGraphSnapshotExportStrategy implements ExportStrategy<ModuleGraph> {
+
+    @Override
+    public void export(ModuleGraph data, String filePath) throws IOException {
+        List<Module> modules = data.getModules();
+        Set<String> strings = new LinkedHashSet<>();
+        for (Module module : modules) {
+            strings.add(module.getName());
+            strings.addAll(module.getClasses());
+        }
+
+        try (SnapshotWriter writer = new SnapshotWriter(filePath, SnapshotFormat.MODULE_GRAPH)) {
+            Map<String, Integer> indexes = writer.writeStringTable(new ArrayList<>(strings));
+            writer.writeVarint(modules.size());
+            for (Module module : modules) {
+                List<String> classes = module.getClasses();
+                writer.writeSignedVarint(module.getId())
+                        .writeVarint(indexes.get(module.getName()))
+                        .writeDouble(module.getCohesion())
+                        .writeVarint(classes.size());
+                for (String className : classes) {
+                    writer.writeVarint(indexes.get(className));
+                }
+            }
+        }
+    }
+
+    @Override
+    public String getFormatName() {
+        return "Snapshot";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "snap";
+    }
+}